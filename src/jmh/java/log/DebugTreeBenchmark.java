@@ -0,0 +1,85 @@
+package log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Logger.DebugTree}: tag inference from the call stack and chunking of messages
+ * longer than the maximum log length. Printing is replaced by a blackhole so that console I/O does
+ * not dominate the numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class DebugTreeBenchmark {
+    private static final String LARGE_MESSAGE = repeat('a', 3000) + '\n' + repeat('b', 9000);
+
+    @Param({"0", "1", "5", "50"})
+    public int trees;
+
+    @Setup public void plant(Blackhole blackhole) {
+        for (int i = 0; i < trees; i++) {
+            Logger.plant(new BlackholeDebugTree(blackhole));
+        }
+    }
+
+    @TearDown public void uproot() {
+        Logger.uprootAll();
+    }
+
+    @Benchmark public void inferredTag() {
+        Logger.d("Hello, World!");
+    }
+
+    @Benchmark public void explicitTag() {
+        Logger.tag("Benchmark").d("Hello, World!");
+    }
+
+    @Benchmark public void chunked() {
+        Logger.d(LARGE_MESSAGE);
+    }
+
+    /** The same benchmarks with several threads logging concurrently. */
+    @Threads(4)
+    public static class Contended extends DebugTreeBenchmark {
+    }
+
+    static final class BlackholeDebugTree extends Logger.DebugTree {
+        private final Blackhole blackhole;
+
+        BlackholeDebugTree(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override protected void print(int priority, String tag, String message, Throwable throwable) {
+            blackhole.consume(priority);
+            blackhole.consume(tag);
+            blackhole.consume(message);
+        }
+    }
+
+    private static String repeat(char c, int number) {
+        char[] data = new char[number];
+        Arrays.fill(data, c);
+        return new String(data);
+    }
+}
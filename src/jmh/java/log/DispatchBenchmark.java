@@ -0,0 +1,81 @@
+package log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the static {@link Logger} entry points through {@code TREE_OF_SOULS} and
+ * {@code Tree.prepareLog} into trees that do nothing but consume the result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+    private static final Throwable EXCEPTION = new IllegalStateException("Benchmark");
+
+    @Param({"0", "1", "5", "50"})
+    public int trees;
+
+    @Setup public void plant(Blackhole blackhole) {
+        for (int i = 0; i < trees; i++) {
+            Logger.plant(new BlackholeTree(blackhole));
+        }
+    }
+
+    @TearDown public void uproot() {
+        Logger.uprootAll();
+    }
+
+    @Benchmark public void message() {
+        Logger.d("Hello, World!");
+    }
+
+    @Benchmark public void formatted() {
+        Logger.d("Hello, %s! %d", "World", 42);
+    }
+
+    @Benchmark public void throwable() {
+        Logger.d(EXCEPTION, "Failed");
+    }
+
+    @Benchmark public void tagged() {
+        Logger.tag("Benchmark").d("Hello, World!");
+    }
+
+    /** The same benchmarks with several threads logging concurrently. */
+    @Threads(4)
+    public static class Contended extends DispatchBenchmark {
+    }
+
+    static final class BlackholeTree extends Logger.Tree {
+        private final Blackhole blackhole;
+
+        BlackholeTree(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            blackhole.consume(priority);
+            blackhole.consume(tag);
+            blackhole.consume(message);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package log;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Logger.Tree Tree} that collects messages and hands them to {@link #logBatch(List)} many
+ * at a time, for sinks such as sockets or databases that are cheaper per message in bulk.
+ * <p>
+ * A batch is delivered when it holds {@code maxBatchSize} messages, when its first message is
+ * {@code maxLingerMillis} old, on {@link #flush()} and on {@link #close()}. Messages are captured
+ * into preallocated {@link LogEvent} slots that are reused for the next batch.
+ * <p>
+ * {@link #logBatch(List)} is called with this tree's lock held, so batches arrive one at a time
+ * and in order, on whichever thread filled the batch or on a background thread when it lingered.
+ * The lock is a {@link ReentrantLock} rather than a monitor, so a virtual thread blocked in
+ * {@link #logBatch(List)} releases its carrier thread.
+ * A failure is thrown to the logging thread or {@link #flush()} caller; a failure in the
+ * background loses the batch.
+ */
+public abstract class BatchingTree extends Logger.Tree implements Flushable, Closeable {
+    private final LogEvent[] slots;
+    private final long maxLingerMillis;
+    private final ScheduledExecutorService lingerTimer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<LogEvent> batch = new AbstractList<LogEvent>() {
+        @Override public LogEvent get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(
+                        "index " + index + " out of bounds for size " + size);
+            }
+            return slots[index];
+        }
+
+        @Override public int size() {
+            return size;
+        }
+    };
+
+    // Guarded by 'lock'.
+    private int size;
+    private long batches;
+    private boolean closed;
+
+    /**
+     * @param maxLingerMillis How long a message may wait for the batch to fill, or 0 to wait for
+     * a full batch or {@link #flush()}.
+     */
+    protected BatchingTree(int maxBatchSize, long maxLingerMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize < 1: " + maxBatchSize);
+        }
+        if (maxLingerMillis < 0) {
+            throw new IllegalArgumentException("maxLingerMillis < 0: " + maxLingerMillis);
+        }
+        this.slots = new LogEvent[maxBatchSize];
+        for (int i = 0; i < maxBatchSize; i++) {
+            slots[i] = new LogEvent(false);
+        }
+        this.maxLingerMillis = maxLingerMillis;
+        if (maxLingerMillis > 0) {
+            final String name = getClass().getSimpleName() + "-linger";
+            lingerTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        } else {
+            lingerTimer = null;
+        }
+    }
+
+    /**
+     * Write {@code events}, oldest first. The list and its events are reused once this returns.
+     */
+    protected abstract void logBatch(List<LogEvent> events) throws IOException;
+
+    @Override protected final void log(int priority, String tag, String message, Throwable t) {
+        lock.lock();
+        try {
+            if (closed) {
+                LoggerMetrics.dropped(this);
+                return;
+            }
+            slots[size++].set(priority, tag, message, t, System.currentTimeMillis());
+            if (size == slots.length) {
+                deliver();
+            } else if (size == 1 && lingerTimer != null) {
+                lingerTimer.schedule(new Linger(batches), maxLingerMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Deliver the messages collected so far. */
+    @Override public void flush() {
+        lock.lock();
+        try {
+            if (size > 0) {
+                deliver();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Deliver the messages collected so far. Messages logged afterwards are dropped. */
+    @Override public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flush();
+            } finally {
+                if (lingerTimer != null) {
+                    lingerTimer.shutdown();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Called on the timer thread when batch {@code number} may have lingered too long. */
+    private void lingered(long number) {
+        lock.lock();
+        try {
+            if (number == batches && size > 0) {
+                int lost = size;
+                try {
+                    deliver();
+                } catch (RuntimeException e) {
+                    LoggerMetrics.dropped(this, lost);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deliver() {
+        try {
+            logBatch(batch);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write batch", e);
+        } finally {
+            for (int i = 0; i < size; i++) {
+                slots[i].clear();
+            }
+            size = 0;
+            batches++;
+        }
+    }
+
+    private final class Linger implements Runnable {
+        private final long number;
+
+        Linger(long number) {
+            this.number = number;
+        }
+
+        @Override public void run() {
+            lingered(number);
+        }
+    }
+}
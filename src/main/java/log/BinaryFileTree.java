@@ -0,0 +1,431 @@
+package log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link Logger.Tree Tree} that appends compact binary records to a file instead of text.
+ * <p>
+ * Messages are not formatted: each record holds the priority, the timestamp, the tag and message
+ * template as dictionary ids, the raw arguments and the exception's structure. Messages without
+ * arguments are written inline, since they are often built by concatenation. Arguments of other
+ * types than strings, primitive wrappers and null are formatted on the spot. Decode the file
+ * offline with {@link BinaryLogDecoder}, which rebuilds the text a {@link Logger.DebugTree
+ * DebugTree} would have printed.
+ * <p>
+ * Records are buffered into blocks, each with its own checksum and the dictionary entries it
+ * uses, so the decoder can skip a block torn by a crash and carry on with the next. A block is
+ * written when it is full, when a message at {@link Logger.Priority#ERROR ERROR} or above is
+ * logged, and on {@link #flush()} and {@link #close()}. Writers are serialized with a
+ * {@link ReentrantLock} rather than a monitor, so a virtual thread blocked on the file releases its
+ * carrier thread.
+ */
+public class BinaryFileTree extends Logger.Tree implements Flushable, Closeable {
+    static final int BLOCK_MAGIC = 0x4C4F4742; // "LOGB"
+    /** Block header: int magic, int body length, int checksum of the body. */
+    static final int BLOCK_HEADER_SIZE = 12;
+    /** Block body: long base timestamp, then records. */
+    static final int BLOCK_RECORDS_OFFSET = 8;
+
+    // A string is written as a varint code: null, an inline value, a dictionary definition
+    // followed by the id and value, or a reference to id (code - STRING_REF).
+    static final int STRING_NULL = 0;
+    static final int STRING_INLINE = 1;
+    static final int STRING_DEFINE = 2;
+    static final int STRING_REF = 3;
+
+    // Argument types.
+    static final byte ARG_NULL = 0;
+    static final byte ARG_STRING = 1;
+    static final byte ARG_INT = 2;
+    static final byte ARG_LONG = 3;
+    static final byte ARG_SHORT = 4;
+    static final byte ARG_BYTE = 5;
+    static final byte ARG_FLOAT = 6;
+    static final byte ARG_DOUBLE = 7;
+    static final byte ARG_TRUE = 8;
+    static final byte ARG_FALSE = 9;
+    static final byte ARG_CHAR = 10;
+
+    // Exception nodes.
+    static final byte THROWABLE_NONE = 0;
+    static final byte THROWABLE = 1;
+    static final byte THROWABLE_CIRCULAR = 2;
+
+    private static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    private static final int MIN_BLOCK_SIZE = 1024;
+    /** Strings beyond this many dictionary entries are written inline. */
+    private static final int MAX_DICTIONARY_SIZE = 8192;
+
+    private final File file;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by 'lock'.
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    private final Map<String, Entry> dictionary = new HashMap<>();
+    private ByteBuffer block;
+    /** Incremented per block, so that dictionary entries know whether they were defined in it. */
+    private int blockNumber;
+    private long baseTimestamp;
+    private boolean closed;
+
+    public BinaryFileTree(File file) throws IOException {
+        this(file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /** @param blockSize Size of the buffered blocks in bytes. Larger records get larger blocks. */
+    public BinaryFileTree(File file, int blockSize) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file == null");
+        }
+        if (blockSize < MIN_BLOCK_SIZE) {
+            throw new IllegalArgumentException("blockSize < " + MIN_BLOCK_SIZE + ": " + blockSize);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.block = ByteBuffer.allocate(blockSize);
+        startBlock();
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args) {
+        if (message != null && message.length() == 0) {
+            message = null;
+        }
+        if (message == null && t == null) {
+            return; // Swallow message if it's null and there's no throwable.
+        }
+        if (message != null && args.length > 0 && !isEncodable(args)) {
+            // The decoder could not format these arguments the way this JVM would.
+            message = format(message, args);
+            args = null;
+        }
+        lock.lock();
+        try {
+            write(priority, tag, t, message, args);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Write text that was formatted elsewhere, such as by an {@link Logger.AsyncTree}. */
+    @Override protected void log(int priority, String tag, String message, Throwable t) {
+        lock.lock();
+        try {
+            write(priority, tag, null, message, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Write the buffered records to the file. */
+    @Override public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (!closed) {
+                writeBlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Flush and close the file. Messages logged afterwards are dropped. */
+    @Override public void close() throws IOException {
+        lock.lock();
+        try {
+            if (!closed) {
+                try {
+                    writeBlock();
+                } finally {
+                    closed = true;
+                    channel.close();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(int priority, String tag, Throwable t, String message, Object[] args) {
+        if (closed) {
+            LoggerMetrics.dropped(this);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            while (true) {
+                int start = block.position();
+                try {
+                    putEvent(now, priority, tag, t, message, args);
+                    break;
+                } catch (BufferOverflowException e) {
+                    block.position(start);
+                    if (start == BLOCK_RECORDS_OFFSET) {
+                        // Nothing but the timestamp yet: the record needs a bigger block.
+                        block = ByteBuffer.allocate(block.capacity() * 2);
+                        startBlock();
+                    } else {
+                        writeBlock();
+                    }
+                }
+            }
+            if (priority >= Logger.Priority.ERROR) {
+                writeBlock();
+            }
+        } catch (IOException e) {
+            startBlock();
+            throw new IllegalStateException("Cannot write " + file, e);
+        }
+    }
+
+    private void startBlock() {
+        block.clear();
+        blockNumber++;
+        baseTimestamp = -1;
+        block.position(BLOCK_RECORDS_OFFSET); // Leave room for the base timestamp.
+    }
+
+    private void writeBlock() throws IOException {
+        if (baseTimestamp == -1) {
+            return; // Empty.
+        }
+        ByteBuffer block = this.block;
+        block.putLong(0, baseTimestamp);
+        block.flip();
+        crc.reset();
+        crc.update(block.array(), 0, block.limit());
+        header.clear();
+        header.putInt(BLOCK_MAGIC).putInt(block.limit()).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] buffers = { header, block };
+        while (block.hasRemaining()) {
+            channel.write(buffers);
+        }
+        LoggerMetrics.wrote(this, BLOCK_HEADER_SIZE + block.limit());
+        startBlock();
+    }
+
+    private void putEvent(long timestamp, int priority, String tag, Throwable t, String message,
+            Object[] args) {
+        ByteBuffer block = this.block;
+        if (baseTimestamp == -1) {
+            baseTimestamp = timestamp;
+        }
+        block.put((byte) priority);
+        putVarLong(block, zigZag(timestamp - baseTimestamp));
+        putDictionaryString(tag);
+        int count = args != null ? args.length : 0;
+        if (count > 0) {
+            putDictionaryString(message);
+        } else {
+            putInlineString(block, message);
+        }
+        putVarInt(block, count);
+        for (int i = 0; i < count; i++) {
+            putArg(args[i]);
+        }
+        if (t == null) {
+            block.put(THROWABLE_NONE);
+        } else {
+            putThrowable(t, Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>()));
+        }
+    }
+
+    private void putArg(Object arg) {
+        ByteBuffer block = this.block;
+        if (arg == null) {
+            block.put(ARG_NULL);
+        } else if (arg instanceof String) {
+            block.put(ARG_STRING);
+            putInlineString(block, (String) arg);
+        } else if (arg instanceof Integer) {
+            block.put(ARG_INT);
+            putVarLong(block, zigZag((Integer) arg));
+        } else if (arg instanceof Long) {
+            block.put(ARG_LONG);
+            putVarLong(block, zigZag((Long) arg));
+        } else if (arg instanceof Short) {
+            block.put(ARG_SHORT);
+            putVarLong(block, zigZag((Short) arg));
+        } else if (arg instanceof Byte) {
+            block.put(ARG_BYTE);
+            block.put((Byte) arg);
+        } else if (arg instanceof Float) {
+            block.put(ARG_FLOAT);
+            block.putFloat((Float) arg);
+        } else if (arg instanceof Double) {
+            block.put(ARG_DOUBLE);
+            block.putDouble((Double) arg);
+        } else if (arg instanceof Boolean) {
+            block.put((Boolean) arg ? ARG_TRUE : ARG_FALSE);
+        } else {
+            block.put(ARG_CHAR);
+            block.putChar((Character) arg);
+        }
+    }
+
+    private static boolean isEncodable(Object[] args) {
+        for (Object arg : args) {
+            if (arg != null && !(arg instanceof String || arg instanceof Integer
+                    || arg instanceof Long || arg instanceof Short || arg instanceof Byte
+                    || arg instanceof Float || arg instanceof Double || arg instanceof Boolean
+                    || arg instanceof Character)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Write {@code t} with its frames, suppressed exceptions and causes, as printed by it. */
+    private void putThrowable(Throwable t, Set<Throwable> seen) {
+        ByteBuffer block = this.block;
+        if (!seen.add(t)) {
+            block.put(THROWABLE_CIRCULAR);
+            putInlineString(block, t.toString());
+            return;
+        }
+        block.put(THROWABLE);
+        putInlineString(block, t.toString());
+        StackTraceElement[] frames = t.getStackTrace();
+        putVarInt(block, frames.length);
+        for (StackTraceElement frame : frames) {
+            putDictionaryString(frame.toString());
+        }
+        Throwable[] suppressed = t.getSuppressed();
+        putVarInt(block, suppressed.length);
+        for (Throwable s : suppressed) {
+            putThrowable(s, seen);
+        }
+        Throwable cause = t.getCause();
+        if (cause == null) {
+            block.put(THROWABLE_NONE);
+        } else {
+            putThrowable(cause, seen);
+        }
+    }
+
+    private void putDictionaryString(String s) {
+        ByteBuffer block = this.block;
+        if (s == null) {
+            putVarInt(block, STRING_NULL);
+            return;
+        }
+        Entry entry = dictionary.get(s);
+        if (entry == null) {
+            if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+                putInlineString(block, s);
+                return;
+            }
+            entry = new Entry(dictionary.size());
+            dictionary.put(s, entry);
+        }
+        if (entry.block == blockNumber) {
+            putVarInt(block, STRING_REF + entry.id);
+        } else {
+            putVarInt(block, STRING_DEFINE);
+            putVarInt(block, entry.id);
+            putUtf8(block, s);
+            entry.block = blockNumber;
+        }
+    }
+
+    private static void putInlineString(ByteBuffer block, String s) {
+        if (s == null) {
+            putVarInt(block, STRING_NULL);
+        } else {
+            putVarInt(block, STRING_INLINE);
+            putUtf8(block, s);
+        }
+    }
+
+    /** Write the UTF-8 length as a varint, then the bytes. */
+    private static void putUtf8(ByteBuffer block, String s) {
+        int length = s.length();
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                size++;
+            } else {
+                size += 3;
+            }
+        }
+        putVarInt(block, size);
+        if (size > block.remaining()) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                block.put((byte) c);
+            } else if (c < 0x800) {
+                block.put((byte) (0xC0 | c >> 6));
+                block.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                block.put((byte) (0xF0 | codePoint >> 18));
+                block.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                block.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                block.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced like String.getBytes does.
+                block.put((byte) '?');
+            } else {
+                block.put((byte) (0xE0 | c >> 12));
+                block.put((byte) (0x80 | c >> 6 & 0x3F));
+                block.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static void putVarInt(ByteBuffer block, int value) {
+        putVarLong(block, value & 0xFFFFFFFFL);
+    }
+
+    private static void putVarLong(ByteBuffer block, long value) {
+        while ((value & ~0x7FL) != 0) {
+            block.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        block.put((byte) value);
+    }
+
+    private static final class Entry {
+        final int id;
+        /** The last block that defined this entry. */
+        int block;
+
+        Entry(int id) {
+            this.id = id;
+        }
+    }
+}
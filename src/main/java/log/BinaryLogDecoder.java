@@ -0,0 +1,308 @@
+package log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static log.BinaryFileTree.ARG_BYTE;
+import static log.BinaryFileTree.ARG_CHAR;
+import static log.BinaryFileTree.ARG_DOUBLE;
+import static log.BinaryFileTree.ARG_FALSE;
+import static log.BinaryFileTree.ARG_FLOAT;
+import static log.BinaryFileTree.ARG_INT;
+import static log.BinaryFileTree.ARG_LONG;
+import static log.BinaryFileTree.ARG_NULL;
+import static log.BinaryFileTree.ARG_SHORT;
+import static log.BinaryFileTree.ARG_STRING;
+import static log.BinaryFileTree.ARG_TRUE;
+import static log.BinaryFileTree.BLOCK_HEADER_SIZE;
+import static log.BinaryFileTree.BLOCK_MAGIC;
+import static log.BinaryFileTree.BLOCK_RECORDS_OFFSET;
+import static log.BinaryFileTree.STRING_DEFINE;
+import static log.BinaryFileTree.STRING_INLINE;
+import static log.BinaryFileTree.STRING_NULL;
+import static log.BinaryFileTree.STRING_REF;
+import static log.BinaryFileTree.THROWABLE;
+import static log.BinaryFileTree.THROWABLE_CIRCULAR;
+import static log.BinaryFileTree.THROWABLE_NONE;
+
+/**
+ * Turns files written by {@link BinaryFileTree} back into the text a
+ * {@link Logger.DebugTree DebugTree} would have printed. Blocks that fail their checksum, such as
+ * one torn by a crash, are skipped.
+ * <p>
+ * From the command line: {@code java log.BinaryLogDecoder [--timestamps] <file>...}
+ */
+public final class BinaryLogDecoder {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Appendable out;
+    private final SimpleDateFormat dateFormat;
+    private final Map<Integer, String> dictionary = new HashMap<>();
+    private final Printer printer = new Printer();
+    private long timestamp;
+    private int skipped;
+
+    private BinaryLogDecoder(Appendable out, boolean timestamps) {
+        this.out = out;
+        this.dateFormat = timestamps ? new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS ") : null;
+    }
+
+    /**
+     * Append the decoded lines of {@code file} to {@code out}.
+     *
+     * @param timestamps Whether to prefix each line with the time it was logged.
+     * @return The number of corrupt regions that were skipped.
+     */
+    public static int decode(File file, Appendable out, boolean timestamps) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            byte[] bytes = new byte[(int) input.length()];
+            input.readFully(bytes);
+            BinaryLogDecoder decoder = new BinaryLogDecoder(out, timestamps);
+            decoder.decode(ByteBuffer.wrap(bytes));
+            return decoder.skipped;
+        } finally {
+            input.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean timestamps = false;
+        List<File> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--timestamps")) {
+                timestamps = true;
+            } else {
+                files.add(new File(arg));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: BinaryLogDecoder [--timestamps] <file>...");
+            System.exit(1);
+        }
+        Writer out = new OutputStreamWriter(System.out, UTF_8);
+        for (File file : files) {
+            int skipped = decode(file, out, timestamps);
+            if (skipped > 0) {
+                out.flush();
+                System.err.println(file + ": skipped " + skipped + " corrupt region(s)");
+            }
+        }
+        out.flush();
+    }
+
+    private void decode(ByteBuffer file) throws IOException {
+        CRC32 crc = new CRC32();
+        boolean resyncing = false;
+        int position = 0;
+        while (position + BLOCK_HEADER_SIZE <= file.limit()) {
+            int length = file.getInt(position + 4);
+            if (file.getInt(position) == BLOCK_MAGIC
+                    && length >= BLOCK_RECORDS_OFFSET
+                    && length <= file.limit() - position - BLOCK_HEADER_SIZE) {
+                int body = position + BLOCK_HEADER_SIZE;
+                crc.reset();
+                crc.update(file.array(), body, length);
+                if ((int) crc.getValue() == file.getInt(position + 8)) {
+                    ByteBuffer block = ByteBuffer.wrap(file.array(), body, length).slice();
+                    decodeBlock(block);
+                    position = body + length;
+                    resyncing = false;
+                    continue;
+                }
+            }
+            if (!resyncing) {
+                skipped++;
+                resyncing = true;
+            }
+            position++;
+        }
+        if (position < file.limit() && !resyncing) {
+            skipped++;
+        }
+    }
+
+    private void decodeBlock(ByteBuffer block) throws IOException {
+        long base = block.getLong();
+        while (block.hasRemaining()) {
+            int priority = block.get();
+            timestamp = base + unZigZag(getVarLong(block));
+            String tag = getString(block);
+            String message = getString(block);
+            int count = getVarInt(block);
+            Object[] args = count == 0 ? NO_ARGS : new Object[count];
+            for (int i = 0; i < count; i++) {
+                args[i] = getArg(block);
+            }
+            String trace = null;
+            if (block.get() == THROWABLE) {
+                StringBuilder sb = new StringBuilder();
+                appendThrowable(block, sb, null, "", "");
+                trace = sb.toString();
+            }
+            print(priority, tag, message, args, trace);
+        }
+    }
+
+    /** Rebuild the message as {@link Logger.Tree} would have. */
+    private void print(int priority, String tag, String message, Object[] args, String trace)
+            throws IOException {
+        if (message == null) {
+            message = trace;
+        } else {
+            if (args.length > 0) {
+                try {
+                    message = MessageFormatter.format(message, args);
+                } catch (IllegalFormatException e) {
+                    // The logging call would have thrown this. Show what it was given instead.
+                    StringBuilder sb = new StringBuilder(message);
+                    for (Object arg : args) {
+                        sb.append(' ').append(arg);
+                    }
+                    message = sb.toString();
+                }
+            }
+            if (trace != null) {
+                message += "\n" + trace;
+            }
+        }
+        printer.log(priority, tag, message, null);
+    }
+
+    /** Append a throwable the way {@link Throwable#printStackTrace()} prints it. */
+    private void appendThrowable(ByteBuffer block, StringBuilder sb,
+            String[] enclosingFrames, String caption, String prefix) {
+        String description = getString(block);
+        String[] frames = new String[getVarInt(block)];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = getString(block);
+        }
+        int m = frames.length - 1;
+        if (enclosingFrames != null) {
+            for (int n = enclosingFrames.length - 1;
+                    m >= 0 && n >= 0 && frames[m].equals(enclosingFrames[n]); m--, n--) {
+            }
+        }
+        int framesInCommon = frames.length - 1 - m;
+        sb.append(prefix).append(caption).append(description).append(LINE_SEPARATOR);
+        for (int i = 0; i <= m; i++) {
+            sb.append(prefix).append("\tat ").append(frames[i]).append(LINE_SEPARATOR);
+        }
+        if (framesInCommon != 0) {
+            sb.append(prefix).append("\t... ").append(framesInCommon).append(" more")
+                    .append(LINE_SEPARATOR);
+        }
+        for (int i = 0, count = getVarInt(block); i < count; i++) {
+            appendNested(block, sb, frames, "Suppressed: ", prefix + "\t");
+        }
+        appendNested(block, sb, frames, "Caused by: ", prefix);
+    }
+
+    private void appendNested(ByteBuffer block, StringBuilder sb, String[] enclosingFrames,
+            String caption, String prefix) {
+        byte kind = block.get();
+        if (kind == THROWABLE) {
+            appendThrowable(block, sb, enclosingFrames, caption, prefix);
+        } else if (kind == THROWABLE_CIRCULAR) {
+            sb.append(prefix).append(caption).append("[CIRCULAR REFERENCE: ")
+                    .append(getString(block)).append(']').append(LINE_SEPARATOR);
+        } else if (kind != THROWABLE_NONE) {
+            throw new IllegalStateException("Unknown exception node " + kind);
+        }
+    }
+
+    private Object getArg(ByteBuffer block) {
+        byte type = block.get();
+        switch (type) {
+            case ARG_NULL: return null;
+            case ARG_STRING: return getString(block);
+            case ARG_INT: return (int) unZigZag(getVarLong(block));
+            case ARG_LONG: return unZigZag(getVarLong(block));
+            case ARG_SHORT: return (short) unZigZag(getVarLong(block));
+            case ARG_BYTE: return block.get();
+            case ARG_FLOAT: return block.getFloat();
+            case ARG_DOUBLE: return block.getDouble();
+            case ARG_TRUE: return true;
+            case ARG_FALSE: return false;
+            case ARG_CHAR: return block.getChar();
+            default: throw new IllegalStateException("Unknown argument type " + type);
+        }
+    }
+
+    private String getString(ByteBuffer block) {
+        int code = getVarInt(block);
+        switch (code) {
+            case STRING_NULL:
+                return null;
+            case STRING_INLINE:
+                return getUtf8(block);
+            case STRING_DEFINE:
+                int id = getVarInt(block);
+                String value = getUtf8(block);
+                dictionary.put(id, value);
+                return value;
+            default:
+                String entry = dictionary.get(code - STRING_REF);
+                if (entry == null) {
+                    throw new IllegalStateException("Undefined string " + (code - STRING_REF));
+                }
+                return entry;
+        }
+    }
+
+    private static String getUtf8(ByteBuffer block) {
+        int length = getVarInt(block);
+        String value = new String(block.array(), block.arrayOffset() + block.position(), length,
+                UTF_8);
+        block.position(block.position() + length);
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static int getVarInt(ByteBuffer block) {
+        return (int) getVarLong(block);
+    }
+
+    private static long getVarLong(ByteBuffer block) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = block.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /** Prints the way {@link Logger.DebugTree} does, into the decoder's output. */
+    private final class Printer extends Logger.DebugTree {
+        @Override protected void print(int priority, String tag, String message, Throwable t) {
+            try {
+                if (dateFormat != null) {
+                    out.append(dateFormat.format(new Date(timestamp)));
+                }
+                out.append(format(priority, tag, message)).append(LINE_SEPARATOR);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
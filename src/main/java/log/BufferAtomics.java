@@ -0,0 +1,61 @@
+package log;
+
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import sun.misc.Unsafe;
+
+/**
+ * Atomic access to native-order values in a direct {@link ByteBuffer}, such as one mapped from a
+ * file that other processes share. Indices must be aligned to the size of the value.
+ * <p>
+ * This implementation uses {@code sun.misc.Unsafe}. On Java 9+ the multi-release JAR replaces it
+ * with one built on {@code VarHandle}.
+ */
+final class BufferAtomics {
+    private static final Unsafe UNSAFE;
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+            ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static long getLongVolatile(ByteBuffer buffer, int index) {
+        return UNSAFE.getLongVolatile(null, address(buffer, index, 8));
+    }
+
+    static boolean compareAndSetLong(ByteBuffer buffer, int index, long expected, long value) {
+        return UNSAFE.compareAndSwapLong(null, address(buffer, index, 8), expected, value);
+    }
+
+    static int getIntVolatile(ByteBuffer buffer, int index) {
+        return UNSAFE.getIntVolatile(null, address(buffer, index, 4));
+    }
+
+    /** Store {@code value} after all preceding writes to the buffer are visible. */
+    static void putIntRelease(ByteBuffer buffer, int index, int value) {
+        UNSAFE.putOrderedInt(null, address(buffer, index, 4), value);
+    }
+
+    private static long address(ByteBuffer buffer, int index, int size) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("buffer is not direct");
+        }
+        if (index < 0 || index > buffer.capacity() - size || index % size != 0) {
+            throw new IndexOutOfBoundsException("index " + index + " for capacity " + buffer.capacity());
+        }
+        return UNSAFE.getLong(buffer, ADDRESS_OFFSET) + index;
+    }
+
+    private BufferAtomics() {
+        throw new AssertionError("No instances.");
+    }
+}
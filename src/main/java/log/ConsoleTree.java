@@ -0,0 +1,346 @@
+package log;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Logger.DebugTree DebugTree} that prints the same lines to the console without making
+ * logging threads take turns on {@link System#out}.
+ * <p>
+ * Each thread encodes its lines into buffers of its own, one for standard output and one for
+ * standard error, and hands them to a single writer thread. The writer gathers the buffers of all
+ * threads into large batches and writes them to {@link FileDescriptor#out} or
+ * {@link FileDescriptor#err} through a channel, so encoding runs in parallel and the console sees
+ * a few large writes instead of a flushed write per line. As with {@link Logger.DebugTree
+ * DebugTree}, messages above {@link Logger.Priority#WARN WARN} go to standard error. Virtual
+ * threads share a fixed set of buffers instead.
+ * <p>
+ * Lines from one thread stay in order; lines from different threads are ordered by when the writer
+ * took their buffers, except that a line longer than a buffer is written in parts that other
+ * threads' lines may come between. A thread whose buffer is full waits for the writer. Lines
+ * bypass {@link System#out}, so call {@link #flush()} or {@link #close()} before the process
+ * exits.
+ */
+public class ConsoleTree extends Logger.DebugTree implements Flushable, Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    /** Tells the writer to write what it has gathered and stop. */
+    private static final Object STOP = new Object();
+    private static final long CLOSED_POLL_MILLIS = 10;
+
+    private final WritableByteChannel out;
+    private final WritableByteChannel err;
+    private final Charset charset;
+    private final int bufferSize;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+        @Override protected Buffers initialValue() {
+            return new Buffers();
+        }
+    };
+    private final Buffers[] shared = new Buffers[StripedCounter.STRIPES];
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /** Print to standard output and error in the platform's default charset. */
+    public ConsoleTree() {
+        this(new FileOutputStream(FileDescriptor.out).getChannel(),
+                new FileOutputStream(FileDescriptor.err).getChannel(), Charset.defaultCharset(),
+                DEFAULT_BUFFER_SIZE);
+    }
+
+    ConsoleTree(WritableByteChannel out, WritableByteChannel err, Charset charset,
+            int bufferSize) {
+        this.out = out;
+        this.err = err;
+        this.charset = charset;
+        this.bufferSize = bufferSize;
+        for (int i = 0; i < shared.length; i++) {
+            shared[i] = new Buffers();
+        }
+        // The console has no line limit, so only split messages on request.
+        setMaxLogLength(Integer.MAX_VALUE);
+        writer = new Thread(new Output(), "ConsoleTree-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Wait until the lines logged so far are written. */
+    @Override public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        CountDownLatch written = new CountDownLatch(1);
+        queue.add(written);
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the console");
+        }
+    }
+
+    /** Write the lines logged so far and stop the writer. Lines logged afterwards are dropped. */
+    @Override public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the console");
+        }
+    }
+
+    @Override protected void print(int priority, String tag, CharSequence message, int start,
+            int end, Throwable throwable) {
+        if (closed) {
+            LoggerMetrics.dropped(this);
+            return;
+        }
+        Buffers buffers = Threads.isVirtual()
+                ? shared[StripedCounter.stripe()]
+                : this.buffers.get();
+        Chunk chunk = priority > Logger.Priority.WARN ? buffers.err : buffers.out;
+        chunk.lock.lock();
+        try {
+            chunk.encoder.reset();
+            boolean encoded = chunk.encode("[", false)
+                    && chunk.encode(Logger.Priority.name(priority), false)
+                    && chunk.encode("|", false)
+                    && chunk.encode(String.valueOf(tag), false)
+                    && chunk.encode("] ", false)
+                    && chunk.encode(CharBuffer.wrap(message, start, end), false)
+                    && chunk.encode(LINE_SEPARATOR, true)
+                    && chunk.flushEncoder();
+            if (encoded) {
+                chunk.committed = chunk.bytes.position();
+                chunk.lines++;
+                chunk.submit();
+            } else {
+                // Forget the unfinished line, unless it was too long to hold back.
+                chunk.bytes.position(chunk.committed);
+                LoggerMetrics.dropped(this);
+            }
+        } finally {
+            chunk.lock.unlock();
+        }
+    }
+
+    @Override protected void print(int priority, String tag, String message, Throwable throwable) {
+        print(priority, tag, message, 0, message.length(), throwable);
+    }
+
+    /** The buffers that one thread, or several virtual ones, encode lines into. */
+    private final class Buffers {
+        final Chunk out = new Chunk(ConsoleTree.this.out);
+        final Chunk err = new Chunk(ConsoleTree.this.err);
+    }
+
+    /** Encoded lines for one stream, waiting for the writer. */
+    private final class Chunk {
+        final WritableByteChannel channel;
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition drained = lock.newCondition();
+        final CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // Guarded by 'lock'.
+        final ByteBuffer bytes = ByteBuffer.allocate(bufferSize);
+        /** Bytes of whole lines, ready for the writer. The line being encoded follows them. */
+        int committed;
+        int lines;
+        /** Whether the writer has this chunk in its queue. */
+        boolean queued;
+
+        Chunk(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        boolean encode(CharSequence s, boolean endOfInput) {
+            return encode(CharBuffer.wrap(s), endOfInput);
+        }
+
+        /** Encode {@code in}, waiting for room as needed. Returns false if the tree closed. */
+        boolean encode(CharBuffer in, boolean endOfInput) {
+            while (encoder.encode(in, bytes, endOfInput).isOverflow()) {
+                if (!awaitRoom()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean flushEncoder() {
+            while (encoder.flush(bytes).isOverflow()) {
+                if (!awaitRoom()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Hand the whole lines to the writer and wait for them to be taken. A line that fills the
+         * chunk by itself is handed over in parts. Returns false if the tree closed or the thread
+         * was interrupted first.
+         */
+        boolean awaitRoom() {
+            if (committed == 0) {
+                committed = bytes.position();
+            }
+            submit();
+            try {
+                while (committed > 0) {
+                    if (closed) {
+                        return false;
+                    }
+                    // Timed, since a chunk submitted while the writer stops is never drained.
+                    drained.await(CLOSED_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void submit() {
+            if (!queued && committed > 0) {
+                queued = true;
+                queue.add(this);
+            }
+        }
+
+        /** Move the chunk's whole lines into {@code batch}, which must have room for them. */
+        int drainTo(ByteBuffer batch) {
+            lock.lock();
+            try {
+                int end = bytes.position();
+                bytes.position(0).limit(committed);
+                batch.put(bytes);
+                bytes.limit(end);
+                bytes.compact();
+                committed = 0;
+                int count = lines;
+                lines = 0;
+                queued = false;
+                drained.signalAll();
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Gathers queued chunks into a batch per stream and writes the batches. */
+    private final class Output implements Runnable {
+        private final ByteBuffer outBatch =
+                ByteBuffer.allocateDirect(Math.max(BATCH_SIZE, bufferSize));
+        private final ByteBuffer errBatch =
+                ByteBuffer.allocateDirect(Math.max(BATCH_SIZE, bufferSize));
+        private int outLines;
+        private int errLines;
+
+        @Override public void run() {
+            try {
+                while (true) {
+                    Object item = queue.poll();
+                    if (item == null) {
+                        // Caught up: write what was gathered before waiting for more.
+                        writeAll();
+                        item = queue.take();
+                    }
+                    if (item instanceof Chunk) {
+                        gather((Chunk) item);
+                    } else {
+                        writeAll();
+                        if (item == STOP) {
+                            break;
+                        }
+                        ((CountDownLatch) item).countDown();
+                    }
+                }
+            } catch (InterruptedException ignored) {
+            }
+            // Release any thread still waiting on a full chunk, and flush callers.
+            for (Object item; (item = queue.poll()) != null; ) {
+                if (item instanceof Chunk) {
+                    Chunk chunk = (Chunk) item;
+                    chunk.lock.lock();
+                    try {
+                        chunk.drained.signalAll();
+                    } finally {
+                        chunk.lock.unlock();
+                    }
+                } else if (item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                }
+            }
+        }
+
+        private void gather(Chunk chunk) {
+            boolean toErr = chunk.channel == err && err != out;
+            ByteBuffer batch = toErr ? errBatch : outBatch;
+            if (batch.remaining() < bufferSize) {
+                write(toErr);
+            }
+            int lines = chunk.drainTo(batch);
+            if (toErr) {
+                errLines += lines;
+            } else {
+                outLines += lines;
+            }
+        }
+
+        private void writeAll() {
+            write(false);
+            write(true);
+        }
+
+        private void write(boolean toErr) {
+            ByteBuffer batch = toErr ? errBatch : outBatch;
+            if (batch.position() == 0) {
+                return;
+            }
+            batch.flip();
+            int size = batch.remaining();
+            try {
+                WritableByteChannel channel = toErr ? err : out;
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                LoggerMetrics.wrote(ConsoleTree.this, size);
+            } catch (IOException e) {
+                LoggerMetrics.dropped(ConsoleTree.this, toErr ? errLines : outLines);
+            } finally {
+                batch.clear();
+                if (toErr) {
+                    errLines = 0;
+                } else {
+                    outLines = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package log;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Logger.Tree Tree} that collapses bursts of identical messages before they reach
+ * {@code delegate}.
+ * <p>
+ * The first of a run of messages with the same priority, tag, template, arguments and exception
+ * is forwarded; repeats within {@code windowMillis} of it are counted instead. The count is sent as
+ * {@code "Last message repeated N times"} when a different message arrives, or when the window
+ * expires. When every argument is a string, a boxed primitive or an enum, messages are compared
+ * before they are formatted, with {@link Object#equals(Object)}; otherwise their formatted text is
+ * compared, since other arguments may have changed since they were last logged. Exceptions match
+ * if they have the same type, message and stack trace. Only the text of the last message is
+ * kept, never its mutable arguments or exception.
+ * <p>
+ * Runs are tracked per stripe of priority and tag, each with its own lock, so unrelated messages
+ * neither contend nor break each other's runs unless they hash to the same stripe. Messages
+ * logged through a {@link LogBuilder} are never collapsed. {@link #close()} stops the background
+ * thread that expires windows.
+ */
+public class DeduplicatingTree extends Logger.Tree implements Closeable {
+    private static final int STRIPES = 16;
+
+    private final Logger.Tree delegate;
+    private final long windowNanos;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ScheduledExecutorService sweeper;
+
+    /** Collapse repeats within one second. */
+    public DeduplicatingTree(Logger.Tree delegate) {
+        this(delegate, 1000);
+    }
+
+    public DeduplicatingTree(Logger.Tree delegate, long windowMillis) {
+        if (delegate == null) {
+            throw new NullPointerException("delegate == null");
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis <= 0: " + windowMillis);
+        }
+        this.delegate = delegate;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        final String name = "DeduplicatingTree-" + delegate.getClass().getSimpleName();
+        sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        sweeper.scheduleWithFixedDelay(new Runnable() {
+            @Override public void run() {
+                flush(false);
+            }
+        }, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Send the counts of all pending repeats now. */
+    public void flush() {
+        flush(true);
+    }
+
+    /** Send pending counts and stop expiring windows in the background. */
+    @Override public void close() {
+        sweeper.shutdown();
+        flush(true);
+    }
+
+    @Override String getTag(String explicitTag) {
+        Logger.DebugTree inferrer = delegate.tagInferrer();
+        if (explicitTag == null && inferrer != null) {
+            return inferrer.inferTag();
+        }
+        return explicitTag;
+    }
+
+    @Override Logger.DebugTree tagInferrer() {
+        return delegate.tagInferrer();
+    }
+
+    @Override protected boolean isLoggable(String tag, int priority) {
+        return delegate.isLoggable(tag, priority);
+    }
+
+    @Override protected int minPriority() {
+        return delegate.minPriority();
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args) {
+        Stripe stripe = stripe(priority, tag);
+        synchronized (stripe) {
+            long now = System.nanoTime();
+            if (stripe.matches(priority, tag, t, message, args, delegate)) {
+                if (now - stripe.windowStart < windowNanos) {
+                    stripe.repeats++;
+                    LoggerMetrics.suppressed(this);
+                    return;
+                }
+                flushRepeats(stripe);
+            } else {
+                flushRepeats(stripe);
+                stripe.set(priority, tag, t, message, args, delegate);
+            }
+            stripe.windowStart = now;
+            delegate.formatAndLog(priority, tag, t, message, args);
+        }
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args, LogFields fields) {
+        Stripe stripe = stripe(priority, tag);
+        synchronized (stripe) {
+            flushRepeats(stripe);
+            stripe.clear();
+            delegate.formatAndLog(priority, tag, t, message, args, fields);
+        }
+    }
+
+    /** Forward text that was formatted elsewhere, without collapsing it. */
+    @Override protected void log(int priority, String tag, String message, Throwable t) {
+        delegate.log(priority, tag, message, t);
+    }
+
+    private Stripe stripe(int priority, String tag) {
+        int hash = 31 * priority + (tag != null ? tag.hashCode() : 0);
+        return stripes[(hash ^ hash >>> 16) & (STRIPES - 1)];
+    }
+
+    private void flush(boolean all) {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (all || now - stripe.windowStart >= windowNanos) {
+                    flushRepeats(stripe);
+                }
+            }
+        }
+    }
+
+    /** Send the stripe's repeat count, if any. Must hold the stripe's lock. */
+    private void flushRepeats(Stripe stripe) {
+        int repeats = stripe.repeats;
+        if (repeats > 0) {
+            stripe.repeats = 0;
+            delegate.log(stripe.priority, stripe.tag, repeats == 1
+                    ? "Last message repeated 1 time"
+                    : "Last message repeated " + repeats + " times", null);
+        }
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == b || a != null && a.equals(b);
+    }
+
+    /** Return whether every argument is a string, a boxed primitive, an enum or null. */
+    private static boolean immutable(Object[] args) {
+        for (Object arg : args) {
+            if (arg == null || arg instanceof String || arg instanceof Enum) {
+                continue;
+            }
+            Class<?> type = arg.getClass();
+            if (type != Integer.class && type != Long.class && type != Double.class
+                    && type != Float.class && type != Short.class && type != Byte.class
+                    && type != Character.class && type != Boolean.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Format {@code message} as {@code delegate} would, or return it if there is nothing to do. */
+    private static String format(String message, Object[] args, Logger.Tree delegate) {
+        if (message == null || args.length == 0) {
+            return String.valueOf(message);
+        }
+        return delegate.format(message, args);
+    }
+
+    /** The last message seen in one stripe. */
+    private static final class Stripe {
+        boolean present;
+        int priority;
+        String tag;
+        Throwable t;
+        String message;
+        /** The arguments, only if they are all immutable. */
+        Object[] args;
+        /** The formatted message, or null until needed. */
+        String formatted;
+        Class<?> throwableType;
+        String throwableMessage;
+        StackTraceElement[] throwableTrace;
+        long windowStart;
+        int repeats;
+
+        boolean matches(int priority, String tag, Throwable t, String message, Object[] args,
+                Logger.Tree delegate) {
+            if (!present || priority != this.priority || !equal(tag, this.tag)
+                    || !equal(message, this.message) || !matches(t)) {
+                return false;
+            }
+            if (this.args != null && immutable(args)) {
+                return Arrays.equals(args, this.args);
+            }
+            if (formatted == null) {
+                formatted = format(message, this.args, delegate);
+            }
+            return formatted.equals(format(message, args, delegate));
+        }
+
+        private boolean matches(Throwable t) {
+            if (t == null || throwableType == null) {
+                return t == null && throwableType == null;
+            }
+            return t.getClass() == throwableType
+                    && equal(t.getMessage(), throwableMessage)
+                    && Arrays.equals(t.getStackTrace(), throwableTrace);
+        }
+
+        void set(int priority, String tag, Throwable t, String message, Object[] args,
+                Logger.Tree delegate) {
+            this.present = true;
+            this.priority = priority;
+            this.tag = tag;
+            this.message = message;
+            if (immutable(args)) {
+                this.args = args.length == 0 ? args : args.clone();
+                this.formatted = null;
+            } else {
+                this.args = null;
+                this.formatted = format(message, args, delegate);
+            }
+            if (t != null) {
+                throwableType = t.getClass();
+                throwableMessage = t.getMessage();
+                throwableTrace = t.getStackTrace();
+            } else {
+                throwableType = null;
+                throwableMessage = null;
+                throwableTrace = null;
+            }
+        }
+
+        void clear() {
+            present = false;
+            tag = null;
+            message = null;
+            args = null;
+            formatted = null;
+            throwableType = null;
+            throwableMessage = null;
+            throwableTrace = null;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Logger.Tree Tree} that keeps the most recent {@link Logger.Priority#VERBOSE VERBOSE}
+ * and {@link Logger.Priority#DEBUG DEBUG} messages in memory and writes them out only when
+ * something goes wrong.
+ * <p>
+ * Messages are encoded as compact UTF-8 records into a circular buffer allocated outside the
+ * heap, overwriting the oldest records once it is full, so recording adds neither output nor
+ * garbage. When a message at {@link Logger.Priority#ERROR ERROR} or above arrives, or on
+ * {@link #dump()}, the recorded messages are sent oldest first to the delegate tree or appended
+ * to the dump file as lines, and the buffer is emptied. The triggering message itself is not part
+ * of the dump: plant the trees that should report it alongside this one. Messages at
+ * {@link Logger.Priority#INFO INFO} and {@link Logger.Priority#WARN WARN} are ignored.
+ * <p>
+ * A message is truncated to fit a quarter of the buffer, and to at most 64 KiB.
+ */
+public class FlightRecorderTree extends Logger.Tree {
+    // Record layout: int length (-1 for padding to the end of the buffer), long timestamp, byte
+    // priority, short tag length (-1 for null), tag, message. Records start at multiples of four.
+    private static final int PADDING = -1;
+    private static final int MAX_TAG_SIZE = 256;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+    /** Room for the longest UTF-8 encoding of one code point. */
+    private static final int MAX_CHAR_SIZE = 4;
+    private static final int MIN_CAPACITY = 4096;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Logger.Tree delegate;
+    private final File file;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by 'lock'.
+    private final ByteBuffer ring;
+    private final ByteBuffer record;
+    /** Positions of the oldest record and of the next one, counted from the start. */
+    private long head;
+    private long tail;
+
+    /**
+     * Send dumps to {@code delegate}. Replayed messages keep their priority and tag, but not
+     * their timestamp.
+     *
+     * @param capacity Size of the buffer in bytes.
+     */
+    public FlightRecorderTree(Logger.Tree delegate, int capacity) {
+        this(delegate, null, capacity);
+        if (delegate == null) {
+            throw new NullPointerException("delegate == null");
+        }
+    }
+
+    /**
+     * Append dumps to {@code file} as timestamped lines.
+     *
+     * @param capacity Size of the buffer in bytes.
+     */
+    public FlightRecorderTree(File file, int capacity) {
+        this(null, file, capacity);
+        if (file == null) {
+            throw new NullPointerException("file == null");
+        }
+    }
+
+    private FlightRecorderTree(Logger.Tree delegate, File file, int capacity) {
+        if (capacity < MIN_CAPACITY) {
+            throw new IllegalArgumentException("capacity < " + MIN_CAPACITY + ": " + capacity);
+        }
+        this.delegate = delegate;
+        this.file = file;
+        this.ring = ByteBuffer.allocateDirect(capacity & ~3);
+        this.record = ByteBuffer.allocateDirect(Math.min(capacity / 4, MAX_RECORD_SIZE));
+    }
+
+    /** Send the recorded messages to the delegate or the file now, and forget them. */
+    public void dump() throws IOException {
+        byte[] records;
+        lock.lock();
+        try {
+            records = drain();
+        } finally {
+            lock.unlock();
+        }
+        if (records.length == 0) {
+            return;
+        }
+        if (delegate != null) {
+            replay(records);
+        } else {
+            append(records);
+        }
+    }
+
+    /** Forget the recorded messages. */
+    public void clear() {
+        lock.lock();
+        try {
+            head = 0;
+            tail = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override protected boolean isLoggable(String tag, int priority) {
+        return (priority <= Logger.Priority.DEBUG || priority >= Logger.Priority.ERROR)
+                && super.isLoggable(tag, priority);
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args) {
+        if (priority >= Logger.Priority.ERROR) {
+            dumpOnError();
+        } else {
+            super.formatAndLog(priority, tag, t, message, args);
+        }
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args, LogFields fields) {
+        if (priority >= Logger.Priority.ERROR) {
+            dumpOnError();
+        } else {
+            super.formatAndLog(priority, tag, t, message, args, fields);
+        }
+    }
+
+    @Override protected void log(int priority, String tag, String message, Throwable t) {
+        if (priority >= Logger.Priority.ERROR) {
+            dumpOnError();
+            return;
+        }
+        lock.lock();
+        try {
+            encode(System.currentTimeMillis(), priority, tag, message);
+            store();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dumpOnError() {
+        try {
+            dump();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write " + file, e);
+        }
+    }
+
+    /** Encode a record into {@link #record}, truncating its tag and message to fit. */
+    private void encode(long timestamp, int priority, String tag, String message) {
+        ByteBuffer record = this.record;
+        record.clear();
+        record.position(4); // Length, once known.
+        record.putLong(timestamp);
+        record.put((byte) priority);
+        if (tag == null) {
+            record.putShort((short) -1);
+        } else {
+            int start = record.position() + 2;
+            record.position(start);
+            putUtf8(record, tag, start + MAX_TAG_SIZE);
+            record.putShort(start - 2, (short) (record.position() - start));
+        }
+        putUtf8(record, message, record.capacity());
+        record.putInt(0, record.position());
+        record.flip();
+    }
+
+    /** Copy {@link #record} into the ring, evicting the oldest records to make room. */
+    private void store() {
+        ByteBuffer ring = this.ring;
+        int capacity = ring.capacity();
+        int length = record.remaining();
+        int size = align(length);
+        int offset = (int) (tail % capacity);
+        int padding = offset + size > capacity ? capacity - offset : 0;
+        while (tail + padding + size - head > capacity) {
+            evict();
+        }
+        if (padding > 0) {
+            ring.putInt(offset, PADDING);
+            tail += padding;
+            offset = 0;
+        }
+        ring.position(offset);
+        ring.put(record);
+        tail += size;
+    }
+
+    private void evict() {
+        int capacity = ring.capacity();
+        int offset = (int) (head % capacity);
+        int length = ring.getInt(offset);
+        head += length == PADDING ? capacity - offset : align(length);
+    }
+
+    /** Remove the records from the ring and return them back to back, oldest first. */
+    private byte[] drain() {
+        int capacity = ring.capacity();
+        byte[] records = new byte[(int) (tail - head)];
+        int count = 0;
+        while (head < tail) {
+            int offset = (int) (head % capacity);
+            int length = ring.getInt(offset);
+            if (length == PADDING) {
+                head += capacity - offset;
+                continue;
+            }
+            ring.position(offset);
+            ring.get(records, count, length);
+            count += length;
+            head += align(length);
+        }
+        head = 0;
+        tail = 0;
+        return count == records.length ? records : Arrays.copyOf(records, count);
+    }
+
+    private void replay(byte[] records) {
+        ByteBuffer in = ByteBuffer.wrap(records);
+        while (in.hasRemaining()) {
+            int start = in.position();
+            int length = in.getInt();
+            in.getLong(); // The delegate stamps its own time.
+            int priority = in.get();
+            String tag = readTag(in);
+            String message = new String(records, in.position(), start + length - in.position(),
+                    UTF_8);
+            in.position(start + length);
+            delegate.log(priority, tag, message, null);
+        }
+    }
+
+    private void append(byte[] records) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        Writer out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file, true), UTF_8));
+        try {
+            ByteBuffer in = ByteBuffer.wrap(records);
+            while (in.hasRemaining()) {
+                int start = in.position();
+                int length = in.getInt();
+                long timestamp = in.getLong();
+                int priority = in.get();
+                String tag = readTag(in);
+                out.write(dateFormat.format(new Date(timestamp)));
+                out.write(" [");
+                out.write(Logger.Priority.name(priority));
+                out.write('|');
+                out.write(String.valueOf(tag));
+                out.write("] ");
+                out.write(new String(records, in.position(), start + length - in.position(),
+                        UTF_8));
+                out.write('\n');
+                in.position(start + length);
+            }
+        } finally {
+            out.close();
+        }
+        LoggerMetrics.wrote(this, records.length);
+    }
+
+    private static String readTag(ByteBuffer in) {
+        int length = in.getShort();
+        if (length == -1) {
+            return null;
+        }
+        String tag = new String(in.array(), in.position(), length, UTF_8);
+        in.position(in.position() + length);
+        return tag;
+    }
+
+    /** Encode {@code s} into {@code out} up to {@code limit}, dropping the characters beyond it. */
+    private static void putUtf8(ByteBuffer out, String s, int limit) {
+        for (int i = 0, length = s.length(); i < length; i++) {
+            if (limit - out.position() < MAX_CHAR_SIZE) {
+                return;
+            }
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                out.put((byte) (0xF0 | codePoint >> 18));
+                out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                out.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced like String.getBytes does.
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static int align(int length) {
+        return (length + 3) & ~3;
+    }
+}
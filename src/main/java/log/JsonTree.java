@@ -0,0 +1,303 @@
+package log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A {@link Logger.DebugTree DebugTree} that writes one JSON object per line to an
+ * {@link OutputStream}:
+ * <pre>{@code
+ * {"timestamp":1508000000000,"priority":"WARN","tag":"Foo","thread":"main","message":"Hello"}
+ * }</pre>
+ * The thread's {@link LogContext} pairs are added as a {@code "context"} object, fields from a
+ * {@link LogBuilder} as a {@code "fields"} object with primitives kept as JSON numbers and
+ * booleans, and an exception as a {@code "throwable"} object with its frames, suppressed
+ * exceptions and cause. Tags are inferred like {@link Logger.DebugTree DebugTree} does.
+ * <p>
+ * Each line is escaped and encoded as UTF-8 in one pass into a reused per-thread buffer, then
+ * written with a single call.
+ */
+public class JsonTree extends Logger.DebugTree {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final ThreadLocal<Buffer> buffers = new ThreadLocal<Buffer>() {
+        @Override protected Buffer initialValue() {
+            return new Buffer();
+        }
+    };
+
+    public JsonTree(OutputStream out) {
+        if (out == null) {
+            throw new NullPointerException("out == null");
+        }
+        this.out = out;
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args) {
+        if (message != null && message.length() == 0) {
+            message = null;
+        }
+        if (message == null && t == null) {
+            return; // Swallow message if it's null and there's no throwable.
+        }
+        if (message != null && args.length > 0) {
+            message = format(message, args);
+        }
+        write(priority, tag, message, t, null);
+    }
+
+    @Override protected void log(int priority, String tag, String message, Throwable t,
+            LogFields fields) {
+        write(priority, tag, message, t, fields);
+    }
+
+    /** Write text that was formatted elsewhere, such as by an {@link Logger.AsyncTree}. */
+    @Override protected void log(int priority, String tag, String message, Throwable t) {
+        write(priority, tag, message, null, null);
+    }
+
+    private void write(int priority, String tag, String message, Throwable t, LogFields fields) {
+        Buffer buffer = buffers.get();
+        if (buffer.inUse) {
+            buffer = new Buffer(); // A toString() that logs.
+        }
+        buffer.inUse = true;
+        try {
+            buffer.ascii("{\"timestamp\":").number(System.currentTimeMillis());
+            buffer.ascii(",\"priority\":\"").ascii(Logger.Priority.name(priority)).put('"');
+            buffer.ascii(",\"tag\":").string(tag);
+            buffer.ascii(",\"thread\":").string(Thread.currentThread().getName());
+            buffer.ascii(",\"message\":").string(message);
+            LogContext context = LogContext.current();
+            if (context.size() > 0) {
+                buffer.ascii(",\"context\":{");
+                for (int i = 0, count = context.size(); i < count; i++) {
+                    if (i > 0) {
+                        buffer.put(',');
+                    }
+                    buffer.string(context.keyAt(i)).put(':').string(context.valueAt(i));
+                }
+                buffer.put('}');
+            }
+            if (fields != null && fields.size() > 0) {
+                buffer.ascii(",\"fields\":{");
+                for (int i = 0, count = fields.size(); i < count; i++) {
+                    if (i > 0) {
+                        buffer.put(',');
+                    }
+                    buffer.string(fields.keyAt(i)).put(':');
+                    field(buffer, fields, i);
+                }
+                buffer.put('}');
+            }
+            if (t != null) {
+                buffer.ascii(",\"throwable\":");
+                throwable(buffer, t,
+                        Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>()));
+            }
+            buffer.ascii("}\n");
+            synchronized (out) {
+                out.write(buffer.bytes, 0, buffer.size);
+            }
+            LoggerMetrics.wrote(this, buffer.size);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write log line", e);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static void field(Buffer buffer, LogFields fields, int index) {
+        switch (fields.typeAt(index)) {
+            case LogFields.INT:
+            case LogFields.LONG:
+                buffer.number(fields.longAt(index));
+                break;
+            case LogFields.FLOAT:
+            case LogFields.DOUBLE:
+                double value = fields.doubleAt(index);
+                String text = fields.typeAt(index) == LogFields.FLOAT
+                        ? Float.toString((float) value)
+                        : Double.toString(value);
+                if (Double.isNaN(value) || Double.isInfinite(value)) {
+                    buffer.string(text); // Not representable as a JSON number.
+                } else {
+                    buffer.ascii(text);
+                }
+                break;
+            case LogFields.BOOLEAN:
+                buffer.ascii(fields.booleanAt(index) ? "true" : "false");
+                break;
+            default:
+                Object object = fields.valueAt(index);
+                buffer.string(object != null ? object.toString() : null);
+        }
+    }
+
+    private static void throwable(Buffer buffer, Throwable t, Set<Throwable> seen) {
+        seen.add(t);
+        buffer.ascii("{\"class\":").string(t.getClass().getName());
+        buffer.ascii(",\"message\":").string(t.getLocalizedMessage());
+        buffer.ascii(",\"frames\":[");
+        StackTraceElement[] frames = t.getStackTrace();
+        for (int i = 0; i < frames.length; i++) {
+            StackTraceElement frame = frames[i];
+            if (i > 0) {
+                buffer.put(',');
+            }
+            buffer.ascii("{\"class\":").string(frame.getClassName());
+            buffer.ascii(",\"method\":").string(frame.getMethodName());
+            buffer.ascii(",\"file\":").string(frame.getFileName());
+            buffer.ascii(",\"line\":").number(frame.getLineNumber()).put('}');
+        }
+        buffer.put(']');
+        Throwable[] suppressed = t.getSuppressed();
+        if (suppressed.length > 0) {
+            buffer.ascii(",\"suppressed\":[");
+            for (int i = 0; i < suppressed.length; i++) {
+                if (i > 0) {
+                    buffer.put(',');
+                }
+                nested(buffer, suppressed[i], seen);
+            }
+            buffer.put(']');
+        }
+        Throwable cause = t.getCause();
+        if (cause != null) {
+            buffer.ascii(",\"cause\":");
+            nested(buffer, cause, seen);
+        }
+        buffer.put('}');
+    }
+
+    private static void nested(Buffer buffer, Throwable t, Set<Throwable> seen) {
+        if (seen.contains(t)) {
+            buffer.ascii("{\"class\":").string(t.getClass().getName());
+            buffer.ascii(",\"circular\":true}");
+        } else {
+            throwable(buffer, t, seen);
+        }
+    }
+
+    /** A growable byte buffer that encodes JSON values as UTF-8. */
+    private static final class Buffer {
+        byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        int size;
+        boolean inUse;
+
+        void release() {
+            inUse = false;
+            size = 0;
+            if (bytes.length > MAX_BUFFER_SIZE) {
+                bytes = new byte[INITIAL_BUFFER_SIZE];
+            }
+        }
+
+        Buffer put(char c) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) c;
+            return this;
+        }
+
+        /** Append {@code s}, which must be ASCII and need no escaping. */
+        Buffer ascii(String s) {
+            int length = s.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                bytes[size++] = (byte) s.charAt(i);
+            }
+            return this;
+        }
+
+        Buffer number(long value) {
+            if (value == Long.MIN_VALUE) {
+                return ascii("-9223372036854775808");
+            }
+            ensureCapacity(20);
+            if (value < 0) {
+                bytes[size++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            for (int i = size + digits - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += digits;
+            return this;
+        }
+
+        /** Append {@code s} as a quoted, escaped JSON string, or {@code null}. */
+        Buffer string(String s) {
+            if (s == null) {
+                return ascii("null");
+            }
+            int length = s.length();
+            // Every char takes at most six bytes, as an escape or half of a surrogate pair.
+            ensureCapacity(length * 6 + 2);
+            byte[] bytes = this.bytes;
+            int size = this.size;
+            bytes[size++] = '"';
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    bytes[size++] = (byte) c;
+                } else if (c < 0x80) {
+                    bytes[size++] = '\\';
+                    switch (c) {
+                        case '"': bytes[size++] = '"'; break;
+                        case '\\': bytes[size++] = '\\'; break;
+                        case '\n': bytes[size++] = 'n'; break;
+                        case '\r': bytes[size++] = 'r'; break;
+                        case '\t': bytes[size++] = 't'; break;
+                        case '\b': bytes[size++] = 'b'; break;
+                        case '\f': bytes[size++] = 'f'; break;
+                        default:
+                            bytes[size++] = 'u';
+                            bytes[size++] = '0';
+                            bytes[size++] = '0';
+                            bytes[size++] = HEX[c >> 4];
+                            bytes[size++] = HEX[c & 0xF];
+                    }
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | c >> 6);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, replaced like String.getBytes does.
+                    bytes[size++] = '?';
+                } else {
+                    bytes[size++] = (byte) (0xE0 | c >> 12);
+                    bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            bytes[size++] = '"';
+            this.size = size;
+            return this;
+        }
+
+        private void ensureCapacity(int count) {
+            if (size + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + count));
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package log;
+
+import org.jetbrains.annotations.NonNls;
+
+/**
+ * Builds a message with key/value fields, obtained from {@link Logger#atInfo()} and friends:
+ * <pre>{@code
+ * Logger.atInfo().with("userId", id).with("latencyMs", ms).log("request done");
+ * }</pre>
+ * Builders are reused per thread, so use each one in a single statement and do not keep it. A
+ * message logged while another is being built, for example to compute one of its fields, gets a
+ * new builder. When no tree is planted a shared builder that ignores everything is returned.
+ * <p>
+ * Trees receive the fields through
+ * {@link Logger.Tree#log(int, String, String, Throwable, LogFields)}, which by default appends
+ * them to the message as {@code key=value} pairs.
+ */
+public class LogBuilder {
+    static final LogBuilder NOOP = new LogBuilder() {
+        @Override public LogBuilder tag(String tag) {
+            return this;
+        }
+
+        @Override public LogBuilder withCause(Throwable t) {
+            return this;
+        }
+
+        @Override public LogBuilder with(String key, Object value) {
+            return this;
+        }
+
+        @Override public LogBuilder with(String key, int value) {
+            return this;
+        }
+
+        @Override public LogBuilder with(String key, long value) {
+            return this;
+        }
+
+        @Override public LogBuilder with(String key, float value) {
+            return this;
+        }
+
+        @Override public LogBuilder with(String key, double value) {
+            return this;
+        }
+
+        @Override public LogBuilder with(String key, boolean value) {
+            return this;
+        }
+
+        @Override public void log(String message) {
+            LogContext.dropTag();
+        }
+
+        @Override public void log(String message, Object... args) {
+            LogContext.dropTag();
+        }
+    };
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final ThreadLocal<LogBuilder> CURRENT = new ThreadLocal<LogBuilder>() {
+        @Override protected LogBuilder initialValue() {
+            return new LogBuilder();
+        }
+    };
+
+    private final LogFields fields = new LogFields();
+    private Logger.Forest forest;
+    private int priority;
+    private String tag;
+    private Throwable t;
+    /**
+     * Whether this builder was obtained and has not logged yet, so that a call made meanwhile,
+     * while building or dispatching, gets its own.
+     */
+    private boolean inUse;
+
+    LogBuilder() {
+    }
+
+    /**
+     * Return the calling thread's builder, reset for a message at {@code priority} to the trees
+     * of {@code forest}.
+     */
+    static LogBuilder obtain(Logger.Forest forest, int priority) {
+        LogBuilder builder = CURRENT.get();
+        if (builder.inUse) {
+            // Also replaces a builder that was abandoned, such as by a with() that threw.
+            builder = new LogBuilder();
+            CURRENT.set(builder);
+        }
+        builder.inUse = true;
+        builder.forest = forest;
+        builder.priority = priority;
+        builder.tag = null;
+        builder.t = null;
+        builder.fields.clear();
+        return builder;
+    }
+
+    /** Use {@code tag} instead of the inferred or {@link Logger#tag(String) one-shot} tag. */
+    public LogBuilder tag(String tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    /** Attach an exception. */
+    public LogBuilder withCause(Throwable t) {
+        this.t = t;
+        return this;
+    }
+
+    public LogBuilder with(String key, Object value) {
+        fields.add(key, LogFields.OBJECT, 0, 0, value);
+        return this;
+    }
+
+    public LogBuilder with(String key, int value) {
+        fields.add(key, LogFields.INT, value, 0, null);
+        return this;
+    }
+
+    public LogBuilder with(String key, long value) {
+        fields.add(key, LogFields.LONG, value, 0, null);
+        return this;
+    }
+
+    public LogBuilder with(String key, float value) {
+        fields.add(key, LogFields.FLOAT, 0, value, null);
+        return this;
+    }
+
+    public LogBuilder with(String key, double value) {
+        fields.add(key, LogFields.DOUBLE, 0, value, null);
+        return this;
+    }
+
+    public LogBuilder with(String key, boolean value) {
+        fields.add(key, LogFields.BOOLEAN, value ? 1 : 0, 0, null);
+        return this;
+    }
+
+    /** Log {@code message} with the fields. */
+    public void log(@NonNls String message) {
+        dispatch(message, NO_ARGS);
+    }
+
+    /** Log {@code message}, formatted with {@code args}, with the fields. */
+    public void log(@NonNls String message, Object... args) {
+        dispatch(message, args);
+    }
+
+    // Called directly by each log method so that trees see the same stack depth as for other calls.
+    private void dispatch(String message, Object[] args) {
+        String explicitTag = LogContext.takeTag();
+        if (tag != null) {
+            explicitTag = tag;
+        }
+        Logger.Tree[] forest = this.forest.forest(priority);
+        try {
+            //noinspection ForLoopReplaceableByForEach
+            for (int i = 0, count = forest.length; i < count; i++) {
+                forest[i].dispatch(priority, explicitTag, t, message, args, fields);
+            }
+        } finally {
+            inUse = false;
+            t = null;
+            fields.clear();
+            LogContext.endCall();
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package log;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread logging state shared by every planted tree: the one-shot tag set by
+ * {@link Logger#tag(String)} and a mapped diagnostic context of key/value pairs.
+ * <p>
+ * A context belongs to its thread; obtain it with {@link #current()} and do not hand it to other
+ * threads. Trees read the pairs in place with {@link #size()}, {@link #keyAt(int)} and
+ * {@link #valueAt(int)}. To carry the pairs to another thread, take a {@link #snapshot()} and
+ * {@link #restore(Snapshot) restore} it there.
+ */
+public final class LogContext {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final String[] NO_STRINGS = new String[0];
+    private static final int[] NO_INTS = new int[0];
+
+    private static final ThreadLocal<LogContext> CURRENT = new ThreadLocal<LogContext>() {
+        @Override protected LogContext initialValue() {
+            return new LogContext();
+        }
+    };
+
+    /** The one-shot tag for the next logging call on this thread. */
+    String tag;
+
+    /**
+     * Numbers the logging calls on this thread, so that what trees share lasts only for one
+     * call. A call made while another is logging, such as by a formatted argument, gets its own
+     * number until it ends; {@link #endCall()} then restores the outer call's number, and forgets
+     * what trees shared once the outermost call is done.
+     */
+    private int call;
+    private int calls;
+    /** Numbers of the calls that the current one is nested in. */
+    private int[] outerCalls = NO_INTS;
+    private int depth;
+    /** The call whose message {@link LoggerMetrics} last counted by priority and tag. */
+    int countedCall = -1;
+    private int formattedCall = -1;
+    private String template;
+    private Object[] args;
+    private String formatted;
+    private int renderedCall = -1;
+    private Throwable rendered;
+    private StackTraceRenderer renderer;
+    /** The buffer the trace was rendered into, and where in it. */
+    private CharSequence trace;
+    private int traceStart;
+    private int traceEnd;
+
+    /** Allocated on the first put, since most threads, such as virtual ones, never put any. */
+    private String[] keys = NO_STRINGS;
+    private String[] values = NO_STRINGS;
+    private int size;
+    /** The pairs as of the last snapshot or restore, or null if they changed since. */
+    private Snapshot snapshot = Snapshot.EMPTY;
+
+    private LogContext() {
+    }
+
+    /** Return the calling thread's context. */
+    public static LogContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Start a logging call, and remove and return the calling thread's one-shot tag. Every call
+     * must be ended with {@link #endCall()}.
+     */
+    static String takeTag() {
+        LogContext context = CURRENT.get();
+        int depth = context.depth;
+        if (depth == context.outerCalls.length) {
+            context.outerCalls = Arrays.copyOf(context.outerCalls, Math.max(4, depth * 2));
+        }
+        context.outerCalls[depth] = context.call;
+        context.depth = depth + 1;
+        context.call = ++context.calls;
+        String tag = context.tag;
+        if (tag != null) {
+            context.tag = null;
+        }
+        return tag;
+    }
+
+    /** Return the number of the current logging call on this thread. */
+    int call() {
+        return call;
+    }
+
+    /**
+     * Return {@code template} formatted with {@code args}, reusing the result of an earlier tree
+     * in the same logging call. Arguments are compared by identity, since trees may be given
+     * copies of the argument array.
+     */
+    String format(String template, Object[] args) {
+        if (formattedCall == call && template == this.template && sameArgs(args)) {
+            return formatted;
+        }
+        int call = this.call; // Formatting may log, which starts another call.
+        String formatted = MessageFormatter.format(template, args);
+        this.formattedCall = call;
+        this.template = template;
+        this.args = args;
+        this.formatted = formatted;
+        return formatted;
+    }
+
+    /**
+     * Append the stack trace of {@code t} to {@code out}, copying it from where an earlier tree
+     * in the same call rendered it. Trees must not change the text of {@code out} they have
+     * appended until the call ends.
+     */
+    void appendStackTrace(StackTraceRenderer renderer, Throwable t, StringBuilder out) {
+        if (renderedCall == call && t == rendered && renderer == this.renderer) {
+            out.append(trace, traceStart, traceEnd);
+            return;
+        }
+        int call = this.call; // Rendering may log, which starts another call.
+        int start = out.length();
+        renderer.render(t, out);
+        this.renderedCall = call;
+        this.rendered = t;
+        this.renderer = renderer;
+        this.trace = out;
+        this.traceStart = start;
+        this.traceEnd = out.length();
+    }
+
+    /** Discard the calling thread's one-shot tag, for a call that logs nothing. */
+    static void dropTag() {
+        LogContext context = CURRENT.get();
+        if (context.tag != null) {
+            context.tag = null;
+        }
+    }
+
+    /**
+     * End the logging call started by {@link #takeTag()}. Once the outermost call ends, forget
+     * what trees shared during it, so that its arguments, exception and text are not kept alive
+     * until the thread logs again.
+     */
+    static void endCall() {
+        LogContext context = CURRENT.get();
+        if (context.depth == 0) {
+            return;
+        }
+        context.call = context.outerCalls[--context.depth];
+        if (context.depth > 0) {
+            return;
+        }
+        if (context.formattedCall != -1) {
+            context.formattedCall = -1;
+            context.template = null;
+            context.args = null;
+            context.formatted = null;
+        }
+        if (context.renderedCall != -1) {
+            context.renderedCall = -1;
+            context.rendered = null;
+            context.renderer = null;
+            context.trace = null;
+        }
+    }
+
+    private boolean sameArgs(Object[] args) {
+        Object[] formattedArgs = this.args;
+        if (args == formattedArgs) {
+            return true;
+        }
+        if (args.length != formattedArgs.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] != formattedArgs[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Associate {@code value} with {@code key}, replacing any previous value. */
+    public void put(String key, String value) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        int index = indexOf(key);
+        if (index == -1) {
+            if (size == keys.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            index = size++;
+            keys[index] = key;
+        }
+        values[index] = value;
+        snapshot = null;
+    }
+
+    /** Return the value for {@code key}, or null. */
+    public String get(String key) {
+        int index = indexOf(key);
+        return index != -1 ? values[index] : null;
+    }
+
+    /** Remove the value for {@code key}, if any. */
+    public void remove(String key) {
+        int index = indexOf(key);
+        if (index == -1) {
+            return;
+        }
+        int last = --size;
+        System.arraycopy(keys, index + 1, keys, index, last - index);
+        System.arraycopy(values, index + 1, values, index, last - index);
+        keys[last] = null;
+        values[last] = null;
+        snapshot = null;
+    }
+
+    /** Remove all pairs. The one-shot tag is unaffected. */
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        snapshot = Snapshot.EMPTY;
+    }
+
+    /** Number of pairs, in insertion order. */
+    public int size() {
+        return size;
+    }
+
+    public String keyAt(int index) {
+        checkIndex(index, size);
+        return keys[index];
+    }
+
+    public String valueAt(int index) {
+        checkIndex(index, size);
+        return values[index];
+    }
+
+    /**
+     * Return an immutable copy of the pairs. Repeated calls return the same instance until the
+     * context changes, so capturing the context for every log event is cheap.
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            snapshot = size == 0
+                    ? Snapshot.EMPTY
+                    : new Snapshot(Arrays.copyOf(keys, size), Arrays.copyOf(values, size));
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /** Replace the pairs with those of {@code snapshot}. */
+    public void restore(Snapshot snapshot) {
+        if (snapshot == null) {
+            throw new NullPointerException("snapshot == null");
+        }
+        if (snapshot == this.snapshot) {
+            return;
+        }
+        int count = snapshot.keys.length;
+        if (count > keys.length) {
+            keys = new String[count];
+            values = new String[count];
+        }
+        System.arraycopy(snapshot.keys, 0, keys, 0, count);
+        System.arraycopy(snapshot.values, 0, values, 0, count);
+        Arrays.fill(keys, count, Math.max(count, size), null);
+        Arrays.fill(values, count, Math.max(count, size), null);
+        size = count;
+        this.snapshot = snapshot;
+    }
+
+    private int indexOf(String key) {
+        String[] keys = this.keys;
+        for (int i = 0, count = size; i < count; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    /** An immutable copy of a thread's key/value pairs. */
+    public static final class Snapshot {
+        public static final Snapshot EMPTY = new Snapshot(new String[0], new String[0]);
+
+        private final String[] keys;
+        private final String[] values;
+
+        Snapshot(String[] keys, String[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        public int size() {
+            return keys.length;
+        }
+
+        public String keyAt(int index) {
+            checkIndex(index, keys.length);
+            return keys[index];
+        }
+
+        public String valueAt(int index) {
+            checkIndex(index, keys.length);
+            return values[index];
+        }
+
+        /** Return the value for {@code key}, or null. */
+        public String get(String key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+    }
+}
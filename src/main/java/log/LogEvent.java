@@ -0,0 +1,223 @@
+package log;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A message as it was logged: the template and its raw arguments, formatted only when
+ * {@link #message()} is first called. Trees receive events by overriding
+ * {@link Logger.Tree#log(LogEvent)}; a {@link BatchingTree} also delivers them.
+ * <p>
+ * Events come from a pool and are reused: one is only valid during the call that receives it. To
+ * keep an event longer, such as to format it on another thread, keep the event returned by
+ * {@link #retain()} and then {@link #recycle()} it when done with it. Events in a
+ * {@link BatchingTree} batch belong to the tree rather than the pool: retaining one returns a copy,
+ * and recycling one does nothing.
+ */
+public final class LogEvent {
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final int POOL_SIZE = 64;
+    private static final AtomicIntegerFieldUpdater<LogEvent> REFERENCES =
+            AtomicIntegerFieldUpdater.newUpdater(LogEvent.class, "references");
+
+    /** Free events. Each platform thread also keeps one of its own. */
+    private static final AtomicReferenceArray<LogEvent> POOL = new AtomicReferenceArray<>(POOL_SIZE);
+    private static final ThreadLocal<LogEvent[]> LOCAL = new ThreadLocal<LogEvent[]>() {
+        @Override protected LogEvent[] initialValue() {
+            return new LogEvent[1];
+        }
+    };
+
+    int priority;
+    String tag;
+    private String template;
+    private Object[] args = NO_ARGS;
+    Throwable throwable;
+    long timestamp;
+    private Logger.Tree formatter;
+    private String message;
+    /**
+     * References to this pooled event: one for the logging call that obtained it, plus one per
+     * {@link #retain()}. The event returns to the pool when the count drops to zero.
+     */
+    private volatile int references;
+    /** Whether this event belongs to the pool, rather than to a tree that reuses it. */
+    private final boolean pooled;
+
+    LogEvent(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /** Return a free event for a message from {@code formatter}, created if the pool is empty. */
+    static LogEvent obtain(Logger.Tree formatter, int priority, String tag, Throwable t,
+            String template, Object[] args) {
+        // Virtual threads are too many and too short-lived for an event of their own to pay off.
+        LogEvent[] local = Threads.isVirtual() ? null : LOCAL.get();
+        LogEvent event = local != null ? local[0] : null;
+        if (event != null) {
+            local[0] = null;
+        } else {
+            int start = StripedCounter.stripe();
+            for (int i = 0; i < POOL_SIZE && event == null; i++) {
+                int index = (start + i) & (POOL_SIZE - 1);
+                event = POOL.get(index);
+                if (event != null && !POOL.compareAndSet(index, event, null)) {
+                    event = null;
+                }
+            }
+            if (event == null) {
+                event = new LogEvent(true);
+            }
+        }
+        event.references = 1;
+        event.priority = priority;
+        event.tag = tag;
+        event.throwable = t;
+        event.template = template;
+        event.args = args;
+        event.formatter = formatter;
+        event.timestamp = System.currentTimeMillis();
+        return event;
+    }
+
+    /** Log level. See {@link Logger.Priority} for constants. */
+    public int priority() {
+        return priority;
+    }
+
+    /** Explicit or inferred tag. May be {@code null}. */
+    public String tag() {
+        return tag;
+    }
+
+    /** The message template as it was logged. May be {@code null}. */
+    public String template() {
+        return template;
+    }
+
+    /**
+     * The arguments for the {@link #template()} as they were logged, not copied. Empty if there
+     * are none.
+     */
+    public Object[] args() {
+        return args;
+    }
+
+    /**
+     * The message, formatted on first call with the logging tree's
+     * {@link Logger.Tree#formatMessage(String, Object[]) formatMessage}. It does not include the
+     * stack trace of {@link #throwable()}, except for events built from text a tree had already
+     * formatted. May be {@code null}, but then {@link #throwable()} will not be.
+     */
+    public String message() {
+        String message = this.message;
+        if (message == null && template != null) {
+            message = args.length > 0 ? formatter.formatMessage(template, args) : template;
+            this.message = message;
+        }
+        return message;
+    }
+
+    /** Accompanying exception. May be {@code null}. */
+    public Throwable throwable() {
+        return throwable;
+    }
+
+    /** When the message was logged, in milliseconds since the epoch. */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Return an event that stays valid after the call that received this one returns: this one,
+     * or a copy if this one belongs to a {@link BatchingTree}. Call {@link #recycle()} on the
+     * returned event once for every call to this method, when done with it.
+     */
+    public LogEvent retain() {
+        if (!pooled) {
+            LogEvent copy = new LogEvent(false);
+            copy.priority = priority;
+            copy.tag = tag;
+            copy.template = template;
+            copy.args = args;
+            copy.throwable = throwable;
+            copy.timestamp = timestamp;
+            copy.formatter = formatter;
+            copy.message = message;
+            return copy;
+        }
+        REFERENCES.incrementAndGet(this);
+        return this;
+    }
+
+    /**
+     * Give up a reference taken with {@link #retain()}; the event returns to the pool once the
+     * logging call that received it has returned too. It must not be used afterwards. Does
+     * nothing for events that do not come from the pool, or that are already back in it.
+     */
+    public void recycle() {
+        if (pooled && dereference()) {
+            free();
+        }
+    }
+
+    /** Give up the reference of the logging call that obtained this event. */
+    void release() {
+        if (dereference()) {
+            free();
+        }
+    }
+
+    /** Drop one reference, and return whether it was the last. */
+    private boolean dereference() {
+        while (true) {
+            int references = this.references;
+            if (references <= 0) {
+                return false;
+            }
+            if (REFERENCES.compareAndSet(this, references, references - 1)) {
+                return references == 1;
+            }
+        }
+    }
+
+    private void free() {
+        clear();
+        LogEvent[] local = Threads.isVirtual() ? null : LOCAL.get();
+        if (local != null && local[0] == null) {
+            local[0] = this;
+            return;
+        }
+        int start = StripedCounter.stripe();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (POOL.compareAndSet((start + i) & (POOL_SIZE - 1), null, this)) {
+                return;
+            }
+        }
+        // The pool is full: leave this one to the garbage collector.
+    }
+
+    /** Set the fields of a reusable slot from text that was already formatted. */
+    void set(int priority, String tag, String message, Throwable throwable, long timestamp) {
+        this.priority = priority;
+        this.tag = tag;
+        this.template = message;
+        this.args = NO_ARGS;
+        this.message = message;
+        this.throwable = throwable;
+        this.timestamp = timestamp;
+    }
+
+    void clear() {
+        tag = null;
+        template = null;
+        args = NO_ARGS;
+        message = null;
+        throwable = null;
+        formatter = null;
+    }
+
+    @Override public String toString() {
+        return "[" + Logger.Priority.name(priority) + "|" + tag + "] " + message();
+    }
+}
@@ -0,0 +1,144 @@
+package log;
+
+import java.util.Arrays;
+
+/**
+ * The key/value pairs attached to a message with {@link LogBuilder#with(String, Object)}, in the
+ * order they were added.
+ * <p>
+ * Primitive values are kept unboxed: check {@link #typeAt(int)} and read them with
+ * {@link #longAt(int)}, {@link #doubleAt(int)} or {@link #booleanAt(int)}, or box them with
+ * {@link #valueAt(int)}. Fields are only valid during the
+ * {@link Logger.Tree#log(int, String, String, Throwable, LogFields) log} call that receives them;
+ * copy what you need to keep.
+ */
+public final class LogFields {
+    public static final int OBJECT = 0;
+    public static final int INT = 1;
+    public static final int LONG = 2;
+    public static final int FLOAT = 3;
+    public static final int DOUBLE = 4;
+    public static final int BOOLEAN = 5;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private long[] longs = new long[INITIAL_CAPACITY];
+    private double[] doubles = new double[INITIAL_CAPACITY];
+    private Object[] objects = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    LogFields() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String keyAt(int index) {
+        checkIndex(index);
+        return keys[index];
+    }
+
+    /**
+     * One of {@link #OBJECT}, {@link #INT}, {@link #LONG}, {@link #FLOAT}, {@link #DOUBLE} or
+     * {@link #BOOLEAN}.
+     */
+    public int typeAt(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    /** Return the value, boxing primitives. */
+    public Object valueAt(int index) {
+        checkIndex(index);
+        switch (types[index]) {
+            case INT: return (int) longs[index];
+            case LONG: return longs[index];
+            case FLOAT: return (float) doubles[index];
+            case DOUBLE: return doubles[index];
+            case BOOLEAN: return longs[index] != 0;
+            default: return objects[index];
+        }
+    }
+
+    /** Return an {@link #INT} or {@link #LONG} value. */
+    public long longAt(int index) {
+        checkType(index, INT, LONG);
+        return longs[index];
+    }
+
+    /** Return a {@link #FLOAT} or {@link #DOUBLE} value. */
+    public double doubleAt(int index) {
+        checkType(index, FLOAT, DOUBLE);
+        return doubles[index];
+    }
+
+    /** Return a {@link #BOOLEAN} value. */
+    public boolean booleanAt(int index) {
+        checkType(index, BOOLEAN, BOOLEAN);
+        return longs[index] != 0;
+    }
+
+    /** Append the value as {@link String#valueOf} would render it, without boxing. */
+    public void appendValueAt(int index, StringBuilder sb) {
+        checkIndex(index);
+        switch (types[index]) {
+            case INT:
+            case LONG:
+                sb.append(longs[index]);
+                break;
+            case FLOAT:
+                sb.append((float) doubles[index]);
+                break;
+            case DOUBLE:
+                sb.append(doubles[index]);
+                break;
+            case BOOLEAN:
+                sb.append(longs[index] != 0);
+                break;
+            default:
+                sb.append(objects[index]);
+        }
+    }
+
+    void add(String key, int type, long longValue, double doubleValue, Object objectValue) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            types = Arrays.copyOf(types, capacity);
+            longs = Arrays.copyOf(longs, capacity);
+            doubles = Arrays.copyOf(doubles, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        keys[size] = key;
+        types[size] = type;
+        longs[size] = longValue;
+        doubles[size] = doubleValue;
+        objects[size] = objectValue;
+        size++;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    private void checkType(int index, int type, int otherType) {
+        checkIndex(index);
+        if (types[index] != type && types[index] != otherType) {
+            throw new IllegalStateException("Field " + keys[index] + " has type " + types[index]);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A table of minimum priorities by tag, shared by any number of trees through
+ * {@link Logger.Tree#setLevels(LogLevels)}.
+ * <p>
+ * A rule for {@code "com.example"} applies to that tag and to dotted tags beneath it, such as
+ * {@code "com.example.Foo"}, but not to {@code "com.examples"}. A rule ending in {@code *} applies
+ * to every tag starting with the rest, so {@code "Net*"} matches {@code "NetClient"} and
+ * {@code "*"} matches every tag, including null ones. The longest matching rule wins; tags that
+ * match none are logged at every priority.
+ * <p>
+ * Rules are kept in a trie, and each tag's resolved level is cached in an immutable map that is
+ * replaced, never modified, so {@link #isLoggable(String, int)} takes no lock. Changing a rule
+ * discards the cache.
+ * <p>
+ * Rules can be read from a properties file of tags and priority names, such as
+ * {@code *=INFO} and {@code com.example.Noisy=WARN}, and {@link #watch(File) reloaded} whenever
+ * it changes.
+ */
+public final class LogLevels {
+    /** A level above every priority, which disables logging. */
+    public static final int OFF = Logger.Priority.ASSERT + 1;
+
+    /** Tags resolved beyond this many are looked up in the trie every time. */
+    private static final int MAX_CACHED_TAGS = 1024;
+    private static final int UNSET = -1;
+
+    // Guarded by 'this'.
+    private final Map<String, Integer> rules = new TreeMap<>();
+    private final AtomicReference<State> state = new AtomicReference<>(new State(new Node(),
+            Collections.<String, Integer>emptyMap()));
+
+    /** Create a table with no rules, which logs everything. */
+    public LogLevels() {
+    }
+
+    /** Log messages with {@code tag} at {@code priority} or higher. */
+    public synchronized LogLevels setLevel(String tag, int priority) {
+        if (tag == null) {
+            throw new NullPointerException("tag == null");
+        }
+        if (priority < Logger.Priority.VERBOSE || priority > OFF) {
+            throw new IllegalArgumentException("Unknown priority: " + priority);
+        }
+        rules.put(tag, priority);
+        rebuild();
+        return this;
+    }
+
+    /** Remove the rule for {@code tag}, if any. */
+    public synchronized LogLevels clearLevel(String tag) {
+        if (tag == null) {
+            throw new NullPointerException("tag == null");
+        }
+        if (rules.remove(tag) != null) {
+            rebuild();
+        }
+        return this;
+    }
+
+    /** Replace all rules with those in {@code properties}. */
+    public synchronized LogLevels load(Properties properties) {
+        Map<String, Integer> loaded = new HashMap<>();
+        for (String tag : properties.stringPropertyNames()) {
+            loaded.put(tag, parsePriority(properties.getProperty(tag)));
+        }
+        rules.clear();
+        rules.putAll(loaded);
+        rebuild();
+        return this;
+    }
+
+    /** Replace all rules with those in the UTF-8 properties file {@code file}. */
+    public LogLevels load(File file) throws IOException {
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream(file);
+        try {
+            properties.load(new InputStreamReader(in, "UTF-8"));
+        } finally {
+            in.close();
+        }
+        return load(properties);
+    }
+
+    /**
+     * Load {@code file} now and again each time it is created or modified. A file that cannot be
+     * read or parsed leaves the rules unchanged and is reported as a warning. Close the returned
+     * handle to stop watching.
+     */
+    public Closeable watch(final File file) throws IOException {
+        load(file);
+        final File absolute = file.getAbsoluteFile();
+        final Path name = absolute.toPath().getFileName();
+        final WatchService watcher = FileSystems.getDefault().newWatchService();
+        absolute.getParentFile().toPath().register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    while (true) {
+                        WatchKey key = watcher.take();
+                        boolean changed = false;
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            changed |= name.equals(event.context());
+                        }
+                        if (changed) {
+                            reload(absolute);
+                        }
+                        if (!key.reset()) {
+                            return; // The directory is gone.
+                        }
+                    }
+                } catch (ClosedWatchServiceException | InterruptedException ignored) {
+                }
+            }
+        }, "LogLevels-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+
+    /** Return the minimum priority logged for {@code tag}, or {@link #OFF}. */
+    public int level(String tag) {
+        State state = this.state.get();
+        if (tag == null) {
+            return state.root.prefixLevel != UNSET ? state.root.prefixLevel
+                    : Logger.Priority.VERBOSE;
+        }
+        Integer level = state.cache.get(tag);
+        if (level != null) {
+            return level;
+        }
+        int resolved = state.root.resolve(tag);
+        if (state.cache.size() < MAX_CACHED_TAGS) {
+            Map<String, Integer> cache = new HashMap<>(state.cache);
+            cache.put(tag, resolved);
+            // Lose the entry rather than a concurrent change of rules.
+            this.state.compareAndSet(state, new State(state.root, cache));
+        }
+        return resolved;
+    }
+
+    /** Return whether a message with {@code tag} at {@code priority} should be logged. */
+    public boolean isLoggable(String tag, int priority) {
+        return priority >= level(tag);
+    }
+
+    private void reload(File file) {
+        try {
+            load(file);
+        } catch (IOException | IllegalArgumentException e) {
+            Logger.tag("LogLevels").w(e, "Cannot reload %s", file);
+        }
+    }
+
+    private void rebuild() {
+        Node root = new Node();
+        for (Map.Entry<String, Integer> rule : rules.entrySet()) {
+            String tag = rule.getKey();
+            boolean prefix = tag.endsWith("*");
+            Node node = root;
+            for (int i = 0, length = prefix ? tag.length() - 1 : tag.length(); i < length; i++) {
+                node = node.child(tag.charAt(i), true);
+            }
+            if (prefix) {
+                node.prefixLevel = rule.getValue();
+            } else {
+                node.level = rule.getValue();
+            }
+        }
+        state.set(new State(root, Collections.<String, Integer>emptyMap()));
+    }
+
+    private static int parsePriority(String value) {
+        String name = value.trim().toUpperCase(Locale.ROOT);
+        for (int priority = Logger.Priority.VERBOSE; priority <= Logger.Priority.ASSERT;
+                priority++) {
+            if (Logger.Priority.name(priority).equals(name)) {
+                return priority;
+            }
+        }
+        if (name.equals("OFF")) {
+            return OFF;
+        }
+        throw new IllegalArgumentException("Unknown priority: " + value);
+    }
+
+    /** Rules and the levels resolved from them so far. Never modified once published. */
+    private static final class State {
+        final Node root;
+        final Map<String, Integer> cache;
+
+        State(Node root, Map<String, Integer> cache) {
+            this.root = root;
+            this.cache = cache;
+        }
+    }
+
+    /** One character of a rule's tag. Only modified before it is published. */
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        /** The level for the tag ending here and dotted tags beneath it. */
+        int level = UNSET;
+        /** The level for every tag starting with the characters up to here. */
+        int prefixLevel = UNSET;
+
+        Node child(char c, boolean create) {
+            Node child = children.get(c);
+            if (child == null && create) {
+                child = new Node();
+                children.put(c, child);
+            }
+            return child;
+        }
+
+        /** Return the level of the longest rule matching {@code tag}. */
+        int resolve(String tag) {
+            int level = prefixLevel != UNSET ? prefixLevel : Logger.Priority.VERBOSE;
+            Node node = this;
+            for (int i = 0, length = tag.length(); i < length; i++) {
+                node = node.child(tag.charAt(i), false);
+                if (node == null) {
+                    break;
+                }
+                if (node.prefixLevel != UNSET) {
+                    level = node.prefixLevel;
+                }
+                if (node.level != UNSET && (i + 1 == length || tag.charAt(i + 1) == '.')) {
+                    level = node.level;
+                }
+            }
+            return level;
+        }
+    }
+}
@@ -6,11 +6,20 @@ package log;
 
 import org.jetbrains.annotations.NonNls;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -55,6 +64,89 @@ public final class Logger {
         TREE_OF_SOULS.v(t);
     }
 
+    /** Log a verbose message with one format arg. */
+    public static void v(@NonNls String message, Object arg1) {
+        TREE_OF_SOULS.v(message, arg1);
+    }
+
+    /** Log a verbose message with two format args. */
+    public static void v(@NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.v(message, arg1, arg2);
+    }
+
+    /** Log a verbose message with three format args. */
+    public static void v(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        TREE_OF_SOULS.v(message, arg1, arg2, arg3);
+    }
+
+    /** Log a verbose message with four format args. */
+    public static void v(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        TREE_OF_SOULS.v(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a verbose exception and a message with one format arg. */
+    public static void v(Throwable t, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.v(t, message, arg1);
+    }
+
+    /** Log a verbose exception and a message with two format args. */
+    public static void v(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.v(t, message, arg1, arg2);
+    }
+
+    /** Log a verbose exception and a message with three format args. */
+    public static void v(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        TREE_OF_SOULS.v(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log a verbose exception and a message with four format args. */
+    public static void v(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        TREE_OF_SOULS.v(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a verbose message with an {@code int} format arg. */
+    public static void v(@NonNls String message, int arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code long} format arg. */
+    public static void v(@NonNls String message, long arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code float} format arg. */
+    public static void v(@NonNls String message, float arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code double} format arg. */
+    public static void v(@NonNls String message, double arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code boolean} format arg. */
+    public static void v(@NonNls String message, boolean arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code char} format arg. */
+    public static void v(@NonNls String message, char arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code byte} format arg. */
+    public static void v(@NonNls String message, byte arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code short} format arg. */
+    public static void v(@NonNls String message, short arg) {
+        TREE_OF_SOULS.v(message, arg);
+    }
+
     /** Log a debug message with optional format args. */
     public static void d(@NonNls String message, Object... args) {
         TREE_OF_SOULS.d(message, args);
@@ -70,6 +162,89 @@ public final class Logger {
         TREE_OF_SOULS.d(t);
     }
 
+    /** Log a debug message with one format arg. */
+    public static void d(@NonNls String message, Object arg1) {
+        TREE_OF_SOULS.d(message, arg1);
+    }
+
+    /** Log a debug message with two format args. */
+    public static void d(@NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.d(message, arg1, arg2);
+    }
+
+    /** Log a debug message with three format args. */
+    public static void d(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        TREE_OF_SOULS.d(message, arg1, arg2, arg3);
+    }
+
+    /** Log a debug message with four format args. */
+    public static void d(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        TREE_OF_SOULS.d(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a debug exception and a message with one format arg. */
+    public static void d(Throwable t, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.d(t, message, arg1);
+    }
+
+    /** Log a debug exception and a message with two format args. */
+    public static void d(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.d(t, message, arg1, arg2);
+    }
+
+    /** Log a debug exception and a message with three format args. */
+    public static void d(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        TREE_OF_SOULS.d(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log a debug exception and a message with four format args. */
+    public static void d(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        TREE_OF_SOULS.d(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a debug message with an {@code int} format arg. */
+    public static void d(@NonNls String message, int arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code long} format arg. */
+    public static void d(@NonNls String message, long arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code float} format arg. */
+    public static void d(@NonNls String message, float arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code double} format arg. */
+    public static void d(@NonNls String message, double arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code boolean} format arg. */
+    public static void d(@NonNls String message, boolean arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code char} format arg. */
+    public static void d(@NonNls String message, char arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code byte} format arg. */
+    public static void d(@NonNls String message, byte arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code short} format arg. */
+    public static void d(@NonNls String message, short arg) {
+        TREE_OF_SOULS.d(message, arg);
+    }
+
     /** Log an info message with optional format args. */
     public static void i(@NonNls String message, Object... args) {
         TREE_OF_SOULS.i(message, args);
@@ -85,6 +260,89 @@ public final class Logger {
         TREE_OF_SOULS.i(t);
     }
 
+    /** Log an info message with one format arg. */
+    public static void i(@NonNls String message, Object arg1) {
+        TREE_OF_SOULS.i(message, arg1);
+    }
+
+    /** Log an info message with two format args. */
+    public static void i(@NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.i(message, arg1, arg2);
+    }
+
+    /** Log an info message with three format args. */
+    public static void i(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        TREE_OF_SOULS.i(message, arg1, arg2, arg3);
+    }
+
+    /** Log an info message with four format args. */
+    public static void i(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        TREE_OF_SOULS.i(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an info exception and a message with one format arg. */
+    public static void i(Throwable t, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.i(t, message, arg1);
+    }
+
+    /** Log an info exception and a message with two format args. */
+    public static void i(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.i(t, message, arg1, arg2);
+    }
+
+    /** Log an info exception and a message with three format args. */
+    public static void i(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        TREE_OF_SOULS.i(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log an info exception and a message with four format args. */
+    public static void i(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        TREE_OF_SOULS.i(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an info message with an {@code int} format arg. */
+    public static void i(@NonNls String message, int arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
+    /** Log an info message with a {@code long} format arg. */
+    public static void i(@NonNls String message, long arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
+    /** Log an info message with a {@code float} format arg. */
+    public static void i(@NonNls String message, float arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
+    /** Log an info message with a {@code double} format arg. */
+    public static void i(@NonNls String message, double arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
+    /** Log an info message with a {@code boolean} format arg. */
+    public static void i(@NonNls String message, boolean arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
+    /** Log an info message with a {@code char} format arg. */
+    public static void i(@NonNls String message, char arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
+    /** Log an info message with a {@code byte} format arg. */
+    public static void i(@NonNls String message, byte arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
+    /** Log an info message with a {@code short} format arg. */
+    public static void i(@NonNls String message, short arg) {
+        TREE_OF_SOULS.i(message, arg);
+    }
+
     /** Log a warning message with optional format args. */
     public static void w(@NonNls String message, Object... args) {
         TREE_OF_SOULS.w(message, args);
@@ -100,6 +358,89 @@ public final class Logger {
         TREE_OF_SOULS.w(t);
     }
 
+    /** Log a warning message with one format arg. */
+    public static void w(@NonNls String message, Object arg1) {
+        TREE_OF_SOULS.w(message, arg1);
+    }
+
+    /** Log a warning message with two format args. */
+    public static void w(@NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.w(message, arg1, arg2);
+    }
+
+    /** Log a warning message with three format args. */
+    public static void w(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        TREE_OF_SOULS.w(message, arg1, arg2, arg3);
+    }
+
+    /** Log a warning message with four format args. */
+    public static void w(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        TREE_OF_SOULS.w(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a warning exception and a message with one format arg. */
+    public static void w(Throwable t, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.w(t, message, arg1);
+    }
+
+    /** Log a warning exception and a message with two format args. */
+    public static void w(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.w(t, message, arg1, arg2);
+    }
+
+    /** Log a warning exception and a message with three format args. */
+    public static void w(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        TREE_OF_SOULS.w(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log a warning exception and a message with four format args. */
+    public static void w(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        TREE_OF_SOULS.w(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a warning message with an {@code int} format arg. */
+    public static void w(@NonNls String message, int arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code long} format arg. */
+    public static void w(@NonNls String message, long arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code float} format arg. */
+    public static void w(@NonNls String message, float arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code double} format arg. */
+    public static void w(@NonNls String message, double arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code boolean} format arg. */
+    public static void w(@NonNls String message, boolean arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code char} format arg. */
+    public static void w(@NonNls String message, char arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code byte} format arg. */
+    public static void w(@NonNls String message, byte arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code short} format arg. */
+    public static void w(@NonNls String message, short arg) {
+        TREE_OF_SOULS.w(message, arg);
+    }
+
     /** Log an error message with optional format args. */
     public static void e(@NonNls String message, Object... args) {
         TREE_OF_SOULS.e(message, args);
@@ -115,6 +456,89 @@ public final class Logger {
         TREE_OF_SOULS.e(t);
     }
 
+    /** Log an error message with one format arg. */
+    public static void e(@NonNls String message, Object arg1) {
+        TREE_OF_SOULS.e(message, arg1);
+    }
+
+    /** Log an error message with two format args. */
+    public static void e(@NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.e(message, arg1, arg2);
+    }
+
+    /** Log an error message with three format args. */
+    public static void e(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        TREE_OF_SOULS.e(message, arg1, arg2, arg3);
+    }
+
+    /** Log an error message with four format args. */
+    public static void e(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        TREE_OF_SOULS.e(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an error exception and a message with one format arg. */
+    public static void e(Throwable t, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.e(t, message, arg1);
+    }
+
+    /** Log an error exception and a message with two format args. */
+    public static void e(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.e(t, message, arg1, arg2);
+    }
+
+    /** Log an error exception and a message with three format args. */
+    public static void e(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        TREE_OF_SOULS.e(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log an error exception and a message with four format args. */
+    public static void e(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        TREE_OF_SOULS.e(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an error message with an {@code int} format arg. */
+    public static void e(@NonNls String message, int arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
+    /** Log an error message with a {@code long} format arg. */
+    public static void e(@NonNls String message, long arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
+    /** Log an error message with a {@code float} format arg. */
+    public static void e(@NonNls String message, float arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
+    /** Log an error message with a {@code double} format arg. */
+    public static void e(@NonNls String message, double arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
+    /** Log an error message with a {@code boolean} format arg. */
+    public static void e(@NonNls String message, boolean arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
+    /** Log an error message with a {@code char} format arg. */
+    public static void e(@NonNls String message, char arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
+    /** Log an error message with a {@code byte} format arg. */
+    public static void e(@NonNls String message, byte arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
+    /** Log an error message with a {@code short} format arg. */
+    public static void e(@NonNls String message, short arg) {
+        TREE_OF_SOULS.e(message, arg);
+    }
+
     /** Log an assert message with optional format args. */
     public static void wtf(@NonNls String message, Object... args) {
         TREE_OF_SOULS.wtf(message, args);
@@ -130,6 +554,89 @@ public final class Logger {
         TREE_OF_SOULS.wtf(t);
     }
 
+    /** Log an assert message with one format arg. */
+    public static void wtf(@NonNls String message, Object arg1) {
+        TREE_OF_SOULS.wtf(message, arg1);
+    }
+
+    /** Log an assert message with two format args. */
+    public static void wtf(@NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.wtf(message, arg1, arg2);
+    }
+
+    /** Log an assert message with three format args. */
+    public static void wtf(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        TREE_OF_SOULS.wtf(message, arg1, arg2, arg3);
+    }
+
+    /** Log an assert message with four format args. */
+    public static void wtf(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        TREE_OF_SOULS.wtf(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an assert exception and a message with one format arg. */
+    public static void wtf(Throwable t, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.wtf(t, message, arg1);
+    }
+
+    /** Log an assert exception and a message with two format args. */
+    public static void wtf(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.wtf(t, message, arg1, arg2);
+    }
+
+    /** Log an assert exception and a message with three format args. */
+    public static void wtf(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        TREE_OF_SOULS.wtf(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log an assert exception and a message with four format args. */
+    public static void wtf(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        TREE_OF_SOULS.wtf(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an assert message with an {@code int} format arg. */
+    public static void wtf(@NonNls String message, int arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code long} format arg. */
+    public static void wtf(@NonNls String message, long arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code float} format arg. */
+    public static void wtf(@NonNls String message, float arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code double} format arg. */
+    public static void wtf(@NonNls String message, double arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code boolean} format arg. */
+    public static void wtf(@NonNls String message, boolean arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code char} format arg. */
+    public static void wtf(@NonNls String message, char arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code byte} format arg. */
+    public static void wtf(@NonNls String message, byte arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code short} format arg. */
+    public static void wtf(@NonNls String message, short arg) {
+        TREE_OF_SOULS.wtf(message, arg);
+    }
+
     /** Log at {@code priority} a message with optional format args. */
     public static void log(int priority, @NonNls String message, Object... args) {
         TREE_OF_SOULS.log(priority, message, args);
@@ -145,445 +652,3711 @@ public final class Logger {
         TREE_OF_SOULS.log(priority, t);
     }
 
-    /**
-     * A view into Timber's planted trees as a tree itself. This can be used for injecting a logger
-     * instance rather than using static methods or to facilitate testing.
-     */
-    public static Tree asTree() {
-        return TREE_OF_SOULS;
+    /** Log at {@code priority} a message with one format arg. */
+    public static void log(int priority, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.log(priority, message, arg1);
     }
 
-    /** Set a one-time tag for use on the next logging call. */
-    public static Tree tag(String tag) {
-        Tree[] forest = forestAsArray;
-        //noinspection ForLoopReplaceableByForEach
-        for (int i = 0, count = forest.length; i < count; i++) {
-            forest[i].explicitTag.set(tag);
-        }
-        return TREE_OF_SOULS;
+    /** Log at {@code priority} a message with two format args. */
+    public static void log(int priority, @NonNls String message, Object arg1, Object arg2) {
+        TREE_OF_SOULS.log(priority, message, arg1, arg2);
     }
 
-    /** Add a new logging tree. */
-    public static void plant(Tree tree) {
-        if (tree == null) {
-            throw new NullPointerException("tree == null");
-        }
-        if (tree == TREE_OF_SOULS) {
-            throw new IllegalArgumentException("Cannot plant Logger into itself.");
-        }
-        synchronized (FOREST) {
-            FOREST.add(tree);
-            forestAsArray = FOREST.toArray(new Tree[FOREST.size()]);
-        }
+    /** Log at {@code priority} a message with three format args. */
+    public static void log(int priority, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        TREE_OF_SOULS.log(priority, message, arg1, arg2, arg3);
     }
 
-    /** Adds new logging trees. */
-    public static void plant(Tree... trees) {
-        if (trees == null) {
-            throw new NullPointerException("trees == null");
-        }
-        for (Tree tree : trees) {
-            if (tree == null) {
-                throw new NullPointerException("trees contains null");
-            }
-            if (tree == TREE_OF_SOULS) {
-                throw new IllegalArgumentException("Cannot plant Logger into itself.");
-            }
-        }
-        synchronized (FOREST) {
-            Collections.addAll(FOREST, trees);
-            forestAsArray = FOREST.toArray(new Tree[FOREST.size()]);
-        }
+    /** Log at {@code priority} a message with four format args. */
+    public static void log(int priority, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        TREE_OF_SOULS.log(priority, message, arg1, arg2, arg3, arg4);
     }
 
-    /** Remove a planted tree. */
-    public static void uproot(Tree tree) {
-        synchronized (FOREST) {
-            if (!FOREST.remove(tree)) {
-                throw new IllegalArgumentException("Cannot uproot tree which is not planted: " + tree);
-            }
-            forestAsArray = FOREST.toArray(new Tree[FOREST.size()]);
-        }
+    /** Log at {@code priority} an exception and a message with one format arg. */
+    public static void log(int priority, Throwable t, @NonNls String message, Object arg1) {
+        TREE_OF_SOULS.log(priority, t, message, arg1);
     }
 
-    /** Remove all planted trees. */
-    public static void uprootAll() {
-        synchronized (FOREST) {
-            FOREST.clear();
-            forestAsArray = TREE_ARRAY_EMPTY;
-        }
+    /** Log at {@code priority} an exception and a message with two format args. */
+    public static void log(int priority, Throwable t, @NonNls String message, Object arg1,
+            Object arg2) {
+        TREE_OF_SOULS.log(priority, t, message, arg1, arg2);
     }
 
-    /** Return a copy of all planted {@linkplain Tree trees}. */
-    public static List<Tree> forest() {
-        synchronized (FOREST) {
-            return unmodifiableList(new ArrayList<>(FOREST));
-        }
+    /** Log at {@code priority} an exception and a message with three format args. */
+    public static void log(int priority, Throwable t, @NonNls String message, Object arg1,
+            Object arg2, Object arg3) {
+        TREE_OF_SOULS.log(priority, t, message, arg1, arg2, arg3);
     }
 
-    public static int treeCount() {
-        synchronized (FOREST) {
-            return FOREST.size();
-        }
+    /** Log at {@code priority} an exception and a message with four format args. */
+    public static void log(int priority, Throwable t, @NonNls String message, Object arg1,
+            Object arg2, Object arg3, Object arg4) {
+        TREE_OF_SOULS.log(priority, t, message, arg1, arg2, arg3, arg4);
     }
 
-    private static final Tree[] TREE_ARRAY_EMPTY = new Tree[0];
-    // Both fields guarded by 'FOREST'.
-    private static final List<Tree> FOREST = new ArrayList<>();
-    static volatile Tree[] forestAsArray = TREE_ARRAY_EMPTY;
+    /** Log at {@code priority} a message with an {@code int} format arg. */
+    public static void log(int priority, @NonNls String message, int arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
 
-    /** A {@link Tree} that delegates to all planted trees in the {@linkplain #FOREST forest}. */
-    private static final Tree TREE_OF_SOULS = new Tree() {
-        @Override public void v(String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].v(message, args);
-            }
-        }
+    /** Log at {@code priority} a message with a {@code long} format arg. */
+    public static void log(int priority, @NonNls String message, long arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
 
-        @Override public void v(Throwable t, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].v(t, message, args);
-            }
-        }
+    /** Log at {@code priority} a message with a {@code float} format arg. */
+    public static void log(int priority, @NonNls String message, float arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
 
-        @Override public void v(Throwable t) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].v(t);
-            }
-        }
+    /** Log at {@code priority} a message with a {@code double} format arg. */
+    public static void log(int priority, @NonNls String message, double arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
 
-        @Override public void d(String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].d(message, args);
-            }
-        }
+    /** Log at {@code priority} a message with a {@code boolean} format arg. */
+    public static void log(int priority, @NonNls String message, boolean arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
 
-        @Override public void d(Throwable t, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].d(t, message, args);
-            }
-        }
+    /** Log at {@code priority} a message with a {@code char} format arg. */
+    public static void log(int priority, @NonNls String message, char arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
 
-        @Override public void d(Throwable t) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].d(t);
-            }
-        }
+    /** Log at {@code priority} a message with a {@code byte} format arg. */
+    public static void log(int priority, @NonNls String message, byte arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
 
-        @Override public void i(String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].i(message, args);
-            }
+    /** Log at {@code priority} a message with a {@code short} format arg. */
+    public static void log(int priority, @NonNls String message, short arg) {
+        TREE_OF_SOULS.log(priority, message, arg);
+    }
+
+    /** Start a verbose message with fields. See {@link LogBuilder}. */
+    public static LogBuilder atVerbose() {
+        return at(Priority.VERBOSE);
+    }
+
+    /** Start a debug message with fields. See {@link LogBuilder}. */
+    public static LogBuilder atDebug() {
+        return at(Priority.DEBUG);
+    }
+
+    /** Start an info message with fields. See {@link LogBuilder}. */
+    public static LogBuilder atInfo() {
+        return at(Priority.INFO);
+    }
+
+    /** Start a warning message with fields. See {@link LogBuilder}. */
+    public static LogBuilder atWarn() {
+        return at(Priority.WARN);
+    }
+
+    /** Start an error message with fields. See {@link LogBuilder}. */
+    public static LogBuilder atError() {
+        return at(Priority.ERROR);
+    }
+
+    /** Start an assert message with fields. See {@link LogBuilder}. */
+    public static LogBuilder atWtf() {
+        return at(Priority.ASSERT);
+    }
+
+    /**
+     * Return whether any planted tree accepts messages at {@code priority}. Use this to skip
+     * building expensive arguments; trees may still filter messages by tag.
+     */
+    public static boolean isLoggable(int priority) {
+        return TREE_OF_SOULS.forest(priority).length > 0;
+    }
+
+    /** Start a message at {@code priority} with fields. See {@link LogBuilder}. */
+    public static LogBuilder at(int priority) {
+        return TREE_OF_SOULS.at(priority);
+    }
+
+    /**
+     * A view into Timber's planted trees as a tree itself. This can be used for injecting a logger
+     * instance rather than using static methods or to facilitate testing.
+     */
+    public static Tree asTree() {
+        return TREE_OF_SOULS;
+    }
+
+    /** Set a one-time tag for use on the next logging call. */
+    public static Tree tag(String tag) {
+        LogContext.current().tag = tag;
+        return TREE_OF_SOULS;
+    }
+
+    /**
+     * Start collecting {@link LoggerMetrics} and register them with the platform MBean server as
+     * {@code log:type=Logger}. Returns the metrics already being collected, if any.
+     */
+    public static LoggerMetrics enableMetrics() {
+        synchronized (LoggerMetrics.class) {
+            LoggerMetrics metrics = Logger.metrics;
+            if (metrics == null) {
+                metrics = new LoggerMetrics();
+                metrics.register();
+                Logger.metrics = metrics;
+            }
+            return metrics;
         }
+    }
 
-        @Override public void i(Throwable t, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].i(t, message, args);
+    /** Stop collecting metrics and unregister their MBean. */
+    public static void disableMetrics() {
+        synchronized (LoggerMetrics.class) {
+            LoggerMetrics metrics = Logger.metrics;
+            if (metrics != null) {
+                Logger.metrics = null;
+                metrics.unregister();
             }
         }
+    }
 
-        @Override public void i(Throwable t) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].i(t);
+    /** Add a new logging tree. */
+    public static void plant(Tree tree) {
+        TREE_OF_SOULS.plant(tree);
+    }
+
+    /** Adds new logging trees. */
+    public static void plant(Tree... trees) {
+        TREE_OF_SOULS.plant(trees);
+    }
+
+    /** Remove a planted tree. */
+    public static void uproot(Tree tree) {
+        TREE_OF_SOULS.uproot(tree);
+    }
+
+    /** Remove all planted trees. */
+    public static void uprootAll() {
+        TREE_OF_SOULS.uprootAll();
+    }
+
+    /** Return a copy of all planted {@linkplain Tree trees}. */
+    public static List<Tree> forest() {
+        return TREE_OF_SOULS.trees();
+    }
+
+    public static int treeCount() {
+        return TREE_OF_SOULS.treeCount();
+    }
+
+    private static final Tree[] TREE_ARRAY_EMPTY = new Tree[0];
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final int PRIORITY_SLOTS = Priority.ASSERT + 1;
+
+    // Guarded by 'LoggerMetrics.class'.
+    static volatile LoggerMetrics metrics;
+
+    /** The default scope, which the static methods log to. */
+    static final Forest TREE_OF_SOULS = new Forest(null);
+
+    private static Tree[][] forestsOf(Tree[] trees) {
+        Tree[][] forests = new Tree[PRIORITY_SLOTS][];
+        List<Tree> accepting = new ArrayList<>();
+        for (int priority = 0; priority < PRIORITY_SLOTS; priority++) {
+            accepting.clear();
+            for (Tree tree : trees) {
+                if (tree.minPriority() <= priority) {
+                    accepting.add(tree);
+                }
             }
+            forests[priority] = accepting.size() == trees.length
+                    ? trees
+                    : accepting.toArray(new Tree[accepting.size()]);
         }
+        return forests;
+    }
 
-        @Override public void w(String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].w(message, args);
+    /**
+     * A {@link Tree} that delegates to the trees planted in one scope: the default one of the
+     * static methods, or a {@link LoggerScope}. The trees are kept in copy-on-write arrays, one
+     * per priority, so logging takes no lock.
+     */
+    static final class Forest extends Tree {
+        /** Guards the trees of every forest, so that heirs see their parent's changes in order. */
+        private static final Object LOCK = new Object();
+
+        /** The forest whose trees this one also logs to, or null. */
+        private final Forest parent;
+        // Guarded by 'LOCK'.
+        private final List<Tree> planted = new ArrayList<>();
+        private final List<WeakReference<Forest>> heirs = new ArrayList<>();
+        /** The planted trees, followed by the parent's. */
+        private volatile Tree[] forestAsArray = TREE_ARRAY_EMPTY;
+        /** For each priority, the trees whose {@link Tree#minPriority()} it meets. */
+        private volatile Tree[][] forests = forestsOf(TREE_ARRAY_EMPTY);
+
+        Forest(Forest parent) {
+            this.parent = parent;
+            if (parent != null) {
+                synchronized (LOCK) {
+                    parent.heirs.add(new WeakReference<>(this));
+                    update();
+                }
             }
         }
 
-        @Override public void w(Throwable t, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].w(t, message, args);
+        void plant(Tree tree) {
+            if (tree == null) {
+                throw new NullPointerException("tree == null");
+            }
+            checkPlantable(tree);
+            synchronized (LOCK) {
+                planted.add(tree);
+                update();
             }
         }
 
-        @Override public void w(Throwable t) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].w(t);
+        void plant(Tree... trees) {
+            if (trees == null) {
+                throw new NullPointerException("trees == null");
+            }
+            for (Tree tree : trees) {
+                if (tree == null) {
+                    throw new NullPointerException("trees contains null");
+                }
+                checkPlantable(tree);
+            }
+            synchronized (LOCK) {
+                Collections.addAll(planted, trees);
+                update();
             }
         }
 
-        @Override public void e(String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].e(message, args);
+        void uproot(Tree tree) {
+            synchronized (LOCK) {
+                if (!planted.remove(tree)) {
+                    throw new IllegalArgumentException(
+                            "Cannot uproot tree which is not planted: " + tree);
+                }
+                update();
             }
         }
 
-        @Override public void e(Throwable t, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].e(t, message, args);
+        void uprootAll() {
+            synchronized (LOCK) {
+                planted.clear();
+                update();
             }
         }
 
-        @Override public void e(Throwable t) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].e(t);
+        List<Tree> trees() {
+            synchronized (LOCK) {
+                return unmodifiableList(new ArrayList<>(planted));
             }
         }
 
-        @Override public void wtf(String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].wtf(message, args);
+        int treeCount() {
+            synchronized (LOCK) {
+                return planted.size();
             }
         }
 
-        @Override public void wtf(Throwable t, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].wtf(t, message, args);
+        /** Return the trees that accept {@code priority}. */
+        Tree[] forest(int priority) {
+            return priority >= 0 && priority < PRIORITY_SLOTS ? forests[priority] : forestAsArray;
+        }
+
+        LogBuilder at(int priority) {
+            return forest(priority).length > 0 ? LogBuilder.obtain(this, priority) : LogBuilder.NOOP;
+        }
+
+        private void checkPlantable(Tree tree) {
+            if (tree == this) {
+                throw new IllegalArgumentException("Cannot plant Logger into itself.");
+            }
+            if (tree instanceof Forest) {
+                throw new IllegalArgumentException("Cannot plant one Logger scope into another.");
             }
         }
 
-        @Override public void wtf(Throwable t) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].wtf(t);
+        /** Rebuild the arrays of this forest and of those inheriting from it. Must hold LOCK. */
+        private void update() {
+            Tree[] trees = planted.toArray(new Tree[planted.size()]);
+            if (parent != null) {
+                Tree[] inherited = parent.forestAsArray;
+                if (inherited.length > 0) {
+                    trees = Arrays.copyOf(trees, trees.length + inherited.length);
+                    System.arraycopy(inherited, 0, trees, planted.size(), inherited.length);
+                }
+            }
+            forests = forestsOf(trees);
+            forestAsArray = trees;
+            for (Iterator<WeakReference<Forest>> i = heirs.iterator(); i.hasNext(); ) {
+                Forest heir = i.next().get();
+                if (heir != null) {
+                    heir.update();
+                } else {
+                    i.remove();
+                }
             }
         }
 
-        @Override public void log(int priority, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].log(priority, message, args);
+        @Override public void v(String message, Object... args) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, null, message, args);
+                }
+            } finally {
+                LogContext.endCall();
             }
         }
 
-        @Override public void log(int priority, Throwable t, String message, Object... args) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].log(priority, t, message, args);
+        @Override public void v(Throwable t, String message, Object... args) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, t, message, args);
+                }
+            } finally {
+                LogContext.endCall();
             }
         }
 
-        @Override public void log(int priority, Throwable t) {
-            Tree[] forest = forestAsArray;
-            //noinspection ForLoopReplaceableByForEach
-            for (int i = 0, count = forest.length; i < count; i++) {
-                forest[i].log(priority, t);
+        @Override public void v(Throwable t) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, t, null, NO_ARGS);
+                }
+            } finally {
+                LogContext.endCall();
             }
         }
 
-        @Override protected void log(int priority, String tag, String message, Throwable t) {
-            throw new AssertionError("Missing override for log method.");
+        @Override public void v(String message, Object arg1) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, null, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
         }
-    };
 
-    private Logger() {
-        throw new AssertionError("No instances.");
-    }
+        @Override public void v(String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, null, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
 
-    /** A facade for handling logging calls. Install instances via {@link #plant Timber.plant()}. */
-    public static abstract class Tree {
-        final ThreadLocal<String> explicitTag = new ThreadLocal<>();
+        @Override public void v(String message, Object arg1, Object arg2, Object arg3) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, null, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
 
-        String getTag() {
-            String tag = explicitTag.get();
-            if (tag != null) {
-                explicitTag.remove();
+        @Override public void v(String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, null,
+                            message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
             }
-            return tag;
         }
 
-        /** Log a verbose message with optional format args. */
-        public void v(String message, Object... args) {
-            prepareLog(Priority.VERBOSE, null, message, args);
+        @Override public void v(Throwable t, String message, Object arg1) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, t, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log a verbose exception and a message with optional format args. */
-        public void v(Throwable t, String message, Object... args) {
-            prepareLog(Priority.VERBOSE, t, message, args);
+        @Override public void v(Throwable t, String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, t, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log a verbose exception. */
-        public void v(Throwable t) {
-            prepareLog(Priority.VERBOSE, t, null);
+        @Override public void v(Throwable t, String message, Object arg1, Object arg2,
+                Object arg3) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, t, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, t, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, int arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, long arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, float arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, double arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, boolean arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, char arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, byte arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void v(String message, short arg) {
+            Tree[] forest = forests[Priority.VERBOSE];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.VERBOSE, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, Object... args) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, null, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(Throwable t, String message, Object... args) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, t, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(Throwable t) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, t, null, NO_ARGS);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, Object arg1) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, null, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, null, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, Object arg1, Object arg2, Object arg3) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, null, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, null, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(Throwable t, String message, Object arg1) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, t, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(Throwable t, String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, t, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(Throwable t, String message, Object arg1, Object arg2,
+                Object arg3) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, t, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, t, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, int arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, long arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, float arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, double arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, boolean arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, char arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, byte arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void d(String message, short arg) {
+            Tree[] forest = forests[Priority.DEBUG];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.DEBUG, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, Object... args) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, null, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(Throwable t, String message, Object... args) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, t, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(Throwable t) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, t, null, NO_ARGS);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, Object arg1) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, null, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, null, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, Object arg1, Object arg2, Object arg3) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, null, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, null, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(Throwable t, String message, Object arg1) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, t, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(Throwable t, String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, t, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(Throwable t, String message, Object arg1, Object arg2,
+                Object arg3) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, t, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, t, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, int arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, long arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, float arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, double arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, boolean arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, char arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, byte arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void i(String message, short arg) {
+            Tree[] forest = forests[Priority.INFO];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.INFO, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, Object... args) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, null, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(Throwable t, String message, Object... args) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, t, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(Throwable t) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, t, null, NO_ARGS);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, Object arg1) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, null, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, null, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, Object arg1, Object arg2, Object arg3) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, null, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, null, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(Throwable t, String message, Object arg1) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, t, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(Throwable t, String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, t, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(Throwable t, String message, Object arg1, Object arg2,
+                Object arg3) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, t, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, t, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, int arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, long arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, float arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, double arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, boolean arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, char arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, byte arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void w(String message, short arg) {
+            Tree[] forest = forests[Priority.WARN];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.WARN, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, Object... args) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, null, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(Throwable t, String message, Object... args) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, t, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(Throwable t) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, t, null, NO_ARGS);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, Object arg1) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, null, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, null, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, Object arg1, Object arg2, Object arg3) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, null, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, null, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(Throwable t, String message, Object arg1) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, t, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(Throwable t, String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, t, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(Throwable t, String message, Object arg1, Object arg2,
+                Object arg3) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, t, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, t, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, int arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, long arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, float arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, double arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, boolean arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, char arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, byte arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void e(String message, short arg) {
+            Tree[] forest = forests[Priority.ERROR];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ERROR, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, Object... args) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, null, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(Throwable t, String message, Object... args) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, t, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(Throwable t) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, t, null, NO_ARGS);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, Object arg1) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, null, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, null, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, Object arg1, Object arg2, Object arg3) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, null, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, null, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(Throwable t, String message, Object arg1) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, t, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(Throwable t, String message, Object arg1, Object arg2) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, t, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(Throwable t, String message, Object arg1, Object arg2,
+                Object arg3) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, t, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(Throwable t, String message, Object arg1, Object arg2,
+                Object arg3, Object arg4) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, t, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, int arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, long arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, float arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, double arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, boolean arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, char arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, byte arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void wtf(String message, short arg) {
+            Tree[] forest = forests[Priority.ASSERT];
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(Priority.ASSERT, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, Object... args) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, null, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, Throwable t, String message, Object... args) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, t, message, args);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, Throwable t) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, t, null, NO_ARGS);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, Object arg1) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, null, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, Object arg1, Object arg2) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, null, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, Object arg1, Object arg2,
+                Object arg3) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, null, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, Object arg1, Object arg2,
+                Object arg3, Object arg4) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, null, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, Throwable t, String message, Object arg1) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, t, message, arg1);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, Throwable t, String message, Object arg1,
+                Object arg2) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, t, message, arg1, arg2);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, Throwable t, String message, Object arg1,
+                Object arg2, Object arg3) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, t, message, arg1, arg2, arg3);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, Throwable t, String message, Object arg1,
+                Object arg2, Object arg3, Object arg4) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, t, message, arg1, arg2, arg3, arg4);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, int arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, long arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, float arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, double arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, boolean arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, char arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, byte arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override public void log(int priority, String message, short arg) {
+            Tree[] forest = forest(priority);
+            if (forest.length == 0) {
+                LogContext.dropTag();
+                return;
+            }
+            String tag = LogContext.takeTag();
+            try {
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, count = forest.length; i < count; i++) {
+                    forest[i].dispatch(priority, tag, message, arg);
+                }
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            throw new AssertionError("Missing override for log method.");
+        }
+    }
+
+    private Logger() {
+        throw new AssertionError("No instances.");
+    }
+
+    /** A facade for handling logging calls. Install instances via {@link #plant Timber.plant()}. */
+    public static abstract class Tree {
+        private volatile StackTraceRenderer stackTraceRenderer = StackTraceRenderer.UNLIMITED;
+        private volatile LogLevels levels;
+        /** This tree's counters in the enabled {@link LoggerMetrics}, if it has logged since. */
+        volatile LoggerMetrics.TreeMetrics treeMetrics;
+        private final boolean receivesEvents = overrides(getClass(), "log", LogEvent.class);
+        private final boolean sharesFormatting =
+                !overrides(getClass(), "formatMessage", String.class, Object[].class);
+
+        /** Return the tag for a call that was given {@code explicitTag}, which may be null. */
+        String getTag(String explicitTag) {
+            return explicitTag;
+        }
+
+        /**
+         * Return the tree whose {@link DebugTree#inferTag()} supplies tags for this one, or null.
+         * Trees that wrap another return their delegate's.
+         */
+        DebugTree tagInferrer() {
+            return null;
+        }
+
+        /** Log a verbose message with optional format args. */
+        public void v(String message, Object... args) {
+            prepareLog(Priority.VERBOSE, null, message, args);
+        }
+
+        /** Log a verbose exception and a message with optional format args. */
+        public void v(Throwable t, String message, Object... args) {
+            prepareLog(Priority.VERBOSE, t, message, args);
+        }
+
+        /** Log a verbose exception. */
+        public void v(Throwable t) {
+            prepareLog(Priority.VERBOSE, t, null);
+        }
+
+        /** Log a verbose message with one format arg. */
+        public void v(String message, Object arg1) {
+            prepareLog(Priority.VERBOSE, null, message, arg1);
+        }
+
+        /** Log a verbose message with two format args. */
+        public void v(String message, Object arg1, Object arg2) {
+            prepareLog(Priority.VERBOSE, null, message, arg1, arg2);
+        }
+
+        /** Log a verbose message with three format args. */
+        public void v(String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.VERBOSE, null, message, arg1, arg2, arg3);
+        }
+
+        /** Log a verbose message with four format args. */
+        public void v(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+            prepareLog(Priority.VERBOSE, null, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log a verbose exception and a message with one format arg. */
+        public void v(Throwable t, String message, Object arg1) {
+            prepareLog(Priority.VERBOSE, t, message, arg1);
+        }
+
+        /** Log a verbose exception and a message with two format args. */
+        public void v(Throwable t, String message, Object arg1, Object arg2) {
+            prepareLog(Priority.VERBOSE, t, message, arg1, arg2);
+        }
+
+        /** Log a verbose exception and a message with three format args. */
+        public void v(Throwable t, String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.VERBOSE, t, message, arg1, arg2, arg3);
+        }
+
+        /** Log a verbose exception and a message with four format args. */
+        public void v(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            prepareLog(Priority.VERBOSE, t, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log a verbose message with an {@code int} format arg. */
+        public void v(String message, int arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a verbose message with a {@code long} format arg. */
+        public void v(String message, long arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a verbose message with a {@code float} format arg. */
+        public void v(String message, float arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a verbose message with a {@code double} format arg. */
+        public void v(String message, double arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a verbose message with a {@code boolean} format arg. */
+        public void v(String message, boolean arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a verbose message with a {@code char} format arg. */
+        public void v(String message, char arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a verbose message with a {@code byte} format arg. */
+        public void v(String message, byte arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a verbose message with a {@code short} format arg. */
+        public void v(String message, short arg) {
+            prepareLog(Priority.VERBOSE, message, arg);
+        }
+
+        /** Log a debug message with optional format args. */
+        public void d(String message, Object... args) {
+            prepareLog(Priority.DEBUG, null, message, args);
+        }
+
+        /** Log a debug exception and a message with optional format args. */
+        public void d(Throwable t, String message, Object... args) {
+            prepareLog(Priority.DEBUG, t, message, args);
+        }
+
+        /** Log a debug exception. */
+        public void d(Throwable t) {
+            prepareLog(Priority.DEBUG, t, null);
+        }
+
+        /** Log a debug message with one format arg. */
+        public void d(String message, Object arg1) {
+            prepareLog(Priority.DEBUG, null, message, arg1);
+        }
+
+        /** Log a debug message with two format args. */
+        public void d(String message, Object arg1, Object arg2) {
+            prepareLog(Priority.DEBUG, null, message, arg1, arg2);
+        }
+
+        /** Log a debug message with three format args. */
+        public void d(String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.DEBUG, null, message, arg1, arg2, arg3);
+        }
+
+        /** Log a debug message with four format args. */
+        public void d(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+            prepareLog(Priority.DEBUG, null, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log a debug exception and a message with one format arg. */
+        public void d(Throwable t, String message, Object arg1) {
+            prepareLog(Priority.DEBUG, t, message, arg1);
+        }
+
+        /** Log a debug exception and a message with two format args. */
+        public void d(Throwable t, String message, Object arg1, Object arg2) {
+            prepareLog(Priority.DEBUG, t, message, arg1, arg2);
+        }
+
+        /** Log a debug exception and a message with three format args. */
+        public void d(Throwable t, String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.DEBUG, t, message, arg1, arg2, arg3);
+        }
+
+        /** Log a debug exception and a message with four format args. */
+        public void d(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            prepareLog(Priority.DEBUG, t, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log a debug message with an {@code int} format arg. */
+        public void d(String message, int arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log a debug message with a {@code long} format arg. */
+        public void d(String message, long arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log a debug message with a {@code float} format arg. */
+        public void d(String message, float arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log a debug message with a {@code double} format arg. */
+        public void d(String message, double arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log a debug message with a {@code boolean} format arg. */
+        public void d(String message, boolean arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log a debug message with a {@code char} format arg. */
+        public void d(String message, char arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log a debug message with a {@code byte} format arg. */
+        public void d(String message, byte arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log a debug message with a {@code short} format arg. */
+        public void d(String message, short arg) {
+            prepareLog(Priority.DEBUG, message, arg);
+        }
+
+        /** Log an info message with optional format args. */
+        public void i(String message, Object... args) {
+            prepareLog(Priority.INFO, null, message, args);
+        }
+
+        /** Log an info exception and a message with optional format args. */
+        public void i(Throwable t, String message, Object... args) {
+            prepareLog(Priority.INFO, t, message, args);
+        }
+
+        /** Log an info exception. */
+        public void i(Throwable t) {
+            prepareLog(Priority.INFO, t, null);
+        }
+
+        /** Log an info message with one format arg. */
+        public void i(String message, Object arg1) {
+            prepareLog(Priority.INFO, null, message, arg1);
+        }
+
+        /** Log an info message with two format args. */
+        public void i(String message, Object arg1, Object arg2) {
+            prepareLog(Priority.INFO, null, message, arg1, arg2);
+        }
+
+        /** Log an info message with three format args. */
+        public void i(String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.INFO, null, message, arg1, arg2, arg3);
+        }
+
+        /** Log an info message with four format args. */
+        public void i(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+            prepareLog(Priority.INFO, null, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log an info exception and a message with one format arg. */
+        public void i(Throwable t, String message, Object arg1) {
+            prepareLog(Priority.INFO, t, message, arg1);
+        }
+
+        /** Log an info exception and a message with two format args. */
+        public void i(Throwable t, String message, Object arg1, Object arg2) {
+            prepareLog(Priority.INFO, t, message, arg1, arg2);
+        }
+
+        /** Log an info exception and a message with three format args. */
+        public void i(Throwable t, String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.INFO, t, message, arg1, arg2, arg3);
+        }
+
+        /** Log an info exception and a message with four format args. */
+        public void i(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            prepareLog(Priority.INFO, t, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log an info message with an {@code int} format arg. */
+        public void i(String message, int arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log an info message with a {@code long} format arg. */
+        public void i(String message, long arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log an info message with a {@code float} format arg. */
+        public void i(String message, float arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log an info message with a {@code double} format arg. */
+        public void i(String message, double arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log an info message with a {@code boolean} format arg. */
+        public void i(String message, boolean arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log an info message with a {@code char} format arg. */
+        public void i(String message, char arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log an info message with a {@code byte} format arg. */
+        public void i(String message, byte arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log an info message with a {@code short} format arg. */
+        public void i(String message, short arg) {
+            prepareLog(Priority.INFO, message, arg);
+        }
+
+        /** Log a warning message with optional format args. */
+        public void w(String message, Object... args) {
+            prepareLog(Priority.WARN, null, message, args);
+        }
+
+        /** Log a warning exception and a message with optional format args. */
+        public void w(Throwable t, String message, Object... args) {
+            prepareLog(Priority.WARN, t, message, args);
+        }
+
+        /** Log a warning exception. */
+        public void w(Throwable t) {
+            prepareLog(Priority.WARN, t, null);
+        }
+
+        /** Log a warning message with one format arg. */
+        public void w(String message, Object arg1) {
+            prepareLog(Priority.WARN, null, message, arg1);
+        }
+
+        /** Log a warning message with two format args. */
+        public void w(String message, Object arg1, Object arg2) {
+            prepareLog(Priority.WARN, null, message, arg1, arg2);
+        }
+
+        /** Log a warning message with three format args. */
+        public void w(String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.WARN, null, message, arg1, arg2, arg3);
+        }
+
+        /** Log a warning message with four format args. */
+        public void w(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+            prepareLog(Priority.WARN, null, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log a warning exception and a message with one format arg. */
+        public void w(Throwable t, String message, Object arg1) {
+            prepareLog(Priority.WARN, t, message, arg1);
+        }
+
+        /** Log a warning exception and a message with two format args. */
+        public void w(Throwable t, String message, Object arg1, Object arg2) {
+            prepareLog(Priority.WARN, t, message, arg1, arg2);
+        }
+
+        /** Log a warning exception and a message with three format args. */
+        public void w(Throwable t, String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.WARN, t, message, arg1, arg2, arg3);
+        }
+
+        /** Log a warning exception and a message with four format args. */
+        public void w(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            prepareLog(Priority.WARN, t, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log a warning message with an {@code int} format arg. */
+        public void w(String message, int arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log a warning message with a {@code long} format arg. */
+        public void w(String message, long arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log a warning message with a {@code float} format arg. */
+        public void w(String message, float arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log a warning message with a {@code double} format arg. */
+        public void w(String message, double arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log a warning message with a {@code boolean} format arg. */
+        public void w(String message, boolean arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log a warning message with a {@code char} format arg. */
+        public void w(String message, char arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log a warning message with a {@code byte} format arg. */
+        public void w(String message, byte arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log a warning message with a {@code short} format arg. */
+        public void w(String message, short arg) {
+            prepareLog(Priority.WARN, message, arg);
+        }
+
+        /** Log an error message with optional format args. */
+        public void e(String message, Object... args) {
+            prepareLog(Priority.ERROR, null, message, args);
+        }
+
+        /** Log an error exception and a message with optional format args. */
+        public void e(Throwable t, String message, Object... args) {
+            prepareLog(Priority.ERROR, t, message, args);
+        }
+
+        /** Log an error exception. */
+        public void e(Throwable t) {
+            prepareLog(Priority.ERROR, t, null);
+        }
+
+        /** Log an error message with one format arg. */
+        public void e(String message, Object arg1) {
+            prepareLog(Priority.ERROR, null, message, arg1);
+        }
+
+        /** Log an error message with two format args. */
+        public void e(String message, Object arg1, Object arg2) {
+            prepareLog(Priority.ERROR, null, message, arg1, arg2);
+        }
+
+        /** Log an error message with three format args. */
+        public void e(String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.ERROR, null, message, arg1, arg2, arg3);
+        }
+
+        /** Log an error message with four format args. */
+        public void e(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+            prepareLog(Priority.ERROR, null, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log an error exception and a message with one format arg. */
+        public void e(Throwable t, String message, Object arg1) {
+            prepareLog(Priority.ERROR, t, message, arg1);
+        }
+
+        /** Log an error exception and a message with two format args. */
+        public void e(Throwable t, String message, Object arg1, Object arg2) {
+            prepareLog(Priority.ERROR, t, message, arg1, arg2);
+        }
+
+        /** Log an error exception and a message with three format args. */
+        public void e(Throwable t, String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.ERROR, t, message, arg1, arg2, arg3);
+        }
+
+        /** Log an error exception and a message with four format args. */
+        public void e(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            prepareLog(Priority.ERROR, t, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log an error message with an {@code int} format arg. */
+        public void e(String message, int arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an error message with a {@code long} format arg. */
+        public void e(String message, long arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an error message with a {@code float} format arg. */
+        public void e(String message, float arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an error message with a {@code double} format arg. */
+        public void e(String message, double arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an error message with a {@code boolean} format arg. */
+        public void e(String message, boolean arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an error message with a {@code char} format arg. */
+        public void e(String message, char arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an error message with a {@code byte} format arg. */
+        public void e(String message, byte arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an error message with a {@code short} format arg. */
+        public void e(String message, short arg) {
+            prepareLog(Priority.ERROR, message, arg);
+        }
+
+        /** Log an assert message with optional format args. */
+        public void wtf(String message, Object... args) {
+            prepareLog(Priority.ASSERT, null, message, args);
+        }
+
+        /** Log an assert exception and a message with optional format args. */
+        public void wtf(Throwable t, String message, Object... args) {
+            prepareLog(Priority.ASSERT, t, message, args);
+        }
+
+        /** Log an assert exception. */
+        public void wtf(Throwable t) {
+            prepareLog(Priority.ASSERT, t, null);
+        }
+
+        /** Log an assert message with one format arg. */
+        public void wtf(String message, Object arg1) {
+            prepareLog(Priority.ASSERT, null, message, arg1);
+        }
+
+        /** Log an assert message with two format args. */
+        public void wtf(String message, Object arg1, Object arg2) {
+            prepareLog(Priority.ASSERT, null, message, arg1, arg2);
+        }
+
+        /** Log an assert message with three format args. */
+        public void wtf(String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.ASSERT, null, message, arg1, arg2, arg3);
+        }
+
+        /** Log an assert message with four format args. */
+        public void wtf(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+            prepareLog(Priority.ASSERT, null, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log an assert exception and a message with one format arg. */
+        public void wtf(Throwable t, String message, Object arg1) {
+            prepareLog(Priority.ASSERT, t, message, arg1);
+        }
+
+        /** Log an assert exception and a message with two format args. */
+        public void wtf(Throwable t, String message, Object arg1, Object arg2) {
+            prepareLog(Priority.ASSERT, t, message, arg1, arg2);
+        }
+
+        /** Log an assert exception and a message with three format args. */
+        public void wtf(Throwable t, String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(Priority.ASSERT, t, message, arg1, arg2, arg3);
+        }
+
+        /** Log an assert exception and a message with four format args. */
+        public void wtf(Throwable t, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            prepareLog(Priority.ASSERT, t, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log an assert message with an {@code int} format arg. */
+        public void wtf(String message, int arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log an assert message with a {@code long} format arg. */
+        public void wtf(String message, long arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log an assert message with a {@code float} format arg. */
+        public void wtf(String message, float arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log an assert message with a {@code double} format arg. */
+        public void wtf(String message, double arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log an assert message with a {@code boolean} format arg. */
+        public void wtf(String message, boolean arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log an assert message with a {@code char} format arg. */
+        public void wtf(String message, char arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log an assert message with a {@code byte} format arg. */
+        public void wtf(String message, byte arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log an assert message with a {@code short} format arg. */
+        public void wtf(String message, short arg) {
+            prepareLog(Priority.ASSERT, message, arg);
+        }
+
+        /** Log at {@code priority} a message with optional format args. */
+        public void log(int priority, String message, Object... args) {
+            prepareLog(priority, null, message, args);
+        }
+
+        /** Log at {@code priority} an exception and a message with optional format args. */
+        public void log(int priority, Throwable t, String message, Object... args) {
+            prepareLog(priority, t, message, args);
+        }
+
+        /** Log at {@code priority} an exception. */
+        public void log(int priority, Throwable t) {
+            prepareLog(priority, t, null);
+        }
+
+        /** Log at {@code priority} a message with one format arg. */
+        public void log(int priority, String message, Object arg1) {
+            prepareLog(priority, null, message, arg1);
+        }
+
+        /** Log at {@code priority} a message with two format args. */
+        public void log(int priority, String message, Object arg1, Object arg2) {
+            prepareLog(priority, null, message, arg1, arg2);
+        }
+
+        /** Log at {@code priority} a message with three format args. */
+        public void log(int priority, String message, Object arg1, Object arg2, Object arg3) {
+            prepareLog(priority, null, message, arg1, arg2, arg3);
+        }
+
+        /** Log at {@code priority} a message with four format args. */
+        public void log(int priority, String message, Object arg1, Object arg2, Object arg3,
+                Object arg4) {
+            prepareLog(priority, null, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log at {@code priority} an exception and a message with one format arg. */
+        public void log(int priority, Throwable t, String message, Object arg1) {
+            prepareLog(priority, t, message, arg1);
+        }
+
+        /** Log at {@code priority} an exception and a message with two format args. */
+        public void log(int priority, Throwable t, String message, Object arg1, Object arg2) {
+            prepareLog(priority, t, message, arg1, arg2);
+        }
+
+        /** Log at {@code priority} an exception and a message with three format args. */
+        public void log(int priority, Throwable t, String message, Object arg1, Object arg2,
+                Object arg3) {
+            prepareLog(priority, t, message, arg1, arg2, arg3);
+        }
+
+        /** Log at {@code priority} an exception and a message with four format args. */
+        public void log(int priority, Throwable t, String message, Object arg1, Object arg2,
+                Object arg3, Object arg4) {
+            prepareLog(priority, t, message, arg1, arg2, arg3, arg4);
+        }
+
+        /** Log at {@code priority} a message with an {@code int} format arg. */
+        public void log(int priority, String message, int arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /** Log at {@code priority} a message with a {@code long} format arg. */
+        public void log(int priority, String message, long arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /** Log at {@code priority} a message with a {@code float} format arg. */
+        public void log(int priority, String message, float arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /** Log at {@code priority} a message with a {@code double} format arg. */
+        public void log(int priority, String message, double arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /** Log at {@code priority} a message with a {@code boolean} format arg. */
+        public void log(int priority, String message, boolean arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /** Log at {@code priority} a message with a {@code char} format arg. */
+        public void log(int priority, String message, char arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /** Log at {@code priority} a message with a {@code byte} format arg. */
+        public void log(int priority, String message, byte arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /** Log at {@code priority} a message with a {@code short} format arg. */
+        public void log(int priority, String message, short arg) {
+            prepareLog(priority, message, arg);
+        }
+
+        /**
+         * Return the lowest priority this tree logs. It is read when the tree is planted, and the
+         * forest never dispatches messages below it to this tree.
+         */
+        protected int minPriority() {
+            return Priority.VERBOSE;
+        }
+
+        /**
+         * Return whether a message at {@code priority} should be logged.
+         * @deprecated use {@link #isLoggable(String, int)} instead.
+         */
+        @Deprecated
+        protected boolean isLoggable(int priority) {
+            return true;
+        }
+
+        /**
+         * Return whether a message at {@code priority} or {@code tag} should be logged. By default
+         * this checks the {@link #setLevels(LogLevels) levels}, if any.
+         */
+        protected boolean isLoggable(String tag, int priority) {
+            LogLevels levels = this.levels;
+            return (levels == null || levels.isLoggable(tag, priority)) && isLoggable(priority);
+        }
+
+        /** Filter messages by the minimum priority for their tag in {@code levels}, or not if null. */
+        public void setLevels(LogLevels levels) {
+            this.levels = levels;
+        }
+
+        // Calls made on a tree directly, rather than through the forest, take the thread's one-shot
+        // tag themselves. Both routes reach dispatch() at the same stack depth.
+        private void prepareLog(int priority, Throwable t, String message, Object... args) {
+            try {
+                dispatch(priority, LogContext.takeTag(), t, message, args);
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        private void prepareLog(int priority, Throwable t, String message, Object arg1) {
+            try {
+                dispatch(priority, LogContext.takeTag(), t, message, arg1);
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        private void prepareLog(int priority, Throwable t, String message, Object arg1,
+                Object arg2) {
+            try {
+                dispatch(priority, LogContext.takeTag(), t, message, arg1, arg2);
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        private void prepareLog(int priority, Throwable t, String message, Object arg1,
+                Object arg2, Object arg3) {
+            try {
+                dispatch(priority, LogContext.takeTag(), t, message, arg1, arg2, arg3);
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        private void prepareLog(int priority, Throwable t, String message, Object arg1,
+                Object arg2, Object arg3, Object arg4) {
+            try {
+                dispatch(priority, LogContext.takeTag(), t, message, arg1, arg2, arg3, arg4);
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        private void prepareLog(int priority, String message, int arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
+        }
+
+        private void prepareLog(int priority, String message, long arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log a debug message with optional format args. */
-        public void d(String message, Object... args) {
-            prepareLog(Priority.DEBUG, null, message, args);
+        private void prepareLog(int priority, String message, float arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log a debug exception and a message with optional format args. */
-        public void d(Throwable t, String message, Object... args) {
-            prepareLog(Priority.DEBUG, t, message, args);
+        private void prepareLog(int priority, String message, double arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log a debug exception. */
-        public void d(Throwable t) {
-            prepareLog(Priority.DEBUG, t, null);
+        private void prepareLog(int priority, String message, boolean arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log an info message with optional format args. */
-        public void i(String message, Object... args) {
-            prepareLog(Priority.INFO, null, message, args);
+        private void prepareLog(int priority, String message, char arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log an info exception and a message with optional format args. */
-        public void i(Throwable t, String message, Object... args) {
-            prepareLog(Priority.INFO, t, message, args);
+        private void prepareLog(int priority, String message, byte arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log an info exception. */
-        public void i(Throwable t) {
-            prepareLog(Priority.INFO, t, null);
+        private void prepareLog(int priority, String message, short arg) {
+            try {
+                dispatch(priority, LogContext.takeTag(), message, arg);
+            } finally {
+                LogContext.endCall();
+            }
         }
 
-        /** Log a warning message with optional format args. */
-        public void w(String message, Object... args) {
-            prepareLog(Priority.WARN, null, message, args);
+        /** Log a call whose one-shot tag, if any, has already been taken from the context. */
+        void dispatch(int priority, String explicitTag, Throwable t, String message,
+                Object[] args) {
+            // Resolve tag even when message is not loggable so that it is consumed consistently.
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, t, message, args);
+            }
         }
 
-        /** Log a warning exception and a message with optional format args. */
-        public void w(Throwable t, String message, Object... args) {
-            prepareLog(Priority.WARN, t, message, args);
+        void dispatch(int priority, String explicitTag, Throwable t, String message, Object arg1) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, t, message, new Object[] { arg1 });
+            }
         }
 
-        /** Log a warning exception. */
-        public void w(Throwable t) {
-            prepareLog(Priority.WARN, t, null);
+        void dispatch(int priority, String explicitTag, Throwable t, String message, Object arg1,
+                Object arg2) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, t, message, new Object[] { arg1, arg2 });
+            }
         }
 
-        /** Log an error message with optional format args. */
-        public void e(String message, Object... args) {
-            prepareLog(Priority.ERROR, null, message, args);
+        void dispatch(int priority, String explicitTag, Throwable t, String message, Object arg1,
+                Object arg2, Object arg3) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, t, message, new Object[] { arg1, arg2, arg3 });
+            }
         }
 
-        /** Log an error exception and a message with optional format args. */
-        public void e(Throwable t, String message, Object... args) {
-            prepareLog(Priority.ERROR, t, message, args);
+        void dispatch(int priority, String explicitTag, Throwable t, String message, Object arg1,
+                Object arg2, Object arg3, Object arg4) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, t, message, new Object[] { arg1, arg2, arg3, arg4 });
+            }
         }
 
-        /** Log an error exception. */
-        public void e(Throwable t) {
-            prepareLog(Priority.ERROR, t, null);
+        void dispatch(int priority, String explicitTag, String message, int arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /** Log an assert message with optional format args. */
-        public void wtf(String message, Object... args) {
-            prepareLog(Priority.ASSERT, null, message, args);
+        void dispatch(int priority, String explicitTag, String message, long arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /** Log an assert exception and a message with optional format args. */
-        public void wtf(Throwable t, String message, Object... args) {
-            prepareLog(Priority.ASSERT, t, message, args);
+        void dispatch(int priority, String explicitTag, String message, float arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /** Log an assert exception. */
-        public void wtf(Throwable t) {
-            prepareLog(Priority.ASSERT, t, null);
+        void dispatch(int priority, String explicitTag, String message, double arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /** Log at {@code priority} a message with optional format args. */
-        public void log(int priority, String message, Object... args) {
-            prepareLog(priority, null, message, args);
+        void dispatch(int priority, String explicitTag, String message, boolean arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /** Log at {@code priority} an exception and a message with optional format args. */
-        public void log(int priority, Throwable t, String message, Object... args) {
-            prepareLog(priority, t, message, args);
+        void dispatch(int priority, String explicitTag, String message, char arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /** Log at {@code priority} an exception. */
-        public void log(int priority, Throwable t) {
-            prepareLog(priority, t, null);
+        void dispatch(int priority, String explicitTag, String message, byte arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /**
-         * Return whether a message at {@code priority} should be logged.
-         * @deprecated use {@link #isLoggable(String, int)} instead.
-         */
-        @Deprecated
-        protected boolean isLoggable(int priority) {
-            return true;
+        void dispatch(int priority, String explicitTag, String message, short arg) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, null, message, new Object[] { arg });
+            }
         }
 
-        /** Return whether a message at {@code priority} or {@code tag} should be logged. */
-        protected boolean isLoggable(String tag, int priority) {
-            return isLoggable(priority);
+        void dispatch(int priority, String explicitTag, Throwable t, String message, Object[] args,
+                LogFields fields) {
+            String tag = getTag(explicitTag);
+            if (isLoggable(tag, priority)) {
+                handle(priority, tag, t, message, args, fields);
+            }
         }
 
-        private void prepareLog(int priority, Throwable t, String message, Object... args) {
-            // Consume tag even when message is not loggable so that next message is correctly tagged.
-            String tag = getTag();
+        /** Format and log an accepted message, timing it if metrics are enabled. */
+        private void handle(int priority, String tag, Throwable t, String message, Object[] args) {
+            LoggerMetrics metrics = Logger.metrics;
+            if (metrics == null) {
+                formatAndLog(priority, tag, t, message, args);
+                return;
+            }
+            LogContext context = LogContext.current();
+            int call = context.call();
+            metrics.accepted(context, call, priority, tag);
+            long start = System.nanoTime();
+            try {
+                formatAndLog(priority, tag, t, message, args);
+            } finally {
+                metrics.logged(this, context, call, System.nanoTime() - start);
+            }
+        }
 
-            if (!isLoggable(tag, priority)) {
+        private void handle(int priority, String tag, Throwable t, String message, Object[] args,
+                LogFields fields) {
+            LoggerMetrics metrics = Logger.metrics;
+            if (metrics == null) {
+                formatAndLog(priority, tag, t, message, args, fields);
                 return;
             }
+            LogContext context = LogContext.current();
+            int call = context.call();
+            metrics.accepted(context, call, priority, tag);
+            long start = System.nanoTime();
+            try {
+                formatAndLog(priority, tag, t, message, args, fields);
+            } finally {
+                metrics.logged(this, context, call, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Format and log a message whose tag has been consumed and found loggable. Trees in this
+         * package override this to record the template and arguments instead of the text.
+         */
+        void formatAndLog(int priority, String tag, Throwable t, String message,
+                Object[] args) {
             if (message != null && message.length() == 0) {
                 message = null;
             }
-            if (message == null) {
-                if (t == null) {
-                    return; // Swallow message if it's null and there's no throwable.
-                }
-                message = getStackTraceString(t);
-            } else {
-                if (args.length > 0) {
-                    message = formatMessage(message, args);
-                }
-                if (t != null) {
-                    message += "\n" + getStackTraceString(t);
+            if (message == null && t == null) {
+                return; // Swallow message if it's null and there's no throwable.
+            }
+            if (receivesEvents) {
+                LogEvent event = LogEvent.obtain(this, priority, tag, t, message, args);
+                try {
+                    log(event);
+                } finally {
+                    event.release();
                 }
+                return;
+            }
+            if (message != null && args.length > 0) {
+                message = format(message, args);
+            }
+            log(priority, tag, appendStackTrace(message, t), t);
+        }
+
+        /** Return {@code message} followed by the stack trace of {@code t}, if any. */
+        private String appendStackTrace(String message, Throwable t) {
+            if (t == null) {
+                return message;
+            }
+            StringBuilder sb = new StringBuilder(message != null ? message.length() + 257 : 256);
+            if (message != null) {
+                sb.append(message).append('\n');
             }
+            LogContext.current().appendStackTrace(stackTraceRenderer, t, sb);
+            return sb.toString();
+        }
 
-            log(priority, tag, message, t);
+        void formatAndLog(int priority, String tag, Throwable t, String message, Object[] args,
+                LogFields fields) {
+            if (message != null && message.length() == 0) {
+                message = null;
+            }
+            if (message == null && t == null) {
+                return; // Swallow message if it's null and there's no throwable.
+            }
+            if (message != null && args.length > 0) {
+                message = format(message, args);
+            }
+            log(priority, tag, message, t, fields);
         }
 
         /**
          * Formats a log message with optional arguments.
          */
         protected String formatMessage(String message, Object[] args) {
-            return String.format(message, args);
+            return MessageFormatter.format(message, args);
+        }
+
+        /**
+         * Format a message for this tree. Trees that keep the default {@link #formatMessage}
+         * share one result per logging call; others format their own.
+         */
+        String format(String message, Object[] args) {
+            return sharesFormatting()
+                    ? LogContext.current().format(message, args)
+                    : formatMessage(message, args);
         }
 
-        private String getStackTraceString(Throwable t) {
-            // Don't replace this with Log.getStackTraceString() - it hides
-            // UnknownHostException, which is not what we want.
-            StringWriter sw = new StringWriter(256);
-            PrintWriter pw = new PrintWriter(sw, false);
-            t.printStackTrace(pw);
-            pw.flush();
-            return sw.toString();
+        /** Return whether this tree formats messages the default way. */
+        boolean sharesFormatting() {
+            return sharesFormatting;
+        }
+
+        /**
+         * Limit the stack traces this tree logs to {@code maxFrames} frames per exception and
+         * {@code maxCauses} causes, summarizing the rest as {@code "... N more"}. By default traces
+         * are complete, as {@link Throwable#printStackTrace()} prints them.
+         */
+        public void setStackTraceLimits(int maxFrames, int maxCauses) {
+            stackTraceRenderer = new StackTraceRenderer(maxFrames, maxCauses);
         }
 
         /**
@@ -595,14 +4368,97 @@ public final class Logger {
          * @param t Accompanying exceptions. May be {@code null}, but then {@code message} will not be.
          */
         protected abstract void log(int priority, String tag, String message, Throwable t);
+
+        /**
+         * Write a log message as an event, before it is formatted. Override this to format
+         * lazily, or not at all: {@link LogEvent#message()} formats on first call, and the event
+         * can be {@linkplain LogEvent#retain() kept} to format on another thread. Events come from
+         * a pool, so logging through this method creates no garbage of its own. By default the
+         * event is formatted with its stack trace and passed to
+         * {@link #log(int, String, String, Throwable)}.
+         */
+        protected void log(LogEvent event) {
+            Throwable t = event.throwable();
+            log(event.priority(), event.tag(), appendStackTrace(event.message(), t), t);
+        }
+
+        /** Return whether {@code type} overrides the named method of {@link Tree}. */
+        private static boolean overrides(Class<?> type, String name, Class<?>... parameterTypes) {
+            for (Class<?> c = type; c != Tree.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod(name, parameterTypes);
+                    return true;
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Write a log message with the fields from a {@link LogBuilder}. Override this to keep the
+         * fields structured; by default they are appended to the message as {@code key=value}
+         * pairs, followed by the stack trace, and passed to
+         * {@link #log(int, String, String, Throwable)}.
+         *
+         * @param priority Log level. See {@link Log} for constants.
+         * @param tag Explicit or inferred tag. May be {@code null}.
+         * @param message Formatted log message, without the stack trace of {@code t}. May be
+         * {@code null}, but then {@code t} will not be.
+         * @param t Accompanying exceptions. May be {@code null}, but then {@code message} will not be.
+         * @param fields Fields in the order they were added. Only valid during this call.
+         */
+        protected void log(int priority, String tag, String message, Throwable t,
+                LogFields fields) {
+            StringBuilder sb = new StringBuilder();
+            if (message != null) {
+                sb.append(message);
+            }
+            for (int i = 0, count = fields.size(); i < count; i++) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(fields.keyAt(i)).append('=');
+                fields.appendValueAt(i, sb);
+            }
+            if (t != null) {
+                if (sb.length() > 0) {
+                    sb.append('\n');
+                }
+                LogContext.current().appendStackTrace(stackTraceRenderer, t, sb);
+            }
+            log(priority, tag, sb.toString(), t);
+        }
     }
 
     /** A {@link Tree Tree} for debug builds. Automatically infers the tag from the calling class. */
     public static class DebugTree extends Tree {
-        private static final int MAX_LOG_LENGTH = 4000;
+        private static final int DEFAULT_MAX_LOG_LENGTH = 4000;
+        /** Chunks are written to the console this many characters at a time. */
+        private static final int PRINT_SLICE_LENGTH = 8192;
         private static final int MAX_TAG_LENGTH = 23;
         private static final int CALL_STACK_INDEX = 5;
         private static final Pattern ANONYMOUS_CLASS = Pattern.compile("(\\$\\d+)+$");
+        /** Tags created by the default {@link #createStackElementTag}, keyed by class name. */
+        private static final ConcurrentMap<String, String> CLASS_TAGS = new ConcurrentHashMap<>();
+
+        // An overridden createStackElementTag may use more of the element than its class name.
+        private final boolean cacheTags =
+                !overrides(getClass(), "createStackElementTag", StackTraceElement.class);
+        // Subclasses that print strings get each chunk as one.
+        private final boolean printsStrings = overrides(getClass(), "print", int.class,
+                String.class, String.class, Throwable.class);
+        private volatile int maxLogLength = DEFAULT_MAX_LOG_LENGTH;
+
+        /**
+         * Split messages of {@code maxLogLength} characters or more into chunks of at most that
+         * many, at newlines where possible. The default is 4000.
+         */
+        public void setMaxLogLength(int maxLogLength) {
+            if (maxLogLength < 1) {
+                throw new IllegalArgumentException("maxLogLength < 1: " + maxLogLength);
+            }
+            this.maxLogLength = maxLogLength;
+        }
 
         /**
          * Extract the tag which should be used for the message from the {@code element}. By default
@@ -612,7 +4468,11 @@ public final class Logger {
          * Note: This will not be called if a {@linkplain #tag(String) manual tag} was specified.
          */
         protected String createStackElementTag(StackTraceElement element) {
-            String tag = element.getClassName();
+            return createClassTag(element.getClassName());
+        }
+
+        private static String createClassTag(String className) {
+            String tag = className;
             Matcher m = ANONYMOUS_CLASS.matcher(tag);
             if (m.find()) {
                 tag = m.replaceAll("");
@@ -621,32 +4481,71 @@ public final class Logger {
             return tag.length() > MAX_TAG_LENGTH ? tag.substring(0, MAX_TAG_LENGTH) : tag;
         }
 
-        @Override final String getTag() {
-            String tag = super.getTag();
-            if (tag != null) {
+        /** Return whether {@code type} overrides the named method of {@link DebugTree}. */
+        private static boolean overrides(Class<?> type, String name, Class<?>... parameterTypes) {
+            for (Class<?> c = type; c != DebugTree.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod(name, parameterTypes);
+                    return true;
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return false;
+        }
+
+        @Override final String getTag(String explicitTag) {
+            if (explicitTag != null) {
+                return explicitTag;
+            }
+            return inferTag();
+        }
+
+        @Override final DebugTree tagInferrer() {
+            return this;
+        }
+
+        /**
+         * Create a tag from the logging call site. Must be called directly from a
+         * {@code getTag(String)} override so that the caller sits at {@link #CALL_STACK_INDEX}.
+         */
+        final String inferTag() {
+            if (cacheTags) {
+                String className = StackFrames.className(CALL_STACK_INDEX);
+                if (className == null) {
+                    throw shallowStackTrace();
+                }
+                String tag = CLASS_TAGS.get(className);
+                if (tag == null) {
+                    tag = createClassTag(className);
+                    CLASS_TAGS.putIfAbsent(className, tag);
+                }
                 return tag;
             }
 
-            // DO NOT switch this to Thread.getCurrentThread().getStackTrace(). The test will pass
-            // because Robolectric runs them on the JVM but on Android the elements are different.
-            StackTraceElement[] stackTrace = new Throwable().getStackTrace();
-            if (stackTrace.length <= CALL_STACK_INDEX) {
-                throw new IllegalStateException(
-                        "Synthetic stacktrace didn't have enough elements: are you using proguard?");
+            StackTraceElement element = StackFrames.element(CALL_STACK_INDEX);
+            if (element == null) {
+                throw shallowStackTrace();
             }
-            return createStackElementTag(stackTrace[CALL_STACK_INDEX]);
+            return createStackElementTag(element);
+        }
+
+        private static IllegalStateException shallowStackTrace() {
+            return new IllegalStateException(
+                    "Synthetic stacktrace didn't have enough elements: are you using proguard?");
         }
 
         /**
-         * Break up {@code message} into maximum-length chunks (if needed) and send to either
-         * {@link System#out#println(String) or
-         * {@link System#err#println(String) for logging.
+         * Break up {@code message} into chunks of the {@linkplain #setMaxLogLength(int) maximum
+         * length}, if needed, and
+         * {@linkplain #print(int, String, CharSequence, int, int, Throwable) print} each as a range
+         * of the message, without copying it.
          *
          * {@inheritDoc}
          */
         @Override protected void log(int priority, String tag, String message, Throwable t) {
-            if (message.length() < MAX_LOG_LENGTH) {
-                print(priority, tag, message, t);
+            int maxLength = maxLogLength;
+            if (message.length() < maxLength) {
+                print(priority, tag, message, 0, message.length(), t);
                 return;
             }
 
@@ -655,14 +4554,47 @@ public final class Logger {
                 int newline = message.indexOf('\n', i);
                 newline = newline != -1 ? newline : length;
                 do {
-                    int end = Math.min(newline, i + MAX_LOG_LENGTH);
-                    String part = message.substring(i, end);
-                    print(priority, tag, part, t);
+                    int end = Math.min(newline, i + maxLength);
+                    print(priority, tag, message, i, end, t);
                     i = end;
                 } while (i < newline);
             }
         }
 
+        /**
+         * Print the characters of {@code message} from {@code start} to {@code end} as one line.
+         * If a subclass overrides {@link #print(int, String, String, Throwable)}, the range is
+         * passed to it as a string. Otherwise it is written to {@link System#err} above
+         * {@link Priority#WARN WARN} and to {@link System#out} below, a slice at a time, so that
+         * even a huge range is not copied whole.
+         */
+        protected void print(int priority, String tag, CharSequence message, int start, int end,
+                Throwable throwable) {
+            if (printsStrings || end - start <= PRINT_SLICE_LENGTH) {
+                String line = start == 0 && end == message.length()
+                        ? message.toString()
+                        : message.subSequence(start, end).toString();
+                print(priority, tag, line, throwable);
+                return;
+            }
+            PrintStream out = priority > Priority.WARN ? System.err : System.out;
+            synchronized (out) {
+                out.print('[');
+                out.print(Priority.name(priority));
+                out.print('|');
+                out.print(tag);
+                out.print("] ");
+                for (int i = start; i < end; i += PRINT_SLICE_LENGTH) {
+                    out.append(message, i, Math.min(end, i + PRINT_SLICE_LENGTH));
+                }
+                out.println();
+            }
+        }
+
+        /**
+         * Print one chunk of a message to {@link System#err} above {@link Priority#WARN WARN} and
+         * to {@link System#out} below.
+         */
         protected void print(int priority, String tag, String message, Throwable throwable) {
             if (priority > Priority.WARN) {
                 System.err.println(format(priority, tag, message));
@@ -671,8 +4603,316 @@ public final class Logger {
             }
         }
 
-        private static String format(int priority, String tag, String message) {
+        static String format(int priority, String tag, String message) {
             return "[" + Priority.name(priority) + "|" + tag + "] " + message;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A {@link Tree Tree} that hands log events to a background thread which forwards them to
+     * {@code delegate}. Events are queued in a bounded, preallocated ring buffer so that logging
+     * threads never wait on the delegate's I/O.
+     * <p>
+     * Tags and {@link Tree#isLoggable(String, int) filtering} are resolved on the logging thread;
+     * when the delegate is a {@link DebugTree} the tag is inferred from the logging call site. The
+     * delegate sees the logging thread's {@link LogContext} pairs as its own.
+     */
+    public static class AsyncTree extends Tree {
+        /** How the background thread waits for new events when the buffer is empty. */
+        public enum WaitStrategy {
+            /** Spin on the buffer. Lowest latency, burns a core. */
+            BUSY_SPIN,
+            /** Spin, yielding the processor between polls. */
+            YIELDING,
+            /** Park for a short interval between polls. */
+            SLEEPING,
+            /** Block until a logging thread signals a new event. */
+            BLOCKING
+        }
+
+        /** What a logging thread does when the buffer is full. */
+        public enum OverflowPolicy {
+            /** Wait for the background thread to free a slot. */
+            BLOCK,
+            /** Discard the event being logged. */
+            DROP_NEWEST,
+            /** Discard the oldest queued event to make room. */
+            DROP_OLDEST
+        }
+
+        private static final int DEFAULT_CAPACITY = 1024;
+        private static final long PARK_NANOS = 100000L;
+
+        private final Tree delegate;
+        private final WaitStrategy waitStrategy;
+        private final OverflowPolicy overflowPolicy;
+        private final Event[] events;
+        // Slot i is free for the producer claiming position p when sequences[i] == p, and holds a
+        // published event for the consumer at position p when sequences[i] == p + 1.
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Thread consumer;
+        private volatile boolean consumerWaiting;
+        private volatile boolean running = true;
+
+        public AsyncTree(Tree delegate) {
+            this(delegate, DEFAULT_CAPACITY, WaitStrategy.BLOCKING, OverflowPolicy.BLOCK);
+        }
+
+        /**
+         * @param capacity Number of buffered events. Rounded up to a power of two.
+         */
+        public AsyncTree(Tree delegate, int capacity, WaitStrategy waitStrategy,
+                OverflowPolicy overflowPolicy) {
+            if (delegate == null) {
+                throw new NullPointerException("delegate == null");
+            }
+            if (waitStrategy == null) {
+                throw new NullPointerException("waitStrategy == null");
+            }
+            if (overflowPolicy == null) {
+                throw new NullPointerException("overflowPolicy == null");
+            }
+            if (capacity < 1 || capacity > 1 << 30) {
+                throw new IllegalArgumentException("capacity out of range: " + capacity);
+            }
+            int size = Integer.highestOneBit(capacity);
+            if (size < capacity) {
+                size <<= 1;
+            }
+            this.delegate = delegate;
+            this.waitStrategy = waitStrategy;
+            this.overflowPolicy = overflowPolicy;
+            this.events = new Event[size];
+            this.sequences = new AtomicLongArray(size);
+            this.mask = size - 1;
+            for (int i = 0; i < size; i++) {
+                events[i] = new Event();
+                sequences.set(i, i);
+            }
+            consumer = new Thread(new Runnable() {
+                @Override public void run() {
+                    drain();
+                }
+            }, "AsyncTree-" + delegate.getClass().getSimpleName());
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+
+        /** Number of events discarded because the buffer was full or the tree was shut down. */
+        public long droppedCount() {
+            return dropped.get();
+        }
+
+        /**
+         * Stop accepting events, deliver everything already queued and wait for the background
+         * thread to finish.
+         */
+        public void shutdown() throws InterruptedException {
+            running = false;
+            signalConsumer();
+            consumer.join();
+            // Catch events published by threads that raced with shutdown.
+            LogContext context = LogContext.current();
+            LogContext.Snapshot saved = context.snapshot();
+            while (consume(true)) {
+                // Delivered on this thread.
+            }
+            context.restore(saved);
+        }
+
+        @Override String getTag(String explicitTag) {
+            DebugTree inferrer = delegate.tagInferrer();
+            if (explicitTag == null && inferrer != null) {
+                return inferrer.inferTag();
+            }
+            return explicitTag;
+        }
+
+        @Override DebugTree tagInferrer() {
+            return delegate.tagInferrer();
+        }
+
+        @Override protected boolean isLoggable(String tag, int priority) {
+            return delegate.isLoggable(tag, priority);
+        }
+
+        @Override protected int minPriority() {
+            return delegate.minPriority();
+        }
+
+        @Override protected String formatMessage(String message, Object[] args) {
+            return delegate.formatMessage(message, args);
+        }
+
+        @Override boolean sharesFormatting() {
+            return delegate.sharesFormatting();
+        }
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            if (!running) {
+                drop();
+                return;
+            }
+            while (!offer(priority, tag, message, t)) {
+                if (!running || overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    drop();
+                    return;
+                }
+                if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    if (consume(false)) {
+                        drop();
+                    }
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+            if (consumerWaiting) {
+                signalConsumer();
+            }
+        }
+
+        private void drop() {
+            dropped.incrementAndGet();
+            LoggerMetrics.dropped(this);
+        }
+
+        private boolean offer(int priority, String tag, String message, Throwable t) {
+            LogContext.Snapshot context = LogContext.current().snapshot();
+            while (true) {
+                long position = tail.get();
+                int index = (int) (position & mask);
+                long sequence = sequences.get(index);
+                if (sequence == position) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        Event event = events[index];
+                        event.priority = priority;
+                        event.tag = tag;
+                        event.message = message;
+                        event.t = t;
+                        event.context = context;
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                } else if (sequence < position) {
+                    return false; // Full: the slot still holds the event from the previous lap.
+                }
+            }
+        }
+
+        /**
+         * Remove the oldest event, forwarding it to the delegate if {@code deliver} is set.
+         * Return false if the buffer was empty.
+         */
+        private boolean consume(boolean deliver) {
+            while (true) {
+                long position = head.get();
+                int index = (int) (position & mask);
+                long sequence = sequences.get(index);
+                if (sequence == position + 1) {
+                    if (head.compareAndSet(position, position + 1)) {
+                        Event event = events[index];
+                        int priority = event.priority;
+                        String tag = event.tag;
+                        String message = event.message;
+                        Throwable t = event.t;
+                        LogContext.Snapshot context = event.context;
+                        event.clear();
+                        sequences.set(index, position + events.length);
+                        if (deliver) {
+                            deliver(priority, tag, message, t, context);
+                        }
+                        return true;
+                    }
+                } else if (sequence < position + 1) {
+                    return false;
+                }
+            }
+        }
+
+        private void deliver(int priority, String tag, String message, Throwable t,
+                LogContext.Snapshot context) {
+            // Let the delegate read the logging thread's context as its own.
+            LogContext.current().restore(context);
+            try {
+                delegate.log(priority, tag, message, t);
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                if (consume(true)) {
+                    continue;
+                }
+                if (!running) {
+                    return;
+                }
+                switch (waitStrategy) {
+                    case BUSY_SPIN:
+                        break;
+                    case YIELDING:
+                        Thread.yield();
+                        break;
+                    case SLEEPING:
+                        LockSupport.parkNanos(PARK_NANOS);
+                        break;
+                    case BLOCKING:
+                        awaitEvent();
+                        break;
+                }
+            }
+        }
+
+        private void awaitEvent() {
+            lock.lock();
+            try {
+                consumerWaiting = true;
+                // Both sides publish with volatile writes before reading the other's flag, so a
+                // producer either sees consumerWaiting or the consumer sees its event here.
+                while (running && isEmpty()) {
+                    notEmpty.awaitUninterruptibly();
+                }
+            } finally {
+                consumerWaiting = false;
+                lock.unlock();
+            }
+        }
+
+        private boolean isEmpty() {
+            long position = head.get();
+            return sequences.get((int) (position & mask)) != position + 1;
+        }
+
+        private void signalConsumer() {
+            lock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static final class Event {
+            int priority;
+            String tag;
+            String message;
+            Throwable t;
+            LogContext.Snapshot context;
+
+            void clear() {
+                tag = null;
+                message = null;
+                t = null;
+                context = null;
+            }
+        }
+    }
+}
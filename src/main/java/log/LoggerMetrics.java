@@ -0,0 +1,315 @@
+package log;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts of what the forest logs, collected while {@link Logger#enableMetrics() enabled}.
+ * <p>
+ * Every message a planted tree accepts is counted by priority, tag and tree, and the time the tree
+ * takes to format and log it is added to that tree's latency histogram. Trees in this package also
+ * report the bytes they write and the messages they drop or suppress. Counters are striped by
+ * thread, so logging threads do not contend on them.
+ * <p>
+ * Trees are referenced weakly: once a tree is uprooted and otherwise unreachable, it and its
+ * counts are dropped.
+ */
+public final class LoggerMetrics implements LoggerMetricsMXBean {
+    static final String OBJECT_NAME = "log:type=Logger";
+
+    /** Tags beyond this many are counted together as {@link #OTHER_TAGS}. */
+    private static final int MAX_TAGS = 1024;
+    private static final String OTHER_TAGS = "(other)";
+    private static final String NO_TAG = "(none)";
+    private static final int PRIORITIES = Logger.Priority.ASSERT + 1;
+
+    /** Counts by priority, with one more slot for priorities outside VERBOSE..ASSERT. */
+    private final StripedCounter[] priorities = new StripedCounter[PRIORITIES + 1];
+    private final ConcurrentMap<String, StripedCounter> tags = new ConcurrentHashMap<>();
+    private final Set<TreeMetrics> trees =
+            Collections.newSetFromMap(new ConcurrentHashMap<TreeMetrics, Boolean>());
+    private final ReferenceQueue<Logger.Tree> collected = new ReferenceQueue<>();
+    /** Replaced on {@link #reset()}, orphaning the counters that trees still point to. */
+    private volatile Object generation = new Object();
+
+    LoggerMetrics() {
+        for (int i = 0; i < priorities.length; i++) {
+            priorities[i] = new StripedCounter();
+        }
+    }
+
+    /**
+     * Record that a tree accepted the message of logging call {@code call}, counting it by
+     * priority and tag unless an earlier tree in the same call did.
+     */
+    void accepted(LogContext context, int call, int priority, String tag) {
+        if (context.countedCall != call) {
+            priorities[priority >= 0 && priority < PRIORITIES ? priority : PRIORITIES].increment();
+            tag(tag).increment();
+        }
+    }
+
+    /**
+     * Record that {@code tree} took {@code nanos} to format and log the message of logging call
+     * {@code call}.
+     */
+    void logged(Logger.Tree tree, LogContext context, int call, long nanos) {
+        // Set afterwards, since logging calls made while formatting count themselves meanwhile.
+        context.countedCall = call;
+        TreeMetrics metrics = tree(tree);
+        metrics.events.increment();
+        metrics.latency.record(nanos);
+    }
+
+    /** Record that {@code tree} wrote {@code bytes}, if metrics are enabled. */
+    static void wrote(Logger.Tree tree, long bytes) {
+        LoggerMetrics metrics = Logger.metrics;
+        if (metrics != null) {
+            metrics.tree(tree).bytes.add(bytes);
+        }
+    }
+
+    /** Record that {@code tree} lost a message, if metrics are enabled. */
+    static void dropped(Logger.Tree tree) {
+        dropped(tree, 1);
+    }
+
+    /** Record that {@code tree} lost {@code count} messages, if metrics are enabled. */
+    static void dropped(Logger.Tree tree, long count) {
+        LoggerMetrics metrics = Logger.metrics;
+        if (metrics != null) {
+            metrics.tree(tree).dropped.add(count);
+        }
+    }
+
+    /** Record that {@code tree} withheld a message, if metrics are enabled. */
+    static void suppressed(Logger.Tree tree) {
+        LoggerMetrics metrics = Logger.metrics;
+        if (metrics != null) {
+            metrics.tree(tree).suppressed.increment();
+        }
+    }
+
+    @Override public Map<String, Long> getCountsByPriority() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (int priority = 0; priority < priorities.length; priority++) {
+            long count = priorities[priority].sum();
+            if (count > 0) {
+                String name = priority < PRIORITIES ? Logger.Priority.name(priority) : "";
+                counts.put(name.length() > 0 ? name : "OTHER", count);
+            }
+        }
+        return counts;
+    }
+
+    @Override public Map<String, Long> getCountsByTag() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, StripedCounter> entry : tags.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    @Override public Map<String, Long> getEventsByTree() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (TreeMetrics metrics : trees) {
+            add(counts, metrics, metrics.events);
+        }
+        return counts;
+    }
+
+    @Override public Map<String, Long> getBytesWrittenByTree() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (TreeMetrics metrics : trees) {
+            add(counts, metrics, metrics.bytes);
+        }
+        return counts;
+    }
+
+    @Override public Map<String, Long> getDroppedByTree() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (TreeMetrics metrics : trees) {
+            add(counts, metrics, metrics.dropped);
+        }
+        return counts;
+    }
+
+    @Override public Map<String, Long> getSuppressedByTree() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (TreeMetrics metrics : trees) {
+            add(counts, metrics, metrics.suppressed);
+        }
+        return counts;
+    }
+
+    @Override public Map<String, long[]> getLatencyHistogramsByTree() {
+        Map<String, long[]> histograms = new TreeMap<>();
+        for (TreeMetrics metrics : trees) {
+            Logger.Tree tree = metrics.get();
+            long[] histogram = metrics.latency.snapshot();
+            if (tree != null && histogram.length > 0) {
+                histograms.put(tree.toString(), histogram);
+            }
+        }
+        return histograms;
+    }
+
+    @Override public Map<String, Long> getLatency99thPercentileNanosByTree() {
+        Map<String, Long> percentiles = new TreeMap<>();
+        for (TreeMetrics metrics : trees) {
+            Logger.Tree tree = metrics.get();
+            if (tree == null) {
+                continue;
+            }
+            long[] histogram = metrics.latency.snapshot();
+            long total = 0;
+            for (long count : histogram) {
+                total += count;
+            }
+            long seen = 0;
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                seen += histogram[bucket];
+                if (seen * 100 >= total * 99) {
+                    percentiles.put(tree.toString(), 1L << bucket);
+                    break;
+                }
+            }
+        }
+        return percentiles;
+    }
+
+    @Override public void reset() {
+        for (StripedCounter counter : priorities) {
+            counter.reset();
+        }
+        tags.clear();
+        synchronized (this) {
+            generation = new Object();
+            trees.clear();
+        }
+    }
+
+    void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    private StripedCounter tag(String tag) {
+        String key = tag != null ? tag : NO_TAG;
+        StripedCounter counter = tags.get(key);
+        if (counter == null) {
+            if (tags.size() >= MAX_TAGS) {
+                key = OTHER_TAGS;
+                counter = tags.get(key);
+            }
+            if (counter == null) {
+                StripedCounter created = new StripedCounter();
+                counter = tags.putIfAbsent(key, created);
+                if (counter == null) {
+                    counter = created;
+                }
+            }
+        }
+        return counter;
+    }
+
+    /** Return the counters of {@code tree}, which the tree keeps so lookups need no map. */
+    private TreeMetrics tree(Logger.Tree tree) {
+        TreeMetrics metrics = tree.treeMetrics;
+        if (metrics != null && metrics.generation == generation) {
+            return metrics;
+        }
+        synchronized (this) {
+            metrics = tree.treeMetrics;
+            if (metrics == null || metrics.generation != generation) {
+                for (Object gone; (gone = collected.poll()) != null; ) {
+                    trees.remove(gone);
+                }
+                metrics = new TreeMetrics(tree, collected, generation);
+                trees.add(metrics);
+                tree.treeMetrics = metrics;
+            }
+            return metrics;
+        }
+    }
+
+    /** Add {@code counter} to the count of trees named like the one {@code metrics} are for. */
+    private static void add(Map<String, Long> counts, TreeMetrics metrics,
+            StripedCounter counter) {
+        Logger.Tree tree = metrics.get();
+        if (tree == null) {
+            return;
+        }
+        String name = tree.toString();
+        Long count = counts.get(name);
+        counts.put(name, (count != null ? count : 0) + counter.sum());
+    }
+
+    /** The counters of one tree, referenced weakly so that metrics do not keep it alive. */
+    static final class TreeMetrics extends WeakReference<Logger.Tree> {
+        final Object generation;
+        final StripedCounter events = new StripedCounter();
+        final StripedCounter bytes = new StripedCounter();
+        final StripedCounter dropped = new StripedCounter();
+        final StripedCounter suppressed = new StripedCounter();
+        final Histogram latency = new Histogram();
+
+        TreeMetrics(Logger.Tree tree, ReferenceQueue<Logger.Tree> queue, Object generation) {
+            super(tree, queue);
+            this.generation = generation;
+        }
+    }
+
+    /** Counts of durations in power-of-two buckets of nanoseconds, striped by thread. */
+    private static final class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray counts =
+                new AtomicLongArray(StripedCounter.STRIPES * BUCKETS);
+
+        void record(long nanos) {
+            int bucket = Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(nanos));
+            counts.getAndIncrement(StripedCounter.stripe() * BUCKETS + bucket);
+        }
+
+        /** Return the counts summed over stripes, without trailing empty buckets. */
+        long[] snapshot() {
+            long[] histogram = new long[BUCKETS];
+            int length = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                for (int stripe = 0; stripe < StripedCounter.STRIPES; stripe++) {
+                    histogram[bucket] += counts.get(stripe * BUCKETS + bucket);
+                }
+                if (histogram[bucket] > 0) {
+                    length = bucket + 1;
+                }
+            }
+            return Arrays.copyOf(histogram, length);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package log;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link LoggerMetrics}, registered as {@code log:type=Logger} by
+ * {@link Logger#enableMetrics()}. Trees are named by their {@code toString()}.
+ */
+public interface LoggerMetricsMXBean {
+    /** Messages accepted by any tree, by priority name. */
+    Map<String, Long> getCountsByPriority();
+
+    /** Messages accepted by any tree, by tag. */
+    Map<String, Long> getCountsByTag();
+
+    /** Messages accepted, by planted tree. */
+    Map<String, Long> getEventsByTree();
+
+    /** Bytes written to files and streams, by tree. */
+    Map<String, Long> getBytesWrittenByTree();
+
+    /** Messages lost because a tree was full or closed, by tree. */
+    Map<String, Long> getDroppedByTree();
+
+    /** Messages a tree withheld on purpose, such as by rate limiting, by tree. */
+    Map<String, Long> getSuppressedByTree();
+
+    /**
+     * The time each planted tree takes to format and log a message. Element {@code i} counts
+     * messages taking less than 2<sup>i</sup> and at least 2<sup>i-1</sup> nanoseconds.
+     */
+    Map<String, long[]> getLatencyHistogramsByTree();
+
+    /** The 99th percentile of {@link #getLatencyHistogramsByTree()}, rounded up to a bucket. */
+    Map<String, Long> getLatency99thPercentileNanosByTree();
+
+    /** Reset every count to zero. */
+    void reset();
+}
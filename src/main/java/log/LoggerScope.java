@@ -0,0 +1,808 @@
+package log;
+
+import org.jetbrains.annotations.NonNls;
+
+import java.util.List;
+
+/**
+ * A logger with a forest of its own, for components that should not share trees or dispatch with
+ * the rest of the program. It has the same methods as the static {@link Logger} API, which remains
+ * the default scope. Keep scopes in {@code static final} fields:
+ * <pre>{@code
+ * static final LoggerScope NET = new LoggerScope();
+ * ...
+ * NET.plant(new RollingFileTree(file, 10_000_000, 5));
+ * NET.d("Connected to %s", host);
+ * }</pre>
+ * Trees are kept in copy-on-write arrays like the default scope's, so planting is expensive and
+ * logging takes no lock. A scope that inherits from the default one also logs to the trees
+ * planted there, including ones planted later; a tree planted in both receives messages twice.
+ */
+public final class LoggerScope {
+    private final Logger.Forest forest;
+
+    /** Create a scope that logs only to the trees planted in it. */
+    public LoggerScope() {
+        this(false);
+    }
+
+    /**
+     * @param inheritDefault Whether to also log to the trees planted through the static
+     * {@link Logger} methods.
+     */
+    public LoggerScope(boolean inheritDefault) {
+        this.forest = new Logger.Forest(inheritDefault ? Logger.TREE_OF_SOULS : null);
+    }
+
+    /** Log a verbose message with optional format args. */
+    public void v(@NonNls String message, Object... args) {
+        forest.v(message, args);
+    }
+
+    /** Log a verbose exception and a message with optional format args. */
+    public void v(Throwable t, @NonNls String message, Object... args) {
+        forest.v(t, message, args);
+    }
+
+    /** Log a verbose exception. */
+    public void v(Throwable t) {
+        forest.v(t);
+    }
+
+    /** Log a verbose message with one format arg. */
+    public void v(@NonNls String message, Object arg1) {
+        forest.v(message, arg1);
+    }
+
+    /** Log a verbose message with two format args. */
+    public void v(@NonNls String message, Object arg1, Object arg2) {
+        forest.v(message, arg1, arg2);
+    }
+
+    /** Log a verbose message with three format args. */
+    public void v(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        forest.v(message, arg1, arg2, arg3);
+    }
+
+    /** Log a verbose message with four format args. */
+    public void v(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        forest.v(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a verbose exception and a message with one format arg. */
+    public void v(Throwable t, @NonNls String message, Object arg1) {
+        forest.v(t, message, arg1);
+    }
+
+    /** Log a verbose exception and a message with two format args. */
+    public void v(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        forest.v(t, message, arg1, arg2);
+    }
+
+    /** Log a verbose exception and a message with three format args. */
+    public void v(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        forest.v(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log a verbose exception and a message with four format args. */
+    public void v(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        forest.v(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a verbose message with an {@code int} format arg. */
+    public void v(@NonNls String message, int arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code long} format arg. */
+    public void v(@NonNls String message, long arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code float} format arg. */
+    public void v(@NonNls String message, float arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code double} format arg. */
+    public void v(@NonNls String message, double arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code boolean} format arg. */
+    public void v(@NonNls String message, boolean arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code char} format arg. */
+    public void v(@NonNls String message, char arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code byte} format arg. */
+    public void v(@NonNls String message, byte arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a verbose message with a {@code short} format arg. */
+    public void v(@NonNls String message, short arg) {
+        forest.v(message, arg);
+    }
+
+    /** Log a debug message with optional format args. */
+    public void d(@NonNls String message, Object... args) {
+        forest.d(message, args);
+    }
+
+    /** Log a debug exception and a message with optional format args. */
+    public void d(Throwable t, @NonNls String message, Object... args) {
+        forest.d(t, message, args);
+    }
+
+    /** Log a debug exception. */
+    public void d(Throwable t) {
+        forest.d(t);
+    }
+
+    /** Log a debug message with one format arg. */
+    public void d(@NonNls String message, Object arg1) {
+        forest.d(message, arg1);
+    }
+
+    /** Log a debug message with two format args. */
+    public void d(@NonNls String message, Object arg1, Object arg2) {
+        forest.d(message, arg1, arg2);
+    }
+
+    /** Log a debug message with three format args. */
+    public void d(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        forest.d(message, arg1, arg2, arg3);
+    }
+
+    /** Log a debug message with four format args. */
+    public void d(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        forest.d(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a debug exception and a message with one format arg. */
+    public void d(Throwable t, @NonNls String message, Object arg1) {
+        forest.d(t, message, arg1);
+    }
+
+    /** Log a debug exception and a message with two format args. */
+    public void d(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        forest.d(t, message, arg1, arg2);
+    }
+
+    /** Log a debug exception and a message with three format args. */
+    public void d(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        forest.d(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log a debug exception and a message with four format args. */
+    public void d(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        forest.d(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a debug message with an {@code int} format arg. */
+    public void d(@NonNls String message, int arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code long} format arg. */
+    public void d(@NonNls String message, long arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code float} format arg. */
+    public void d(@NonNls String message, float arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code double} format arg. */
+    public void d(@NonNls String message, double arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code boolean} format arg. */
+    public void d(@NonNls String message, boolean arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code char} format arg. */
+    public void d(@NonNls String message, char arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code byte} format arg. */
+    public void d(@NonNls String message, byte arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log a debug message with a {@code short} format arg. */
+    public void d(@NonNls String message, short arg) {
+        forest.d(message, arg);
+    }
+
+    /** Log an info message with optional format args. */
+    public void i(@NonNls String message, Object... args) {
+        forest.i(message, args);
+    }
+
+    /** Log an info exception and a message with optional format args. */
+    public void i(Throwable t, @NonNls String message, Object... args) {
+        forest.i(t, message, args);
+    }
+
+    /** Log an info exception. */
+    public void i(Throwable t) {
+        forest.i(t);
+    }
+
+    /** Log an info message with one format arg. */
+    public void i(@NonNls String message, Object arg1) {
+        forest.i(message, arg1);
+    }
+
+    /** Log an info message with two format args. */
+    public void i(@NonNls String message, Object arg1, Object arg2) {
+        forest.i(message, arg1, arg2);
+    }
+
+    /** Log an info message with three format args. */
+    public void i(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        forest.i(message, arg1, arg2, arg3);
+    }
+
+    /** Log an info message with four format args. */
+    public void i(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        forest.i(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an info exception and a message with one format arg. */
+    public void i(Throwable t, @NonNls String message, Object arg1) {
+        forest.i(t, message, arg1);
+    }
+
+    /** Log an info exception and a message with two format args. */
+    public void i(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        forest.i(t, message, arg1, arg2);
+    }
+
+    /** Log an info exception and a message with three format args. */
+    public void i(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        forest.i(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log an info exception and a message with four format args. */
+    public void i(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        forest.i(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an info message with an {@code int} format arg. */
+    public void i(@NonNls String message, int arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log an info message with a {@code long} format arg. */
+    public void i(@NonNls String message, long arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log an info message with a {@code float} format arg. */
+    public void i(@NonNls String message, float arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log an info message with a {@code double} format arg. */
+    public void i(@NonNls String message, double arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log an info message with a {@code boolean} format arg. */
+    public void i(@NonNls String message, boolean arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log an info message with a {@code char} format arg. */
+    public void i(@NonNls String message, char arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log an info message with a {@code byte} format arg. */
+    public void i(@NonNls String message, byte arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log an info message with a {@code short} format arg. */
+    public void i(@NonNls String message, short arg) {
+        forest.i(message, arg);
+    }
+
+    /** Log a warning message with optional format args. */
+    public void w(@NonNls String message, Object... args) {
+        forest.w(message, args);
+    }
+
+    /** Log a warning exception and a message with optional format args. */
+    public void w(Throwable t, @NonNls String message, Object... args) {
+        forest.w(t, message, args);
+    }
+
+    /** Log a warning exception. */
+    public void w(Throwable t) {
+        forest.w(t);
+    }
+
+    /** Log a warning message with one format arg. */
+    public void w(@NonNls String message, Object arg1) {
+        forest.w(message, arg1);
+    }
+
+    /** Log a warning message with two format args. */
+    public void w(@NonNls String message, Object arg1, Object arg2) {
+        forest.w(message, arg1, arg2);
+    }
+
+    /** Log a warning message with three format args. */
+    public void w(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        forest.w(message, arg1, arg2, arg3);
+    }
+
+    /** Log a warning message with four format args. */
+    public void w(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        forest.w(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a warning exception and a message with one format arg. */
+    public void w(Throwable t, @NonNls String message, Object arg1) {
+        forest.w(t, message, arg1);
+    }
+
+    /** Log a warning exception and a message with two format args. */
+    public void w(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        forest.w(t, message, arg1, arg2);
+    }
+
+    /** Log a warning exception and a message with three format args. */
+    public void w(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        forest.w(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log a warning exception and a message with four format args. */
+    public void w(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        forest.w(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log a warning message with an {@code int} format arg. */
+    public void w(@NonNls String message, int arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code long} format arg. */
+    public void w(@NonNls String message, long arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code float} format arg. */
+    public void w(@NonNls String message, float arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code double} format arg. */
+    public void w(@NonNls String message, double arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code boolean} format arg. */
+    public void w(@NonNls String message, boolean arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code char} format arg. */
+    public void w(@NonNls String message, char arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code byte} format arg. */
+    public void w(@NonNls String message, byte arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log a warning message with a {@code short} format arg. */
+    public void w(@NonNls String message, short arg) {
+        forest.w(message, arg);
+    }
+
+    /** Log an error message with optional format args. */
+    public void e(@NonNls String message, Object... args) {
+        forest.e(message, args);
+    }
+
+    /** Log an error exception and a message with optional format args. */
+    public void e(Throwable t, @NonNls String message, Object... args) {
+        forest.e(t, message, args);
+    }
+
+    /** Log an error exception. */
+    public void e(Throwable t) {
+        forest.e(t);
+    }
+
+    /** Log an error message with one format arg. */
+    public void e(@NonNls String message, Object arg1) {
+        forest.e(message, arg1);
+    }
+
+    /** Log an error message with two format args. */
+    public void e(@NonNls String message, Object arg1, Object arg2) {
+        forest.e(message, arg1, arg2);
+    }
+
+    /** Log an error message with three format args. */
+    public void e(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        forest.e(message, arg1, arg2, arg3);
+    }
+
+    /** Log an error message with four format args. */
+    public void e(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        forest.e(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an error exception and a message with one format arg. */
+    public void e(Throwable t, @NonNls String message, Object arg1) {
+        forest.e(t, message, arg1);
+    }
+
+    /** Log an error exception and a message with two format args. */
+    public void e(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        forest.e(t, message, arg1, arg2);
+    }
+
+    /** Log an error exception and a message with three format args. */
+    public void e(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        forest.e(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log an error exception and a message with four format args. */
+    public void e(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        forest.e(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an error message with an {@code int} format arg. */
+    public void e(@NonNls String message, int arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an error message with a {@code long} format arg. */
+    public void e(@NonNls String message, long arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an error message with a {@code float} format arg. */
+    public void e(@NonNls String message, float arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an error message with a {@code double} format arg. */
+    public void e(@NonNls String message, double arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an error message with a {@code boolean} format arg. */
+    public void e(@NonNls String message, boolean arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an error message with a {@code char} format arg. */
+    public void e(@NonNls String message, char arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an error message with a {@code byte} format arg. */
+    public void e(@NonNls String message, byte arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an error message with a {@code short} format arg. */
+    public void e(@NonNls String message, short arg) {
+        forest.e(message, arg);
+    }
+
+    /** Log an assert message with optional format args. */
+    public void wtf(@NonNls String message, Object... args) {
+        forest.wtf(message, args);
+    }
+
+    /** Log an assert exception and a message with optional format args. */
+    public void wtf(Throwable t, @NonNls String message, Object... args) {
+        forest.wtf(t, message, args);
+    }
+
+    /** Log an assert exception. */
+    public void wtf(Throwable t) {
+        forest.wtf(t);
+    }
+
+    /** Log an assert message with one format arg. */
+    public void wtf(@NonNls String message, Object arg1) {
+        forest.wtf(message, arg1);
+    }
+
+    /** Log an assert message with two format args. */
+    public void wtf(@NonNls String message, Object arg1, Object arg2) {
+        forest.wtf(message, arg1, arg2);
+    }
+
+    /** Log an assert message with three format args. */
+    public void wtf(@NonNls String message, Object arg1, Object arg2, Object arg3) {
+        forest.wtf(message, arg1, arg2, arg3);
+    }
+
+    /** Log an assert message with four format args. */
+    public void wtf(@NonNls String message, Object arg1, Object arg2, Object arg3,
+            Object arg4) {
+        forest.wtf(message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an assert exception and a message with one format arg. */
+    public void wtf(Throwable t, @NonNls String message, Object arg1) {
+        forest.wtf(t, message, arg1);
+    }
+
+    /** Log an assert exception and a message with two format args. */
+    public void wtf(Throwable t, @NonNls String message, Object arg1, Object arg2) {
+        forest.wtf(t, message, arg1, arg2);
+    }
+
+    /** Log an assert exception and a message with three format args. */
+    public void wtf(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        forest.wtf(t, message, arg1, arg2, arg3);
+    }
+
+    /** Log an assert exception and a message with four format args. */
+    public void wtf(Throwable t, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        forest.wtf(t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log an assert message with an {@code int} format arg. */
+    public void wtf(@NonNls String message, int arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code long} format arg. */
+    public void wtf(@NonNls String message, long arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code float} format arg. */
+    public void wtf(@NonNls String message, float arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code double} format arg. */
+    public void wtf(@NonNls String message, double arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code boolean} format arg. */
+    public void wtf(@NonNls String message, boolean arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code char} format arg. */
+    public void wtf(@NonNls String message, char arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code byte} format arg. */
+    public void wtf(@NonNls String message, byte arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log an assert message with a {@code short} format arg. */
+    public void wtf(@NonNls String message, short arg) {
+        forest.wtf(message, arg);
+    }
+
+    /** Log at {@code priority} a message with optional format args. */
+    public void log(int priority, @NonNls String message, Object... args) {
+        forest.log(priority, message, args);
+    }
+
+    /** Log at {@code priority} an exception and a message with optional format args. */
+    public void log(int priority, Throwable t, @NonNls String message, Object... args) {
+        forest.log(priority, t, message, args);
+    }
+
+    /** Log at {@code priority} an exception. */
+    public void log(int priority, Throwable t) {
+        forest.log(priority, t);
+    }
+
+    /** Log at {@code priority} a message with one format arg. */
+    public void log(int priority, @NonNls String message, Object arg1) {
+        forest.log(priority, message, arg1);
+    }
+
+    /** Log at {@code priority} a message with two format args. */
+    public void log(int priority, @NonNls String message, Object arg1, Object arg2) {
+        forest.log(priority, message, arg1, arg2);
+    }
+
+    /** Log at {@code priority} a message with three format args. */
+    public void log(int priority, @NonNls String message, Object arg1, Object arg2,
+            Object arg3) {
+        forest.log(priority, message, arg1, arg2, arg3);
+    }
+
+    /** Log at {@code priority} a message with four format args. */
+    public void log(int priority, @NonNls String message, Object arg1, Object arg2,
+            Object arg3, Object arg4) {
+        forest.log(priority, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log at {@code priority} an exception and a message with one format arg. */
+    public void log(int priority, Throwable t, @NonNls String message, Object arg1) {
+        forest.log(priority, t, message, arg1);
+    }
+
+    /** Log at {@code priority} an exception and a message with two format args. */
+    public void log(int priority, Throwable t, @NonNls String message, Object arg1,
+            Object arg2) {
+        forest.log(priority, t, message, arg1, arg2);
+    }
+
+    /** Log at {@code priority} an exception and a message with three format args. */
+    public void log(int priority, Throwable t, @NonNls String message, Object arg1,
+            Object arg2, Object arg3) {
+        forest.log(priority, t, message, arg1, arg2, arg3);
+    }
+
+    /** Log at {@code priority} an exception and a message with four format args. */
+    public void log(int priority, Throwable t, @NonNls String message, Object arg1,
+            Object arg2, Object arg3, Object arg4) {
+        forest.log(priority, t, message, arg1, arg2, arg3, arg4);
+    }
+
+    /** Log at {@code priority} a message with an {@code int} format arg. */
+    public void log(int priority, @NonNls String message, int arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Log at {@code priority} a message with a {@code long} format arg. */
+    public void log(int priority, @NonNls String message, long arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Log at {@code priority} a message with a {@code float} format arg. */
+    public void log(int priority, @NonNls String message, float arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Log at {@code priority} a message with a {@code double} format arg. */
+    public void log(int priority, @NonNls String message, double arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Log at {@code priority} a message with a {@code boolean} format arg. */
+    public void log(int priority, @NonNls String message, boolean arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Log at {@code priority} a message with a {@code char} format arg. */
+    public void log(int priority, @NonNls String message, char arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Log at {@code priority} a message with a {@code byte} format arg. */
+    public void log(int priority, @NonNls String message, byte arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Log at {@code priority} a message with a {@code short} format arg. */
+    public void log(int priority, @NonNls String message, short arg) {
+        forest.log(priority, message, arg);
+    }
+
+    /** Start a verbose message with fields. See {@link LogBuilder}. */
+    public LogBuilder atVerbose() {
+        return forest.at(Logger.Priority.VERBOSE);
+    }
+
+    /** Start a debug message with fields. See {@link LogBuilder}. */
+    public LogBuilder atDebug() {
+        return forest.at(Logger.Priority.DEBUG);
+    }
+
+    /** Start an info message with fields. See {@link LogBuilder}. */
+    public LogBuilder atInfo() {
+        return forest.at(Logger.Priority.INFO);
+    }
+
+    /** Start a warning message with fields. See {@link LogBuilder}. */
+    public LogBuilder atWarn() {
+        return forest.at(Logger.Priority.WARN);
+    }
+
+    /** Start an error message with fields. See {@link LogBuilder}. */
+    public LogBuilder atError() {
+        return forest.at(Logger.Priority.ERROR);
+    }
+
+    /** Start an assert message with fields. See {@link LogBuilder}. */
+    public LogBuilder atWtf() {
+        return forest.at(Logger.Priority.ASSERT);
+    }
+
+    /** Start a message at {@code priority} with fields. See {@link LogBuilder}. */
+    public LogBuilder at(int priority) {
+        return forest.at(priority);
+    }
+
+    /**
+     * Return whether any tree of this scope accepts messages at {@code priority}. Use this to skip
+     * building expensive arguments; trees may still filter messages by tag.
+     */
+    public boolean isLoggable(int priority) {
+        return forest.forest(priority).length > 0;
+    }
+
+    /** This scope as a tree, for injecting it where a {@link Logger.Tree} is expected. */
+    public Logger.Tree asTree() {
+        return forest;
+    }
+
+    /** Set a one-time tag for use on the next logging call, through this scope. */
+    public Logger.Tree tag(String tag) {
+        LogContext.current().tag = tag;
+        return forest;
+    }
+
+    /** Add a new logging tree to this scope. */
+    public void plant(Logger.Tree tree) {
+        forest.plant(tree);
+    }
+
+    /** Add new logging trees to this scope. */
+    public void plant(Logger.Tree... trees) {
+        forest.plant(trees);
+    }
+
+    /** Remove a tree planted in this scope. */
+    public void uproot(Logger.Tree tree) {
+        forest.uproot(tree);
+    }
+
+    /** Remove all trees planted in this scope. Inherited trees are unaffected. */
+    public void uprootAll() {
+        forest.uprootAll();
+    }
+
+    /** Return a copy of the trees planted in this scope, without inherited ones. */
+    public List<Logger.Tree> forest() {
+        return forest.trees();
+    }
+
+    /** Return the number of trees planted in this scope, without inherited ones. */
+    public int treeCount() {
+        return forest.treeCount();
+    }
+}
@@ -0,0 +1,349 @@
+package log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link Logger.Tree Tree} that appends records to memory-mapped segment files which several
+ * processes on the same host can share without file locks.
+ * <p>
+ * Each segment starts with a header holding the next free offset. Writers reserve space for a
+ * record by advancing that offset with a compare-and-set on the mapped memory, fill their slot,
+ * and commit it by writing the record's checksum last. When a segment is full, writers move on to
+ * the next one, named {@code <name>-<index>.log}. Use {@link #read(File)} to decode a segment and
+ * tell committed records from ones torn by a crashed writer.
+ */
+public class MappedFileTree extends Logger.Tree implements Closeable {
+    static final int MAGIC = 0x4C4F4753; // "LOGS"
+    static final int VERSION = 1;
+
+    // Header layout, in native byte order.
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int WRITE_OFFSET = 8;
+    static final int HEADER_SIZE = 64;
+
+    // Record layout: int payload length, int checksum of the payload (written last), payload,
+    // padding to a multiple of eight bytes.
+    static final int RECORD_HEADER_SIZE = 8;
+    // Payload layout, big-endian: long timestamp, byte priority, short tag length (-1 for null),
+    // tag, message. Both strings are UTF-8.
+    private static final int MIN_PAYLOAD_SIZE = 11;
+    private static final int MAX_TAG_SIZE = 256;
+
+    private static final int MIN_SEGMENT_SIZE = 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File directory;
+    private final String name;
+    private final int segmentSize;
+    private final Object rollLock = new Object();
+    private volatile Segment segment;
+
+    /**
+     * @param directory Directory holding the segments. Created if missing.
+     * @param name Segment file name prefix. Processes sharing segments must use the same name.
+     * @param segmentSize Size of each segment file in bytes.
+     */
+    public MappedFileTree(File directory, String name, int segmentSize) throws IOException {
+        if (directory == null) {
+            throw new NullPointerException("directory == null");
+        }
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segmentSize < " + MIN_SEGMENT_SIZE + ": " + segmentSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        int index = latestIndex();
+        this.segment = Segment.open(segmentFile(index), index, segmentSize);
+    }
+
+    /** Return the segment files written under {@code name}, oldest first. */
+    public static List<File> segments(File directory, String name) {
+        List<File> files = new ArrayList<>();
+        for (int index = 0; ; index++) {
+            File file = new File(directory, segmentName(name, index));
+            if (!file.exists()) {
+                return files;
+            }
+            files.add(file);
+        }
+    }
+
+    /** Decode every record in {@code segment}, including torn ones, in file order. */
+    public static List<Record> read(File segment) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segment, "r");
+        try {
+            MappedByteBuffer buffer =
+                    file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            return read(buffer);
+        } finally {
+            file.close();
+        }
+    }
+
+    @Override protected void log(int priority, String tag, String message, Throwable t) {
+        byte[] payload = encode(priority, tag, message);
+        int size = align(RECORD_HEADER_SIZE + payload.length);
+        while (true) {
+            Segment segment = this.segment;
+            int offset = segment.reserve(size);
+            if (offset != -1) {
+                segment.write(offset, payload);
+                LoggerMetrics.wrote(this, size);
+                return;
+            }
+            try {
+                roll(segment);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open next segment of " + name, e);
+            }
+        }
+    }
+
+    @Override public void close() throws IOException {
+        segment.close();
+    }
+
+    private void roll(Segment full) throws IOException {
+        synchronized (rollLock) {
+            if (segment == full) {
+                int index = full.index + 1;
+                segment = Segment.open(segmentFile(index), index, segmentSize);
+                // Other threads may still be writing into the old mapping, which outlives this.
+                full.close();
+            }
+        }
+    }
+
+    private int latestIndex() {
+        int index = 0;
+        while (segmentFile(index + 1).exists()) {
+            index++;
+        }
+        return index;
+    }
+
+    private File segmentFile(int index) {
+        return new File(directory, segmentName(name, index));
+    }
+
+    private static String segmentName(String name, int index) {
+        return String.format("%s-%05d.log", name, index);
+    }
+
+    /** Encode a payload, truncating the message so that a record fits an empty segment. */
+    private byte[] encode(int priority, String tag, String message) {
+        byte[] tagBytes = tag != null ? tag.getBytes(UTF_8) : null;
+        if (tagBytes != null && tagBytes.length > MAX_TAG_SIZE) {
+            tagBytes = Arrays.copyOf(tagBytes, MAX_TAG_SIZE);
+        }
+        byte[] messageBytes = message.getBytes(UTF_8);
+        int fixed = MIN_PAYLOAD_SIZE + (tagBytes != null ? tagBytes.length : 0);
+        int maxMessage = segmentSize - HEADER_SIZE - RECORD_HEADER_SIZE - fixed - 7;
+        int messageLength = Math.max(0, Math.min(messageBytes.length, maxMessage));
+        ByteBuffer payload = ByteBuffer.allocate(fixed + messageLength);
+        payload.putLong(System.currentTimeMillis());
+        payload.put((byte) priority);
+        if (tagBytes != null) {
+            payload.putShort((short) tagBytes.length);
+            payload.put(tagBytes);
+        } else {
+            payload.putShort((short) -1);
+        }
+        payload.put(messageBytes, 0, messageLength);
+        return payload.array();
+    }
+
+    private static List<Record> read(MappedByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.nativeOrder());
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException("Not a log segment");
+        }
+        if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported segment version " + buffer.getInt(VERSION_OFFSET));
+        }
+        long end = Math.min(BufferAtomics.getLongVolatile(buffer, WRITE_OFFSET), buffer.capacity());
+        List<Record> records = new ArrayList<>();
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= end) {
+            int length = buffer.getInt(position);
+            boolean sized = length >= MIN_PAYLOAD_SIZE
+                    && length <= end - position - RECORD_HEADER_SIZE;
+            if (sized && isCommitted(buffer, position, length)) {
+                records.add(Record.decode(buffer, position, length));
+                position += align(RECORD_HEADER_SIZE + length);
+            } else if (sized) {
+                // The writer reserved the slot and sized it, but never committed.
+                records.add(Record.torn(position));
+                position += align(RECORD_HEADER_SIZE + length);
+            } else {
+                // The writer died before sizing the slot: resume at the next committed record.
+                records.add(Record.torn(position));
+                do {
+                    position += 8;
+                } while (position + RECORD_HEADER_SIZE <= end && !isCommittedRecord(buffer, position, end));
+            }
+        }
+        return Collections.unmodifiableList(records);
+    }
+
+    private static boolean isCommittedRecord(ByteBuffer buffer, int position, long end) {
+        int length = buffer.getInt(position);
+        return length >= MIN_PAYLOAD_SIZE
+                && length <= end - position - RECORD_HEADER_SIZE
+                && isCommitted(buffer, position, length);
+    }
+
+    private static boolean isCommitted(ByteBuffer buffer, int position, int length) {
+        int checksum = BufferAtomics.getIntVolatile(buffer, position + 4);
+        return checksum == checksum(buffer, position + RECORD_HEADER_SIZE, length);
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position);
+        source.get(bytes);
+        return checksum(bytes);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static final class Segment {
+        final int index;
+        private final RandomAccessFile file;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+
+        private Segment(int index, RandomAccessFile file, MappedByteBuffer buffer) {
+            this.index = index;
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment open(File path, int index, int size) throws IOException {
+            RandomAccessFile file = new RandomAccessFile(path, "rw");
+            try {
+                if (file.length() < size) {
+                    file.setLength(size);
+                }
+                MappedByteBuffer buffer = file.getChannel()
+                        .map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+                buffer.order(ByteOrder.nativeOrder());
+                // Every process writes the same header values, then exactly one claims the
+                // first record offset of a fresh file.
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                BufferAtomics.compareAndSetLong(buffer, WRITE_OFFSET, 0, HEADER_SIZE);
+                return new Segment(index, file, buffer);
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
+        }
+
+        /** Reserve {@code size} bytes and return their offset, or -1 if the segment is full. */
+        int reserve(int size) {
+            while (true) {
+                long offset = BufferAtomics.getLongVolatile(buffer, WRITE_OFFSET);
+                if (offset + size > capacity) {
+                    return -1;
+                }
+                if (BufferAtomics.compareAndSetLong(buffer, WRITE_OFFSET, offset, offset + size)) {
+                    return (int) offset;
+                }
+            }
+        }
+
+        void write(int offset, byte[] payload) {
+            buffer.putInt(offset, payload.length);
+            ByteBuffer slot = buffer.duplicate();
+            slot.position(offset + RECORD_HEADER_SIZE);
+            slot.put(payload);
+            BufferAtomics.putIntRelease(buffer, offset + 4, checksum(payload));
+        }
+
+        void close() throws IOException {
+            file.close();
+        }
+    }
+
+    /** A record decoded by {@link #read(File)}. */
+    public static final class Record {
+        /** Byte offset of the record in its segment. */
+        public final long offset;
+        /** False if the writer reserved the record but never finished it. */
+        public final boolean committed;
+        public final long timestamp;
+        public final int priority;
+        public final String tag;
+        public final String message;
+
+        private Record(long offset, boolean committed, long timestamp, int priority, String tag,
+                String message) {
+            this.offset = offset;
+            this.committed = committed;
+            this.timestamp = timestamp;
+            this.priority = priority;
+            this.tag = tag;
+            this.message = message;
+        }
+
+        static Record torn(long offset) {
+            return new Record(offset, false, 0, 0, null, null);
+        }
+
+        static Record decode(ByteBuffer buffer, int position, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(position + RECORD_HEADER_SIZE);
+            source.get(bytes);
+            ByteBuffer payload = ByteBuffer.wrap(bytes);
+            long timestamp = payload.getLong();
+            int priority = payload.get();
+            int tagLength = payload.getShort();
+            String tag = null;
+            if (tagLength >= 0) {
+                tag = new String(bytes, payload.position(), tagLength, UTF_8);
+                payload.position(payload.position() + tagLength);
+            }
+            String message = new String(bytes, payload.position(), payload.remaining(), UTF_8);
+            return new Record(position, true, timestamp, priority, tag, message);
+        }
+
+        @Override public String toString() {
+            return committed
+                    ? "[" + Logger.Priority.name(priority) + "|" + tag + "] " + message
+                    : "<torn record at " + offset + ">";
+        }
+    }
+}
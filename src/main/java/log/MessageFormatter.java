@@ -0,0 +1,336 @@
+package log;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Formattable;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A drop-in replacement for {@link String#format(String, Object...)} that parses each message
+ * template once and appends arguments into a reused per-thread buffer.
+ * <p>
+ * Only the printf subset that log messages actually use is compiled: {@code %s}, {@code %d},
+ * {@code %x} and {@code %f} with the {@code -} and {@code 0} flags, width and precision, plus
+ * {@code %n} and {@code %%}. Anything else, including argument types whose output would differ,
+ * falls back to {@link String#format(String, Object...)} so that the result is always identical.
+ */
+final class MessageFormatter {
+    private static final int CACHE_SIZE = 256;
+    private static final int MAX_WIDTH = 1024;
+    private static final int MAX_BUFFER_SIZE = 8192;
+
+    /** Templates indexed by the identity hash of their source. Colliding templates evict. */
+    private static final AtomicReferenceArray<Template> CACHE = new AtomicReferenceArray<>(CACHE_SIZE);
+
+    private static final ThreadLocal<Buffer> BUFFER = new ThreadLocal<Buffer>() {
+        @Override protected Buffer initialValue() {
+            return new Buffer();
+        }
+    };
+
+    private static final char[] ZEROS = filled('0');
+    private static final char[] SPACES = filled(' ');
+
+    /** The last default locale seen, if it renders numbers like {@link Locale#ROOT}. */
+    private static volatile Locale asciiLocale = Locale.ROOT;
+
+    static String format(String message, Object[] args) {
+        Template template = template(message);
+        if (template.segments == null || args.length < template.argumentCount
+                || (template.localized && !defaultLocaleIsAscii())) {
+            return String.format(message, args);
+        }
+
+        Buffer buffer = BUFFER.get();
+        StringBuilder sb = buffer.inUse ? new StringBuilder() : buffer.acquire();
+        try {
+            if (!template.appendTo(sb, args)) {
+                return String.format(message, args);
+            }
+            return sb.toString();
+        } finally {
+            if (sb == buffer.builder) {
+                buffer.release();
+            }
+        }
+    }
+
+    private static Template template(String message) {
+        int index = System.identityHashCode(message) & (CACHE_SIZE - 1);
+        Template template = CACHE.get(index);
+        if (template == null || template.source != message) {
+            template = Template.compile(message);
+            CACHE.set(index, template);
+        }
+        return template;
+    }
+
+    /** Whether {@code %d} and {@code %f} render with ASCII digits and a '.' in the default locale. */
+    private static boolean defaultLocaleIsAscii() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (locale == asciiLocale) {
+            return true;
+        }
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        if (symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.') {
+            asciiLocale = locale;
+            return true;
+        }
+        return false;
+    }
+
+    private static char[] filled(char c) {
+        char[] chars = new char[MAX_WIDTH];
+        Arrays.fill(chars, c);
+        return chars;
+    }
+
+    private MessageFormatter() {
+        throw new AssertionError("No instances.");
+    }
+
+    private static final class Buffer {
+        StringBuilder builder = new StringBuilder(256);
+        boolean inUse;
+
+        StringBuilder acquire() {
+            inUse = true;
+            builder.setLength(0);
+            return builder;
+        }
+
+        void release() {
+            inUse = false;
+            if (builder.capacity() > MAX_BUFFER_SIZE) {
+                builder = new StringBuilder(256);
+            }
+        }
+    }
+
+    private static final class Template {
+        final String source;
+        /** Either a literal {@link String} or a {@link Specifier}; null if not compilable. */
+        final Object[] segments;
+        final int argumentCount;
+        /** Whether any specifier renders digits that depend on the default locale. */
+        final boolean localized;
+
+        private Template(String source, Object[] segments, int argumentCount, boolean localized) {
+            this.source = source;
+            this.segments = segments;
+            this.argumentCount = argumentCount;
+            this.localized = localized;
+        }
+
+        /** Append the formatted message, or return false if an argument needs the slow path. */
+        boolean appendTo(StringBuilder sb, Object[] args) {
+            Object[] segments = this.segments;
+            for (int i = 0, arg = 0, count = segments.length; i < count; i++) {
+                Object segment = segments[i];
+                if (segment instanceof String) {
+                    sb.append((String) segment);
+                } else if (!((Specifier) segment).appendTo(sb, args[arg++])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static Template compile(String source) {
+            List<Object> segments = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int argumentCount = 0;
+            boolean localized = false;
+            for (int i = 0, length = source.length(); i < length; ) {
+                char c = source.charAt(i++);
+                if (c != '%') {
+                    literal.append(c);
+                    continue;
+                }
+
+                boolean leftAlign = false;
+                boolean zeroPad = false;
+                int width = -1;
+                int precision = -1;
+                for (; i < length; i++) {
+                    c = source.charAt(i);
+                    if (c == '-' && !leftAlign) {
+                        leftAlign = true;
+                    } else if (c == '0' && !zeroPad) {
+                        zeroPad = true;
+                    } else {
+                        break;
+                    }
+                }
+                int start = i;
+                while (i < length && isDigit(source.charAt(i))) {
+                    i++;
+                }
+                if (i > start) {
+                    if (i - start > 4 || source.charAt(start) == '0') {
+                        return unsupported(source);
+                    }
+                    width = Integer.parseInt(source.substring(start, i));
+                }
+                if (i < length && source.charAt(i) == '.') {
+                    start = ++i;
+                    while (i < length && isDigit(source.charAt(i))) {
+                        i++;
+                    }
+                    if (i == start || i - start > 4) {
+                        return unsupported(source);
+                    }
+                    precision = Integer.parseInt(source.substring(start, i));
+                }
+                if (i == length || width > MAX_WIDTH) {
+                    return unsupported(source);
+                }
+
+                char conversion = source.charAt(i++);
+                boolean plain = !leftAlign && !zeroPad && width == -1 && precision == -1;
+                if (conversion == '%' && plain) {
+                    literal.append('%');
+                    continue;
+                }
+                if (conversion == 'n' && plain) {
+                    literal.append(System.lineSeparator());
+                    continue;
+                }
+                if ((leftAlign || zeroPad) && width == -1 || leftAlign && zeroPad) {
+                    return unsupported(source);
+                }
+                switch (conversion) {
+                    case 's':
+                        if (zeroPad) {
+                            return unsupported(source);
+                        }
+                        break;
+                    case 'd':
+                    case 'x':
+                        if (precision != -1) {
+                            return unsupported(source);
+                        }
+                        localized |= conversion == 'd';
+                        break;
+                    case 'f':
+                        localized = true;
+                        break;
+                    default:
+                        return unsupported(source);
+                }
+
+                if (literal.length() > 0) {
+                    segments.add(literal.toString());
+                    literal.setLength(0);
+                }
+                segments.add(new Specifier(conversion, leftAlign, zeroPad, width, precision));
+                argumentCount++;
+            }
+            if (literal.length() > 0) {
+                segments.add(literal.toString());
+            }
+            return new Template(source, segments.toArray(), argumentCount, localized);
+        }
+
+        private static Template unsupported(String source) {
+            return new Template(source, null, 0, false);
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+
+    private static final class Specifier {
+        final char conversion;
+        final boolean leftAlign;
+        final boolean zeroPad;
+        final int width;
+        final int precision;
+
+        Specifier(char conversion, boolean leftAlign, boolean zeroPad, int width, int precision) {
+            this.conversion = conversion;
+            this.leftAlign = leftAlign;
+            this.zeroPad = zeroPad;
+            this.width = width;
+            this.precision = precision;
+        }
+
+        boolean appendTo(StringBuilder sb, Object arg) {
+            int start = sb.length();
+            switch (conversion) {
+                case 's':
+                    if (arg instanceof Formattable) {
+                        return false;
+                    }
+                    String s = String.valueOf(arg);
+                    if (precision != -1 && precision < s.length()) {
+                        sb.append(s, 0, precision);
+                    } else {
+                        sb.append(s);
+                    }
+                    break;
+                case 'd':
+                    if (arg instanceof Integer || arg instanceof Long
+                            || arg instanceof Short || arg instanceof Byte) {
+                        sb.append(((Number) arg).longValue());
+                    } else {
+                        return false;
+                    }
+                    break;
+                case 'x':
+                    if (arg instanceof Integer) {
+                        sb.append(Integer.toHexString((Integer) arg));
+                    } else if (arg instanceof Long) {
+                        sb.append(Long.toHexString((Long) arg));
+                    } else {
+                        return false;
+                    }
+                    break;
+                case 'f':
+                    if (!(arg instanceof Double || arg instanceof Float)) {
+                        return false;
+                    }
+                    double value = ((Number) arg).doubleValue();
+                    if (Double.isNaN(value) || Double.isInfinite(value)) {
+                        return false;
+                    }
+                    if (Double.compare(value, 0.0) < 0) {
+                        sb.append('-');
+                    }
+                    // Formatter rounds the shortest decimal representation half-up, not the
+                    // exact binary value.
+                    sb.append(new BigDecimal(Double.toString(Math.abs(value)))
+                            .setScale(precision == -1 ? 6 : precision, RoundingMode.HALF_UP)
+                            .toPlainString());
+                    break;
+                default:
+                    throw new AssertionError(conversion);
+            }
+            pad(sb, start);
+            return true;
+        }
+
+        private void pad(StringBuilder sb, int start) {
+            int padding = width - (sb.length() - start);
+            if (padding <= 0) {
+                return;
+            }
+            if (leftAlign) {
+                for (int i = 0; i < padding; i++) {
+                    sb.append(' ');
+                }
+            } else if (zeroPad) {
+                int at = start < sb.length() && sb.charAt(start) == '-' ? start + 1 : start;
+                sb.insert(at, ZEROS, 0, padding);
+            } else {
+                sb.insert(start, SPACES, 0, padding);
+            }
+        }
+    }
+}
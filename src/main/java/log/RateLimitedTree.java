@@ -0,0 +1,340 @@
+package log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link Logger.Tree Tree} that forwards to {@code delegate} only as many messages as a
+ * per-priority budget allows, and optionally only one in every N.
+ * <p>
+ * Messages are grouped by {@link Key#TAG tag} or by {@link Key#CALL_SITE call site}, hashed into a
+ * fixed number of stripes. Each stripe has a lock-free token bucket per priority: a message
+ * passes if the bucket holds a token, and the bucket refills at {@code permitsPerSecond} up to
+ * {@code burst} tokens. Limits apply after {@link #isLoggable(String, int) filtering} but before
+ * the message is formatted, so a suppressed call costs a few atomic operations.
+ * <p>
+ * A stripe's buckets belong to the first group hashed into it. Groups that find their stripe
+ * taken get buckets from a small map under a lock instead, which forgets the least recently
+ * used group once it holds {@value #MAX_OVERFLOW}.
+ * <p>
+ * Suppressed messages are counted. Every {@code summaryIntervalMillis}, the next call that gets
+ * here sends the delegate a {@link Logger.Priority#WARN WARN} line such as
+ * {@code "Suppressed 1200 messages: 1000 WARN, 200 ERROR"}; call {@link #flushSummary()} to send
+ * one now.
+ */
+public class RateLimitedTree extends Logger.Tree {
+    /** How messages are grouped into rate limits. */
+    public enum Key {
+        /** One budget per tag. */
+        TAG,
+        /**
+         * One budget per message template. Templates are compared by identity, so for string
+         * literals this is one budget per call site without walking the stack.
+         */
+        CALL_SITE
+    }
+
+    static final String SUMMARY_TAG = "RateLimitedTree";
+
+    private static final int PRIORITIES = 8;
+    private static final int STRIPES = 64;
+    private static final int MAX_OVERFLOW = 1024;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    /** Groups messages without a tag. */
+    private static final Object NO_TAG = new Object();
+
+    private final Logger.Tree delegate;
+    private final Key key;
+    private final long summaryIntervalNanos;
+    private final long origin = System.nanoTime();
+
+    private volatile Limit[] limits = new Limit[PRIORITIES];
+    /** Per priority and stripe, the time the bucket will be full again; see {@link #acquire}. */
+    private final AtomicLongArray buckets = new AtomicLongArray(PRIORITIES * STRIPES);
+    /** Per priority and stripe, the tag or template whose buckets the stripe holds. */
+    private final AtomicReferenceArray<Object> owners =
+            new AtomicReferenceArray<>(PRIORITIES * STRIPES);
+    private final AtomicLongArray samples = new AtomicLongArray(PRIORITIES * STRIPES);
+    private final AtomicLongArray suppressed = new AtomicLongArray(PRIORITIES * STRIPES);
+    private final AtomicLong nextSummary;
+    // Guarded by 'this'.
+    private final long[] reported = new long[PRIORITIES];
+    // Guarded by 'overflow'.
+    private final Map<Group, Bucket> overflow = new LinkedHashMap<Group, Bucket>(16, 0.75f, true) {
+        private static final long serialVersionUID = 0;
+
+        @Override protected boolean removeEldestEntry(Map.Entry<Group, Bucket> eldest) {
+            return size() > MAX_OVERFLOW;
+        }
+    };
+
+    /** Limit by call site, with a summary every minute. */
+    public RateLimitedTree(Logger.Tree delegate) {
+        this(delegate, Key.CALL_SITE, 60 * 1000);
+    }
+
+    /**
+     * @param summaryIntervalMillis How often to report suppressed messages, or 0 to only report
+     * them on {@link #flushSummary()}.
+     */
+    public RateLimitedTree(Logger.Tree delegate, Key key, long summaryIntervalMillis) {
+        if (delegate == null) {
+            throw new NullPointerException("delegate == null");
+        }
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        if (summaryIntervalMillis < 0) {
+            throw new IllegalArgumentException(
+                    "summaryIntervalMillis < 0: " + summaryIntervalMillis);
+        }
+        this.delegate = delegate;
+        this.key = key;
+        this.summaryIntervalNanos = summaryIntervalMillis * 1000000;
+        this.nextSummary = new AtomicLong(summaryIntervalNanos);
+    }
+
+    /**
+     * Let through at most {@code burst} messages at {@code priority} at once per tag or call
+     * site, refilling at {@code permitsPerSecond}.
+     */
+    public synchronized RateLimitedTree limit(int priority, double permitsPerSecond, int burst) {
+        checkPriority(priority);
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond <= 0: " + permitsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst < 1: " + burst);
+        }
+        Limit limit = limits[priority];
+        long interval = Math.max(1, (long) (NANOS_PER_SECOND / permitsPerSecond));
+        setLimit(priority, new Limit(interval, interval * (burst - 1),
+                limit != null ? limit.sampleRate : 1));
+        return this;
+    }
+
+    /** Let through one in every {@code oneIn} messages at {@code priority} per tag or call site. */
+    public synchronized RateLimitedTree sample(int priority, int oneIn) {
+        checkPriority(priority);
+        if (oneIn < 1) {
+            throw new IllegalArgumentException("oneIn < 1: " + oneIn);
+        }
+        Limit limit = limits[priority];
+        setLimit(priority, limit != null
+                ? new Limit(limit.interval, limit.tolerance, oneIn)
+                : new Limit(0, 0, oneIn));
+        return this;
+    }
+
+    /** Return how many messages were suppressed since this tree was created. */
+    public long suppressedCount() {
+        long count = 0;
+        for (int i = 0, length = suppressed.length(); i < length; i++) {
+            count += suppressed.get(i);
+        }
+        return count;
+    }
+
+    /** Report messages suppressed since the last summary, if any, to the delegate. */
+    public void flushSummary() {
+        String summary;
+        synchronized (this) {
+            long total = 0;
+            StringBuilder counts = new StringBuilder();
+            for (int priority = 0; priority < PRIORITIES; priority++) {
+                long count = -reported[priority];
+                for (int stripe = 0; stripe < STRIPES; stripe++) {
+                    count += suppressed.get(priority * STRIPES + stripe);
+                }
+                if (count > 0) {
+                    reported[priority] += count;
+                    total += count;
+                    counts.append(counts.length() > 0 ? ", " : "").append(count).append(' ')
+                            .append(Logger.Priority.name(priority));
+                }
+            }
+            if (total == 0) {
+                return;
+            }
+            summary = "Suppressed " + total + (total == 1 ? " message: " : " messages: ") + counts;
+        }
+        delegate.log(Logger.Priority.WARN, SUMMARY_TAG, summary, null);
+    }
+
+    @Override String getTag(String explicitTag) {
+        Logger.DebugTree inferrer = delegate.tagInferrer();
+        if (explicitTag == null && inferrer != null) {
+            return inferrer.inferTag();
+        }
+        return explicitTag;
+    }
+
+    @Override Logger.DebugTree tagInferrer() {
+        return delegate.tagInferrer();
+    }
+
+    @Override protected boolean isLoggable(String tag, int priority) {
+        return delegate.isLoggable(tag, priority);
+    }
+
+    @Override protected int minPriority() {
+        return delegate.minPriority();
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args) {
+        if (acquire(priority, tag, message)) {
+            delegate.formatAndLog(priority, tag, t, message, args);
+        }
+    }
+
+    @Override void formatAndLog(int priority, String tag, Throwable t, String message,
+            Object[] args, LogFields fields) {
+        if (acquire(priority, tag, message)) {
+            delegate.formatAndLog(priority, tag, t, message, args, fields);
+        }
+    }
+
+    /** Forward text that was formatted elsewhere, without limits. */
+    @Override protected void log(int priority, String tag, String message, Throwable t) {
+        delegate.log(priority, tag, message, t);
+    }
+
+    /** Return whether a message may pass, counting it as suppressed if not. */
+    private boolean acquire(int priority, String tag, String message) {
+        long now = System.nanoTime() - origin;
+        if (summaryIntervalNanos > 0) {
+            long next = nextSummary.get();
+            if (now >= next && nextSummary.compareAndSet(next, now + summaryIntervalNanos)) {
+                flushSummary();
+            }
+        }
+
+        Limit limit = priority >= 0 && priority < PRIORITIES ? limits[priority] : null;
+        if (limit == null) {
+            return true;
+        }
+        boolean byTag = key == Key.TAG || message == null;
+        Object group = byTag ? (tag != null ? tag : NO_TAG) : message;
+        int hash = byTag ? group.hashCode() : System.identityHashCode(group);
+        int index = priority * STRIPES + ((hash ^ hash >>> 16) & (STRIPES - 1));
+        Object owner = owners.get(index);
+        if (owner == null && owners.compareAndSet(index, null, group)) {
+            owner = group;
+        } else if (owner == null) {
+            owner = owners.get(index);
+        }
+        if (owner != group && !(byTag && group.equals(owner))) {
+            return acquireOverflow(now, limit, index, new Group(priority, group, byTag));
+        }
+
+        if (limit.sampleRate > 1 && samples.getAndIncrement(index) % limit.sampleRate != 0) {
+            return suppress(index);
+        }
+        if (limit.interval == 0) {
+            return true;
+        }
+        // Generic cell rate algorithm: the bucket is a single timestamp, the time at which it
+        // would be full again. Each message pushes it back by one interval.
+        while (true) {
+            long full = buckets.get(index);
+            long next = Math.max(full, now) + limit.interval;
+            if (next - now > limit.tolerance + limit.interval) {
+                return suppress(index);
+            }
+            if (buckets.compareAndSet(index, full, next)) {
+                return true;
+            }
+        }
+    }
+
+    /** Like {@link #acquire}, for a group whose stripe belongs to another. */
+    private boolean acquireOverflow(long now, Limit limit, int index, Group group) {
+        synchronized (overflow) {
+            Bucket bucket = overflow.get(group);
+            if (bucket == null) {
+                bucket = new Bucket();
+                overflow.put(group, bucket);
+            }
+            if (limit.sampleRate > 1 && bucket.samples++ % limit.sampleRate != 0) {
+                return suppress(index);
+            }
+            if (limit.interval == 0) {
+                return true;
+            }
+            long next = Math.max(bucket.full, now) + limit.interval;
+            if (next - now > limit.tolerance + limit.interval) {
+                return suppress(index);
+            }
+            bucket.full = next;
+            return true;
+        }
+    }
+
+    private boolean suppress(int index) {
+        suppressed.incrementAndGet(index);
+        LoggerMetrics.suppressed(this);
+        return false;
+    }
+
+    private void setLimit(int priority, Limit limit) {
+        Limit[] limits = this.limits.clone();
+        limits[priority] = limit;
+        this.limits = limits;
+    }
+
+    private static void checkPriority(int priority) {
+        if (priority < 0 || priority >= PRIORITIES) {
+            throw new IllegalArgumentException("Unknown priority: " + priority);
+        }
+    }
+
+    /** A priority and a tag or template, which templates compare by identity. */
+    private static final class Group {
+        final int priority;
+        final Object key;
+        final boolean byTag;
+
+        Group(int priority, Object key, boolean byTag) {
+            this.priority = priority;
+            this.key = key;
+            this.byTag = byTag;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Group)) {
+                return false;
+            }
+            Group other = (Group) o;
+            return priority == other.priority && byTag == other.byTag
+                    && (byTag ? key.equals(other.key) : key == other.key);
+        }
+
+        @Override public int hashCode() {
+            return 31 * priority + (byTag ? key.hashCode() : System.identityHashCode(key));
+        }
+    }
+
+    private static final class Bucket {
+        /** The time the bucket will be full again. */
+        long full;
+        long samples;
+    }
+
+    private static final class Limit {
+        /** Nanoseconds per permit, or 0 for no rate limit. */
+        final long interval;
+        /** How far ahead of now the bucket may run: the burst, less one permit. */
+        final long tolerance;
+        final int sampleRate;
+
+        Limit(long interval, long tolerance, int sampleRate) {
+            this.interval = interval;
+            this.tolerance = tolerance;
+            this.sampleRate = sampleRate;
+        }
+    }
+}
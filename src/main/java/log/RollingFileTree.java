@@ -0,0 +1,397 @@
+package log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link Logger.Tree Tree} that appends lines to a file and rotates it by size, by time, or
+ * both.
+ * <p>
+ * Lines are encoded as UTF-8 into a reused direct buffer and written straight to a
+ * {@link FileChannel}, one write per message. On rotation the file is renamed to
+ * {@code <name>.<n>} and handed to a background thread which compresses it to
+ * {@code <name>.<n>.gz} and deletes the oldest archives beyond {@code maxArchives}, so logging
+ * threads never wait on compression.
+ * <p>
+ * Writers are serialized with a {@link ReentrantLock} rather than a monitor, so a virtual thread
+ * blocked on the file releases its carrier thread.
+ */
+public class RollingFileTree extends Logger.Tree implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    /** Room for the longest UTF-8 encoding of one code point. */
+    private static final int MAX_CHAR_SIZE = 4;
+    private static final byte[] DIGITS = "0123456789".getBytes();
+
+    private final File file;
+    private final long maxFileSize;
+    private final long rotationInterval;
+    private final int maxArchives;
+    private final Pattern archivePattern;
+    private final ExecutorService compressor;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by 'lock'.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Calendar calendar = Calendar.getInstance();
+    /** "yyyy-MM-dd HH:mm:ss" of {@link #cachedSecond}. */
+    private final byte[] secondPrefix = new byte[19];
+    private long cachedSecond = Long.MIN_VALUE;
+
+    private FileChannel channel;
+    private long size;
+    /** Size that triggers rotation: {@link #maxFileSize}, or more after a failed rotation. */
+    private long rotationSize;
+    private long nextRotation;
+    private int nextArchive;
+    private boolean closed;
+
+    /**
+     * Rotate {@code file} once it reaches {@code maxFileSize} bytes.
+     *
+     * @param maxArchives Number of rotated files to keep, or 0 to keep none.
+     */
+    public RollingFileTree(File file, long maxFileSize, int maxArchives) throws IOException {
+        this(file, maxFileSize, 0, maxArchives);
+    }
+
+    /**
+     * Rotate {@code file} once it reaches {@code maxFileSize} bytes or when the clock passes a
+     * multiple of {@code rotationIntervalMillis}, whichever comes first.
+     *
+     * @param maxFileSize Size in bytes that triggers rotation, or 0 to never rotate by size.
+     * @param rotationIntervalMillis Interval that triggers rotation, or 0 to never rotate by time.
+     * @param maxArchives Number of rotated files to keep, or 0 to keep none.
+     */
+    public RollingFileTree(File file, long maxFileSize, long rotationIntervalMillis,
+            int maxArchives) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file == null");
+        }
+        if (maxFileSize < 0) {
+            throw new IllegalArgumentException("maxFileSize < 0: " + maxFileSize);
+        }
+        if (rotationIntervalMillis < 0) {
+            throw new IllegalArgumentException(
+                    "rotationIntervalMillis < 0: " + rotationIntervalMillis);
+        }
+        if (maxArchives < 0) {
+            throw new IllegalArgumentException("maxArchives < 0: " + maxArchives);
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.file = file.getAbsoluteFile();
+        this.maxFileSize = maxFileSize;
+        this.rotationSize = maxFileSize;
+        this.rotationInterval = rotationIntervalMillis;
+        this.maxArchives = maxArchives;
+        this.archivePattern =
+                Pattern.compile(Pattern.quote(file.getName()) + "\\.(\\d+)(\\.gz)?");
+        this.compressor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable,
+                        "RollingFileTree-" + RollingFileTree.this.file.getName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // Pick up where a previous run left off, including archives it did not get to compress.
+        for (Archive archive : archives()) {
+            nextArchive = archive.index + 1;
+            if (!archive.compressed) {
+                compressor.execute(new Compress(archive.file));
+            }
+        }
+        open(System.currentTimeMillis());
+    }
+
+    /** Return this tree's rotated files, oldest first. */
+    public List<File> archiveFiles() {
+        List<File> files = new ArrayList<>();
+        for (Archive archive : archives()) {
+            files.add(archive.file);
+        }
+        return files;
+    }
+
+    @Override protected void log(int priority, String tag, String message, Throwable t) {
+        lock.lock();
+        try {
+            if (closed) {
+                LoggerMetrics.dropped(this);
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (rotationInterval > 0 && now >= nextRotation) {
+                rotate(now);
+            }
+            putTimestamp(now);
+            putAscii(" [");
+            putAscii(Logger.Priority.name(priority));
+            put((byte) '|');
+            putUtf8(String.valueOf(tag));
+            putAscii("] ");
+            putUtf8(message);
+            put((byte) '\n');
+            drain();
+            if (maxFileSize > 0 && size >= rotationSize) {
+                rotate(now);
+            }
+        } catch (IOException e) {
+            buffer.clear();
+            throw new IllegalStateException("Cannot write " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the file and wait for pending archives to be compressed. Messages logged afterwards
+     * are dropped.
+     */
+    @Override public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for compression");
+        }
+    }
+
+    private void open(long now) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+        if (rotationInterval > 0) {
+            nextRotation = (now / rotationInterval + 1) * rotationInterval;
+        }
+    }
+
+    /**
+     * Archive the file and start a new one. If the file cannot be renamed, such as while another
+     * process holds it open, keep appending to it and try again once it has grown by another
+     * {@link #maxFileSize}, or at the next interval.
+     */
+    private void rotate(long now) throws IOException {
+        channel.close();
+        boolean renamed = true;
+        try {
+            if (size > 0) {
+                File archive = new File(file.getParentFile(), file.getName() + "." + nextArchive);
+                renamed = file.renameTo(archive);
+                if (renamed) {
+                    nextArchive++;
+                    compressor.execute(new Compress(archive));
+                }
+            }
+        } finally {
+            open(now);
+        }
+        rotationSize = renamed ? maxFileSize : size + maxFileSize;
+    }
+
+    private List<Archive> archives() {
+        List<Archive> archives = new ArrayList<>();
+        String[] names = file.getParentFile().list();
+        if (names == null) {
+            return archives;
+        }
+        for (String name : names) {
+            Matcher matcher = archivePattern.matcher(name);
+            if (matcher.matches()) {
+                archives.add(new Archive(new File(file.getParentFile(), name),
+                        Integer.parseInt(matcher.group(1)), matcher.group(2) != null));
+            }
+        }
+        Collections.sort(archives);
+        return archives;
+    }
+
+    private void putTimestamp(long now) throws IOException {
+        long second = now / 1000;
+        if (second != cachedSecond) {
+            calendar.setTimeInMillis(now);
+            byte[] prefix = secondPrefix;
+            putDigits(prefix, 0, calendar.get(Calendar.YEAR), 4);
+            prefix[4] = '-';
+            putDigits(prefix, 5, calendar.get(Calendar.MONTH) + 1, 2);
+            prefix[7] = '-';
+            putDigits(prefix, 8, calendar.get(Calendar.DAY_OF_MONTH), 2);
+            prefix[10] = ' ';
+            putDigits(prefix, 11, calendar.get(Calendar.HOUR_OF_DAY), 2);
+            prefix[13] = ':';
+            putDigits(prefix, 14, calendar.get(Calendar.MINUTE), 2);
+            prefix[16] = ':';
+            putDigits(prefix, 17, calendar.get(Calendar.SECOND), 2);
+            cachedSecond = second;
+        }
+        ensureRemaining(secondPrefix.length + 4);
+        buffer.put(secondPrefix);
+        int millis = (int) (now % 1000);
+        buffer.put((byte) '.');
+        buffer.put(DIGITS[millis / 100]);
+        buffer.put(DIGITS[millis / 10 % 10]);
+        buffer.put(DIGITS[millis % 10]);
+    }
+
+    private static void putDigits(byte[] bytes, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            bytes[i] = DIGITS[value % 10];
+            value /= 10;
+        }
+    }
+
+    private void putAscii(String s) throws IOException {
+        for (int i = 0, length = s.length(); i < length; i++) {
+            put((byte) s.charAt(i));
+        }
+    }
+
+    private void putUtf8(String s) throws IOException {
+        for (int i = 0, length = s.length(); i < length; i++) {
+            char c = s.charAt(i);
+            ensureRemaining(MAX_CHAR_SIZE);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced like String.getBytes does.
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private void put(byte b) throws IOException {
+        ensureRemaining(1);
+        buffer.put(b);
+    }
+
+    private void ensureRemaining(int count) throws IOException {
+        if (buffer.remaining() < count) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        LoggerMetrics.wrote(this, buffer.remaining());
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** Compresses one archive, then deletes the oldest archives beyond the limit. */
+    private final class Compress implements Runnable {
+        private final File archive;
+
+        Compress(File archive) {
+            this.archive = archive;
+        }
+
+        @Override public void run() {
+            if (!archive.exists()) {
+                return; // Already deleted as one of the oldest.
+            }
+            File compressed = new File(archive.getPath() + ".gz");
+            File temporary = new File(archive.getPath() + ".gz.tmp");
+            try {
+                gzip(archive, temporary);
+                if (!temporary.renameTo(compressed)) {
+                    throw new IOException("Cannot rename " + temporary + " to " + compressed);
+                }
+                if (!archive.delete()) {
+                    throw new IOException("Cannot delete " + archive);
+                }
+            } catch (IOException e) {
+                temporary.delete();
+                throw new IllegalStateException("Cannot compress " + archive, e);
+            } finally {
+                List<Archive> archives = archives();
+                for (int i = 0, count = archives.size() - maxArchives; i < count; i++) {
+                    archives.get(i).file.delete();
+                }
+            }
+        }
+
+        private void gzip(File source, File target) throws IOException {
+            InputStream in = new FileInputStream(source);
+            try {
+                OutputStream out = new GZIPOutputStream(new FileOutputStream(target), BUFFER_SIZE);
+                try {
+                    byte[] bytes = new byte[BUFFER_SIZE];
+                    for (int count; (count = in.read(bytes)) != -1; ) {
+                        out.write(bytes, 0, count);
+                    }
+                } finally {
+                    out.close();
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    private static final class Archive implements Comparable<Archive> {
+        final File file;
+        final int index;
+        final boolean compressed;
+
+        Archive(File file, int index, boolean compressed) {
+            this.file = file;
+            this.index = index;
+            this.compressed = compressed;
+        }
+
+        @Override public int compareTo(Archive other) {
+            return index < other.index ? -1 : index > other.index ? 1 : 0;
+        }
+    }
+}
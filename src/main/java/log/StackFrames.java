@@ -0,0 +1,28 @@
+package log;
+
+/**
+ * Looks up frames of the current thread's stack. Index 0 is the method calling into this class.
+ * <p>
+ * This implementation captures the whole stack with {@link Throwable#getStackTrace()}. On Java 9+
+ * the multi-release JAR replaces it with one that walks only as far as the requested frame.
+ */
+final class StackFrames {
+
+    /** Return the class name of the frame at {@code index}, or null if the stack is too shallow. */
+    static String className(int index) {
+        StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        return stackTrace.length > index + 1 ? stackTrace[index + 1].getClassName() : null;
+    }
+
+    /** Return the frame at {@code index}, or null if the stack is too shallow. */
+    static StackTraceElement element(int index) {
+        // DO NOT switch this to Thread.getCurrentThread().getStackTrace(). The test will pass
+        // because Robolectric runs them on the JVM but on Android the elements are different.
+        StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        return stackTrace.length > index + 1 ? stackTrace[index + 1] : null;
+    }
+
+    private StackFrames() {
+        throw new AssertionError("No instances.");
+    }
+}
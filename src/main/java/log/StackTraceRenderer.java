@@ -0,0 +1,135 @@
+package log;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Renders exceptions the way {@link Throwable#printStackTrace()} does, optionally limited to a
+ * number of frames per exception and a number of causes.
+ * <p>
+ * The trace is appended straight to the caller's buffer rather than to an intermediate string.
+ */
+final class StackTraceRenderer {
+    /**
+     * Renders the whole trace as {@link Throwable#printStackTrace()} would. Exceptions that
+     * override {@link Throwable#printStackTrace(PrintWriter)} print themselves.
+     */
+    static final StackTraceRenderer UNLIMITED =
+            new StackTraceRenderer(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /** Whether a Throwable class overrides {@link Throwable#printStackTrace(PrintWriter)}. */
+    private static final ClassValue<Boolean> PRINTS_ITSELF = new ClassValue<Boolean>() {
+        @Override protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != Throwable.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("printStackTrace", PrintWriter.class);
+                    return true;
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return false;
+        }
+    };
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final String CAUSE_CAPTION = "Caused by: ";
+    private static final String SUPPRESSED_CAPTION = "Suppressed: ";
+    private static final String CIRCULAR = "[CIRCULAR REFERENCE: ";
+
+    private final int maxFrames;
+    private final int maxCauses;
+
+    /**
+     * @param maxFrames The most frames to print per exception; the rest are summarized as
+     * {@code "... N more"}.
+     * @param maxCauses The most causes to print in a chain; the rest are summarized as
+     * {@code "... N more causes"}.
+     */
+    StackTraceRenderer(int maxFrames, int maxCauses) {
+        if (maxFrames < 0) {
+            throw new IllegalArgumentException("maxFrames < 0: " + maxFrames);
+        }
+        if (maxCauses < 0) {
+            throw new IllegalArgumentException("maxCauses < 0: " + maxCauses);
+        }
+        this.maxFrames = maxFrames;
+        this.maxCauses = maxCauses;
+    }
+
+    /** Append the trace of {@code t} to {@code out}, ending with a line separator. */
+    void render(Throwable t, StringBuilder out) {
+        if (maxFrames == Integer.MAX_VALUE && maxCauses == Integer.MAX_VALUE
+                && PRINTS_ITSELF.get(t.getClass())) {
+            StringWriter sw = new StringWriter(256);
+            PrintWriter pw = new PrintWriter(sw, false);
+            t.printStackTrace(pw);
+            pw.flush();
+            out.append(sw.getBuffer());
+            return;
+        }
+        walk(t, null, "", "", 0, null, out);
+    }
+
+    /** Print {@code t} and what it encloses to {@code out}. */
+    private void walk(Throwable t, StackTraceElement[] enclosingFrames, String caption,
+            String prefix, int causes, Set<Throwable> seen, StringBuilder out) {
+        String description = t.toString();
+        StackTraceElement[] frames = t.getStackTrace();
+
+        Throwable[] suppressed = t.getSuppressed();
+        Throwable cause = t.getCause();
+        if (seen == null && (suppressed.length > 0 || cause != null)) {
+            seen = Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+        }
+        if (seen != null) {
+            seen.add(t);
+        }
+
+        int m = frames.length - 1;
+        if (enclosingFrames != null) {
+            for (int n = enclosingFrames.length - 1;
+                    m >= 0 && n >= 0 && frames[m].equals(enclosingFrames[n]); m--, n--) {
+            }
+        }
+        int shown = Math.min(m + 1, maxFrames);
+        out.append(prefix).append(caption).append(description).append(LINE_SEPARATOR);
+        for (int i = 0; i < shown; i++) {
+            out.append(prefix).append("\tat ").append(frames[i]).append(LINE_SEPARATOR);
+        }
+        int omitted = frames.length - shown;
+        if (omitted != 0) {
+            out.append(prefix).append("\t... ").append(omitted).append(" more")
+                    .append(LINE_SEPARATOR);
+        }
+
+        for (Throwable s : suppressed) {
+            nested(s, frames, SUPPRESSED_CAPTION, prefix + "\t", 0, seen, out);
+        }
+        if (cause != null) {
+            if (causes < maxCauses) {
+                nested(cause, frames, CAUSE_CAPTION, prefix, causes + 1, seen, out);
+            } else {
+                int more = 0;
+                for (Throwable c = cause; c != null && !seen.contains(c); c = c.getCause()) {
+                    seen.add(c);
+                    more++;
+                }
+                out.append(prefix).append("... ").append(more)
+                        .append(more == 1 ? " more cause" : " more causes")
+                        .append(LINE_SEPARATOR);
+            }
+        }
+    }
+
+    private void nested(Throwable t, StackTraceElement[] enclosingFrames, String caption,
+            String prefix, int causes, Set<Throwable> seen, StringBuilder out) {
+        if (seen.contains(t)) {
+            out.append(prefix).append(caption).append(CIRCULAR).append(t).append(']')
+                    .append(LINE_SEPARATOR);
+        } else {
+            walk(t, enclosingFrames, caption, prefix, causes, seen, out);
+        }
+    }
+}
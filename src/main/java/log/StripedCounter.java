@@ -0,0 +1,48 @@
+package log;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter whose concurrent increments land on different cache lines depending on the calling
+ * thread, like {@code java.util.concurrent.atomic.LongAdder} on Java 8. Reads sum every stripe.
+ */
+final class StripedCounter {
+    /** Stripes per counter, a power of two. */
+    static final int STRIPES = stripes();
+    /** Longs per cache line, so that each stripe has a line to itself. */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    void increment() {
+        add(1);
+    }
+
+    void add(long delta) {
+        cells.getAndAdd(stripe() * PADDING, delta);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            cells.set(i * PADDING, 0);
+        }
+    }
+
+    /** Return the calling thread's stripe. Thread IDs are sequential, so they spread evenly. */
+    static int stripe() {
+        return (int) Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    private static int stripes() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+        return Integer.highestOneBit(Math.max(1, processors - 1) << 1); // The next power of two.
+    }
+}
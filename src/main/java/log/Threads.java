@@ -0,0 +1,20 @@
+package log;
+
+/**
+ * Tells what kind of thread is calling, so that per-thread caches can be skipped on threads that
+ * are too short-lived and too numerous to benefit from them.
+ * <p>
+ * This implementation only knows platform threads. On Java 21+ the multi-release JAR replaces it
+ * with one that recognizes virtual threads.
+ */
+final class Threads {
+
+    /** Return whether the calling thread is a virtual thread. */
+    static boolean isVirtual() {
+        return false;
+    }
+
+    private Threads() {
+        throw new AssertionError("No instances.");
+    }
+}
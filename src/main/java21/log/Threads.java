@@ -0,0 +1,19 @@
+package log;
+
+/**
+ * Tells what kind of thread is calling, so that per-thread caches can be skipped on threads that
+ * are too short-lived and too numerous to benefit from them.
+ * <p>
+ * Java 21+ implementation: virtual threads are recognized with {@link Thread#isVirtual()}.
+ */
+final class Threads {
+
+    /** Return whether the calling thread is a virtual thread. */
+    static boolean isVirtual() {
+        return Thread.currentThread().isVirtual();
+    }
+
+    private Threads() {
+        throw new AssertionError("No instances.");
+    }
+}
@@ -0,0 +1,40 @@
+package log;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Atomic access to native-order values in a direct {@link ByteBuffer}, such as one mapped from a
+ * file that other processes share. Indices must be aligned to the size of the value.
+ * <p>
+ * Java 9+ implementation: {@link VarHandle} views over the buffer.
+ */
+final class BufferAtomics {
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    static long getLongVolatile(ByteBuffer buffer, int index) {
+        return (long) LONGS.getVolatile(buffer, index);
+    }
+
+    static boolean compareAndSetLong(ByteBuffer buffer, int index, long expected, long value) {
+        return LONGS.compareAndSet(buffer, index, expected, value);
+    }
+
+    static int getIntVolatile(ByteBuffer buffer, int index) {
+        return (int) INTS.getVolatile(buffer, index);
+    }
+
+    /** Store {@code value} after all preceding writes to the buffer are visible. */
+    static void putIntRelease(ByteBuffer buffer, int index, int value) {
+        INTS.setRelease(buffer, index, value);
+    }
+
+    private BufferAtomics() {
+        throw new AssertionError("No instances.");
+    }
+}
@@ -0,0 +1,36 @@
+package log;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Looks up frames of the current thread's stack. Index 0 is the method calling into this class.
+ * <p>
+ * Java 9+ implementation: {@link StackWalker} materializes only the frames up to the one requested.
+ */
+final class StackFrames {
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    /** Return the class name of the frame at {@code index}, or null if the stack is too shallow. */
+    static String className(int index) {
+        StackWalker.StackFrame frame = WALKER.walk(frameAt(index)).orElse(null);
+        return frame != null ? frame.getClassName() : null;
+    }
+
+    /** Return the frame at {@code index}, or null if the stack is too shallow. */
+    static StackTraceElement element(int index) {
+        StackWalker.StackFrame frame = WALKER.walk(frameAt(index)).orElse(null);
+        return frame != null ? frame.toStackTraceElement() : null;
+    }
+
+    /** Skip this class's own frame plus {@code index} more, measured from the walk's caller. */
+    private static Function<Stream<StackWalker.StackFrame>, Optional<StackWalker.StackFrame>> frameAt(
+            int index) {
+        return frames -> frames.skip(index + 1).findFirst();
+    }
+
+    private StackFrames() {
+        throw new AssertionError("No instances.");
+    }
+}
@@ -0,0 +1,167 @@
+package log;
+
+import log.Logger.AsyncTree;
+import log.Logger.AsyncTree.OverflowPolicy;
+import log.Logger.AsyncTree.WaitStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncTreeTest {
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void deliversInOrderOnBackgroundThread() throws InterruptedException {
+        RecordingTree delegate = new RecordingTree();
+        AsyncTree tree = new AsyncTree(delegate);
+        Logger.plant(tree);
+
+        for (int i = 0; i < 100; i++) {
+            Logger.tag("Async").i("Message %d", i);
+        }
+        tree.shutdown();
+
+        assertThat(delegate.logs).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(delegate.logs.get(i)).isEqualTo("4 Async Message " + i);
+        }
+        assertThat(delegate.threads).doesNotContain(Thread.currentThread());
+        assertThat(tree.droppedCount()).isZero();
+    }
+
+    @Test public void infersTagFromDebugTreeDelegate() throws InterruptedException {
+        final List<String> tags = new CopyOnWriteArrayList<>();
+        AsyncTree tree = new AsyncTree(new Logger.DebugTree() {
+            @Override protected void print(int priority, String tag, String message, Throwable t) {
+                tags.add(tag);
+            }
+        });
+        Logger.plant(tree);
+
+        Logger.d("Hello, world!");
+        tree.shutdown();
+
+        assertThat(tags).containsExactly("AsyncTreeTest");
+    }
+
+    @Test public void delegateSeesLoggingThreadContext() throws InterruptedException {
+        final List<String> users = new CopyOnWriteArrayList<>();
+        AsyncTree tree = new AsyncTree(new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                users.add(LogContext.current().get("user"));
+            }
+        });
+        LogContext context = LogContext.current();
+        try {
+            context.put("user", "alice");
+            tree.i("First");
+            context.put("user", "bob");
+            tree.i("Second");
+            context.clear();
+            tree.i("Third");
+            tree.shutdown();
+        } finally {
+            context.clear();
+        }
+
+        assertThat(users).containsExactly("alice", "bob", null);
+    }
+
+    @Test public void dropNewestWhenFull() throws InterruptedException {
+        BlockingTree delegate = new BlockingTree();
+        AsyncTree tree = new AsyncTree(delegate, 2, WaitStrategy.SLEEPING, OverflowPolicy.DROP_NEWEST);
+        fillWhileConsumerBlocked(tree, delegate);
+
+        assertThat(delegate.logs).containsExactly("2 null 0", "2 null 1", "2 null 2");
+        assertThat(tree.droppedCount()).isEqualTo(2);
+    }
+
+    @Test public void dropOldestWhenFull() throws InterruptedException {
+        BlockingTree delegate = new BlockingTree();
+        AsyncTree tree = new AsyncTree(delegate, 2, WaitStrategy.YIELDING, OverflowPolicy.DROP_OLDEST);
+        fillWhileConsumerBlocked(tree, delegate);
+
+        assertThat(delegate.logs).containsExactly("2 null 0", "2 null 3", "2 null 4");
+        assertThat(tree.droppedCount()).isEqualTo(2);
+    }
+
+    @Test public void blockWaitsForSpace() throws InterruptedException {
+        RecordingTree delegate = new RecordingTree();
+        final AsyncTree tree = new AsyncTree(delegate, 4, WaitStrategy.BUSY_SPIN, OverflowPolicy.BLOCK);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        tree.v("Message");
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        tree.shutdown();
+
+        assertThat(delegate.logs).hasSize(4000);
+        assertThat(tree.droppedCount()).isZero();
+    }
+
+    @Test public void dropsAfterShutdown() throws InterruptedException {
+        RecordingTree delegate = new RecordingTree();
+        AsyncTree tree = new AsyncTree(delegate);
+        tree.shutdown();
+
+        tree.e("Too late");
+
+        assertThat(delegate.logs).isEmpty();
+        assertThat(tree.droppedCount()).isEqualTo(1);
+    }
+
+    /** Park the consumer inside the first event, then log four more into a buffer of two. */
+    private static void fillWhileConsumerBlocked(AsyncTree tree, BlockingTree delegate)
+            throws InterruptedException {
+        tree.v("0");
+        assertThat(delegate.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 4; i++) {
+            tree.v(String.valueOf(i));
+        }
+        delegate.release.countDown();
+        tree.shutdown();
+    }
+
+    private static class RecordingTree extends Logger.Tree {
+        final List<String> logs = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            logs.add(priority + " " + tag + " " + message);
+            threads.add(Thread.currentThread());
+        }
+    }
+
+    private static final class BlockingTree extends RecordingTree {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            super.log(priority, tag, message, t);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class BatchingTreeTest {
+    private final List<List<String>> batches =
+            Collections.synchronizedList(new ArrayList<List<String>>());
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void deliversFullBatches() {
+        RecordingTree tree = new RecordingTree(3, 0);
+        Logger.plant(tree);
+        for (int i = 1; i <= 7; i++) {
+            Logger.tag("T").i("Message %d", i);
+        }
+
+        assertThat(batches).containsExactly(
+                list("[INFO|T] Message 1", "[INFO|T] Message 2", "[INFO|T] Message 3"),
+                list("[INFO|T] Message 4", "[INFO|T] Message 5", "[INFO|T] Message 6"));
+
+        tree.flush();
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(2)).containsExactly("[INFO|T] Message 7");
+    }
+
+    @Test public void flushWithoutEventsDeliversNothing() {
+        RecordingTree tree = new RecordingTree(3, 0);
+        tree.flush();
+
+        assertThat(batches).isEmpty();
+    }
+
+    @Test public void deliversLingeringBatch() throws InterruptedException {
+        RecordingTree tree = new RecordingTree(100, 20);
+        Logger.plant(tree);
+        Logger.tag("T").w("One");
+        Logger.tag("T").e("Two");
+        for (int i = 0; i < 100 && batches.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(batches).containsExactly(list("[WARN|T] One", "[ERROR|T] Two"));
+        tree.close();
+    }
+
+    @Test public void eventsCarryTimestampAndThrowable() {
+        final List<LogEvent> copies = new ArrayList<>();
+        BatchingTree tree = new BatchingTree(10, 0) {
+            @Override protected void logBatch(List<LogEvent> events) {
+                for (LogEvent event : events) {
+                    assertThat(event.timestamp()).isPositive();
+                    assertThat(event.throwable()).isInstanceOf(IOException.class);
+                    copies.add(event);
+                }
+            }
+        };
+        Logger.plant(tree);
+        Logger.e(new IOException("Failed"), "Oops");
+        tree.flush();
+
+        assertThat(copies).hasSize(1);
+        assertThat(copies.get(0).throwable()).isNull(); // Recycled after delivery.
+    }
+
+    @Test public void retainingEventsCopiesThemAndRecyclingDoesNothing() {
+        final List<LogEvent> kept = new ArrayList<>();
+        BatchingTree tree = new BatchingTree(2, 0) {
+            @Override protected void logBatch(List<LogEvent> events) {
+                for (LogEvent event : events) {
+                    LogEvent retained = event.retain();
+                    assertThat(retained).isNotSameAs(event);
+                    kept.add(retained);
+                    event.recycle();
+                    assertThat(event.message()).isNotNull();
+                }
+            }
+        };
+        Logger.plant(tree);
+        Logger.tag("T").i("One");
+        Logger.tag("T").i("Two");
+        Logger.tag("T").i("Three");
+        Logger.tag("T").i("Four");
+
+        assertThat(kept).extracting("message").containsExactly("One", "Two", "Three", "Four");
+        for (LogEvent event : kept) {
+            event.recycle();
+        }
+        assertThat(kept.get(0).message()).isEqualTo("One");
+    }
+
+    @Test public void closeFlushesAndDropsLaterMessages() {
+        RecordingTree tree = new RecordingTree(10, 1000);
+        Logger.plant(tree);
+        Logger.tag("T").i("Before");
+        tree.close();
+        Logger.tag("T").i("After");
+        tree.flush();
+
+        assertThat(batches).containsExactly(list("[INFO|T] Before"));
+    }
+
+    @Test public void failureReachesCallerAndDiscardsBatch() {
+        BatchingTree tree = new BatchingTree(1, 0) {
+            @Override protected void logBatch(List<LogEvent> events) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        Logger.plant(tree);
+        try {
+            Logger.i("Message");
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("Cannot write batch");
+            assertThat(e.getCause()).hasMessage("Disk full");
+        }
+        tree.flush(); // Nothing left to deliver.
+    }
+
+    private static List<String> list(String... items) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, items);
+        return list;
+    }
+
+    private final class RecordingTree extends BatchingTree {
+        RecordingTree(int maxBatchSize, long maxLingerMillis) {
+            super(maxBatchSize, maxLingerMillis);
+        }
+
+        @Override protected void logBatch(List<LogEvent> events) {
+            List<String> batch = new ArrayList<>();
+            for (LogEvent event : events) {
+                batch.add(event.toString());
+            }
+            batches.add(batch);
+        }
+    }
+}
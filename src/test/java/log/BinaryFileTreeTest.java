@@ -0,0 +1,167 @@
+package log;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BinaryFileTreeTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StringBuilder printed = new StringBuilder();
+    /** Prints like a DebugTree, but without inferring tags, as BinaryFileTree does not. */
+    private final Logger.DebugTree printingTree = new Logger.DebugTree() {
+        @Override protected String createStackElementTag(StackTraceElement element) {
+            return null;
+        }
+
+        @Override protected void print(int priority, String tag, String message, Throwable t) {
+            printed.append(format(priority, tag, message))
+                    .append(System.getProperty("line.separator"));
+        }
+    };
+
+    @After public void tearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void decodesWhatDebugTreePrints() throws IOException {
+        File file = folder.newFile("app.bin");
+        BinaryFileTree tree = new BinaryFileTree(file);
+        Logger.plant(tree, printingTree);
+
+        Logger.tag("Tag").i("Hello, %s!", "world");
+        Logger.d("No args: %s");
+        Logger.v("%d %d %d %x %x %.2f %s %s %s %c %s", 1, -2L, (short) 3, (byte) -4, -5,
+                6.789, 7.5f, true, false, 'c', null);
+        Logger.i("Primitive %d", 42);
+        Logger.w("Unicode \u00e9 \u2603 \uD83D\uDE00");
+        Logger.w("Not encodable %s", new StringBuilder("builder"));
+        Logger.i("");
+        Logger.i(null);
+        Logger.e(newException());
+        Logger.tag("Tag").e(newException(), "Failed %d times", 3);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.append("chunk ").append(i).append(i % 100 == 0 ? '\n' : ' ');
+        }
+        Logger.i(builder.toString());
+        tree.close();
+
+        assertThat(decode(file)).isEqualTo(printed.toString());
+    }
+
+    @Test public void decodesAcrossBlocks() throws IOException {
+        File file = folder.newFile("app.bin");
+        BinaryFileTree tree = new BinaryFileTree(file, 1024);
+        Logger.plant(tree, printingTree);
+        for (int i = 0; i < 500; i++) {
+            Logger.tag("Tag" + i % 3).i("Message %d of %s", i, "many");
+            if (i == 250) {
+                // A record larger than a block.
+                Logger.i(new String(new char[5000]).replace('\0', 'x'));
+            }
+        }
+        tree.close();
+
+        assertThat(decode(file)).isEqualTo(printed.toString());
+    }
+
+    @Test public void isSmallerThanText() throws IOException {
+        File file = folder.newFile("app.bin");
+        BinaryFileTree tree = new BinaryFileTree(file);
+        Logger.plant(tree, printingTree);
+        for (int i = 0; i < 1000; i++) {
+            Logger.tag("Network").i("Request %d to %s took %d ms", i, "/users", i % 250);
+        }
+        tree.close();
+
+        assertThat(decode(file)).isEqualTo(printed.toString());
+        assertThat(file.length()).isLessThan(printed.length() / 2);
+    }
+
+    @Test public void writesErrorsImmediately() throws IOException {
+        File file = folder.newFile("app.bin");
+        BinaryFileTree tree = new BinaryFileTree(file);
+        tree.i("Buffered");
+        assertThat(file.length()).isZero();
+        tree.e("Urgent");
+        assertThat(decode(file)).isEqualTo(
+                "[INFO|null] Buffered" + System.getProperty("line.separator")
+                + "[ERROR|null] Urgent" + System.getProperty("line.separator"));
+        tree.close();
+    }
+
+    @Test public void skipsCorruptBlocks() throws IOException {
+        File file = folder.newFile("app.bin");
+        BinaryFileTree tree = new BinaryFileTree(file);
+        tree.i("First");
+        tree.flush();
+        long second = file.length();
+        tree.i("Second");
+        tree.flush();
+        tree.i("Third");
+        tree.flush();
+        long end = file.length();
+        tree.i("Torn");
+        tree.close();
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(second + BinaryFileTree.BLOCK_HEADER_SIZE + 10);
+            raf.write(0xFF);
+            raf.setLength(file.length() - 3);
+        } finally {
+            raf.close();
+        }
+        assertThat(end).isLessThan(file.length());
+
+        StringBuilder out = new StringBuilder();
+        int skipped = BinaryLogDecoder.decode(file, out, false);
+        assertThat(skipped).isEqualTo(2);
+        assertThat(out.toString()).isEqualTo(
+                "[INFO|null] First" + System.getProperty("line.separator")
+                + "[INFO|null] Third" + System.getProperty("line.separator"));
+    }
+
+    @Test public void decodesTimestamps() throws IOException {
+        File file = folder.newFile("app.bin");
+        BinaryFileTree tree = new BinaryFileTree(file);
+        tree.i("Hello");
+        tree.close();
+
+        StringBuilder out = new StringBuilder();
+        BinaryLogDecoder.decode(file, out, true);
+        assertThat(out.toString().trim())
+                .matches("\\d{4}-\\d\\d-\\d\\d \\d\\d:\\d\\d:\\d\\d\\.\\d{3} \\[INFO\\|null\\] Hello");
+    }
+
+    @Test public void dropsAfterClose() throws IOException {
+        File file = folder.newFile("app.bin");
+        BinaryFileTree tree = new BinaryFileTree(file);
+        tree.close();
+        tree.e("Dropped");
+
+        assertThat(file.length()).isZero();
+    }
+
+    private static Exception newException() {
+        IllegalStateException cause = new IllegalStateException("Cause");
+        Exception e = new RuntimeException("Top", cause);
+        e.addSuppressed(new IllegalArgumentException("Suppressed"));
+        cause.initCause(e); // Circular.
+        return e;
+    }
+
+    private static String decode(File file) throws IOException {
+        StringBuilder out = new StringBuilder();
+        assertThat(BinaryLogDecoder.decode(file, out, false)).isZero();
+        return out.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConsoleTreeTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final CapturingChannel out = new CapturingChannel();
+    private final CapturingChannel err = new CapturingChannel();
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void printsLinesToOutAndErr() throws IOException {
+        ConsoleTree tree = new ConsoleTree(out, err, UTF_8, 1024);
+        Logger.plant(tree);
+        Logger.tag("T\u00e5g").d("Hello, %s!", "world");
+        Logger.tag("T").w("Careful");
+        Logger.tag("T").e("Failed");
+        tree.flush();
+
+        assertThat(out.text()).isEqualTo(
+                "[DEBUG|T\u00e5g] Hello, world!" + NEWLINE + "[WARN|T] Careful" + NEWLINE);
+        assertThat(err.text()).isEqualTo("[ERROR|T] Failed" + NEWLINE);
+        tree.close();
+    }
+
+    @Test public void keepsOrderOfEachThread() throws Exception {
+        final ConsoleTree tree = new ConsoleTree(out, err, UTF_8, 256);
+        Logger.plant(tree);
+        final int threads = 8;
+        final int lines = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final String tag = "T" + t;
+            Thread worker = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    for (int i = 0; i < lines; i++) {
+                        Logger.tag(tag).i("Line %d", i);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        tree.close();
+
+        List<String> printed = Arrays.asList(out.text().split(NEWLINE));
+        assertThat(printed).hasSize(threads * lines);
+        int[] next = new int[threads];
+        for (String line : printed) {
+            int t = Integer.parseInt(line.substring("[INFO|T".length(), line.indexOf(']')));
+            assertThat(line).endsWith("] Line " + next[t]++);
+        }
+        assertThat(err.text()).isEmpty();
+    }
+
+    @Test public void writesLinesLongerThanBuffer() throws IOException {
+        ConsoleTree tree = new ConsoleTree(out, err, UTF_8, 64);
+        Logger.plant(tree);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            message.append(i % 10 == 0 ? '\u2603' : 'x');
+        }
+        Logger.tag("T").d(message.toString());
+        Logger.tag("T").d("Short");
+        tree.flush();
+
+        assertThat(out.text()).isEqualTo(
+                "[DEBUG|T] " + message + NEWLINE + "[DEBUG|T] Short" + NEWLINE);
+        tree.close();
+    }
+
+    @Test public void dropsLinesAfterClose() throws IOException {
+        ConsoleTree tree = new ConsoleTree(out, err, UTF_8, 1024);
+        Logger.plant(tree);
+        Logger.tag("T").d("Before");
+        tree.close();
+        Logger.tag("T").d("After");
+        tree.flush();
+        tree.close();
+
+        assertThat(out.text()).isEqualTo("[DEBUG|T] Before" + NEWLINE);
+    }
+
+    private static final class CapturingChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override public synchronized int write(ByteBuffer src) {
+            int count = src.remaining();
+            while (src.hasRemaining()) {
+                bytes.write(src.get());
+            }
+            return count;
+        }
+
+        synchronized String text() {
+            return new String(bytes.toByteArray(), UTF_8);
+        }
+
+        @Override public boolean isOpen() {
+            return true;
+        }
+
+        @Override public void close() {
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeduplicatingTreeTest {
+    private final List<String> logs = Collections.synchronizedList(new ArrayList<String>());
+    private final Logger.Tree recording = new Logger.Tree() {
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            logs.add(Logger.Priority.name(priority) + " " + tag + " " + message);
+        }
+    };
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void collapsesRepeatsUntilDifferentMessage() {
+        DeduplicatingTree tree = new DeduplicatingTree(recording, 60000);
+        Logger.plant(tree);
+        for (int i = 0; i < 5; i++) {
+            Logger.tag("Net").w("Connection to %s failed", "example.com");
+        }
+        Logger.tag("Net").w("Connected");
+        tree.close();
+
+        assertThat(logs).containsExactly(
+                "WARN Net Connection to example.com failed",
+                "WARN Net Last message repeated 4 times",
+                "WARN Net Connected");
+    }
+
+    @Test public void comparesArgumentsByValue() {
+        DeduplicatingTree tree = new DeduplicatingTree(recording, 60000);
+        Logger.plant(tree);
+        Logger.tag("T").i("Value %s %d", new String("a"), 100000);
+        Logger.tag("T").i("Value %s %d", new String("a"), 100000);
+        Logger.tag("T").i("Value %s %d", "a", 100001);
+        tree.close();
+
+        assertThat(logs).containsExactly(
+                "INFO T Value a 100000",
+                "INFO T Last message repeated 1 time",
+                "INFO T Value a 100001");
+    }
+
+    @Test public void priorityBreaksRun() {
+        DeduplicatingTree tree = new DeduplicatingTree(recording, 60000);
+        Logger.plant(tree);
+        Logger.tag("T").i("Message");
+        Logger.tag("T").w("Message");
+        Logger.tag("T").w("Message");
+        tree.close();
+
+        assertThat(logs).containsExactly(
+                "INFO T Message",
+                "WARN T Message",
+                "WARN T Last message repeated 1 time");
+    }
+
+    @Test public void immutableDuplicatesAreNotFormatted() {
+        final AtomicInteger formatted = new AtomicInteger();
+        Logger.Tree delegate = new Logger.Tree() {
+            @Override protected String formatMessage(String message, Object[] args) {
+                formatted.incrementAndGet();
+                return super.formatMessage(message, args);
+            }
+
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                logs.add(Logger.Priority.name(priority) + " " + tag + " " + message);
+            }
+        };
+        DeduplicatingTree tree = new DeduplicatingTree(delegate, 60000);
+        Logger.plant(tree);
+        for (int i = 0; i < 100; i++) {
+            Logger.tag("T").d("Hello %s %d", "arg", 7);
+        }
+
+        assertThat(formatted.get()).isEqualTo(1);
+        tree.close();
+        assertThat(logs).containsExactly(
+                "DEBUG T Hello arg 7",
+                "DEBUG T Last message repeated 99 times");
+    }
+
+    @Test public void comparesMutableArgumentsAsFormatted() {
+        DeduplicatingTree tree = new DeduplicatingTree(recording, 60000);
+        Logger.plant(tree);
+        StringBuilder state = new StringBuilder("state=1");
+        Logger.tag("T").i("%s", state);
+        Logger.tag("T").i("%s", state);
+        state.setLength(0);
+        state.append("state=2");
+        Logger.tag("T").i("%s", state);
+        tree.close();
+
+        assertThat(logs).containsExactly(
+                "INFO T state=1",
+                "INFO T Last message repeated 1 time",
+                "INFO T state=2");
+    }
+
+    @Test public void collapsesEquivalentExceptions() {
+        DeduplicatingTree tree = new DeduplicatingTree(recording, 60000);
+        Logger.plant(tree);
+        for (int i = 0; i < 3; i++) {
+            Logger.tag("T").e(failure("Refused"), "Retry failed");
+        }
+        Logger.tag("T").e(failure("Timed out"), "Retry failed");
+        tree.close();
+
+        assertThat(logs).hasSize(3);
+        assertThat(logs.get(0)).startsWith("ERROR T Retry failed\njava.io.IOException: Refused");
+        assertThat(logs.get(1)).isEqualTo("ERROR T Last message repeated 2 times");
+        assertThat(logs.get(2)).startsWith("ERROR T Retry failed\njava.io.IOException: Timed out");
+    }
+
+    @Test public void flushesWhenWindowExpires() throws InterruptedException {
+        DeduplicatingTree tree = new DeduplicatingTree(recording, 20);
+        Logger.plant(tree);
+        Logger.tag("T").i("Message");
+        Logger.tag("T").i("Message");
+        Logger.tag("T").i("Message");
+        for (int i = 0; i < 100 && logs.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Logger.tag("T").i("Message");
+        tree.close();
+
+        assertThat(logs).containsExactly(
+                "INFO T Message",
+                "INFO T Last message repeated 2 times",
+                "INFO T Message");
+    }
+
+    @Test public void builderMessagesAreNotCollapsed() {
+        DeduplicatingTree tree = new DeduplicatingTree(recording, 60000);
+        Logger.plant(tree);
+        Logger.tag("T");
+        Logger.atInfo().with("id", 1).log("Message");
+        Logger.tag("T");
+        Logger.atInfo().with("id", 1).log("Message");
+        tree.close();
+
+        assertThat(logs).containsExactly("INFO T Message id=1", "INFO T Message id=1");
+    }
+
+    @Test public void infersTagsThroughDelegate() {
+        final List<String> tags = new ArrayList<>();
+        DeduplicatingTree tree = new DeduplicatingTree(new Logger.DebugTree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                tags.add(tag);
+            }
+        });
+        Logger.plant(tree);
+        Logger.i("Hello");
+        tree.close();
+
+        assertThat(tags).containsExactly("DeduplicatingTreeTest");
+    }
+
+    private static Exception failure(String message) {
+        return new java.io.IOException(message);
+    }
+}
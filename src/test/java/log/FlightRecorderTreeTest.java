@@ -0,0 +1,115 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecorderTreeTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void dumpsDebugMessagesOnError() {
+        RecordingTree delegate = new RecordingTree();
+        Logger.plant(new FlightRecorderTree(delegate, 4096));
+        Logger.tag("A").v("Starting %s", "up");
+        Logger.tag("B").d("Step %d", 1);
+        Logger.tag("C").i("Ignored");
+        Logger.tag("D").w("Ignored");
+        assertThat(delegate.logs).isEmpty();
+
+        Logger.tag("E").e("Failed");
+        assertThat(delegate.logs).containsExactly("VERBOSE A Starting up", "DEBUG B Step 1");
+
+        Logger.tag("F").wtf("Failed again");
+        assertThat(delegate.logs).hasSize(2);
+    }
+
+    @Test public void keepsMostRecentMessages() throws IOException {
+        RecordingTree delegate = new RecordingTree();
+        FlightRecorderTree tree = new FlightRecorderTree(delegate, 4096);
+        Logger.plant(tree);
+        for (int i = 0; i < 1000; i++) {
+            Logger.tag("T").d("Message %d", i);
+        }
+        tree.dump();
+
+        assertThat(delegate.logs.size()).isBetween(100, 999);
+        assertThat(delegate.logs.get(delegate.logs.size() - 1)).isEqualTo("DEBUG T Message 999");
+        int first = Integer.parseInt(delegate.logs.get(0).substring("DEBUG T Message ".length()));
+        for (int i = 0; i < delegate.logs.size(); i++) {
+            assertThat(delegate.logs.get(i)).isEqualTo("DEBUG T Message " + (first + i));
+        }
+    }
+
+    @Test public void truncatesLongMessages() throws IOException {
+        RecordingTree delegate = new RecordingTree();
+        FlightRecorderTree tree = new FlightRecorderTree(delegate, 4096);
+        Logger.plant(tree);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            message.append("\u00e9\u2603");
+        }
+        Logger.tag(null).d(message.toString());
+        tree.dump();
+
+        assertThat(delegate.logs).hasSize(1);
+        String logged = delegate.logs.get(0);
+        assertThat(logged).startsWith("DEBUG null \u00e9\u2603");
+        assertThat(message.toString()).startsWith(logged.substring("DEBUG null ".length()));
+        assertThat(logged.length()).isLessThan(1024);
+    }
+
+    @Test public void dumpForgetsMessages() throws IOException {
+        RecordingTree delegate = new RecordingTree();
+        FlightRecorderTree tree = new FlightRecorderTree(delegate, 4096);
+        Logger.plant(tree);
+        Logger.tag("T").d("One");
+        tree.dump();
+        tree.dump();
+        Logger.tag("T").d("Two");
+        tree.clear();
+        tree.dump();
+
+        assertThat(delegate.logs).containsExactly("DEBUG T One");
+    }
+
+    @Test public void appendsDumpsToFile() throws IOException {
+        File file = new File(folder.getRoot(), "dump.log");
+        FlightRecorderTree tree = new FlightRecorderTree(file, 4096);
+        Logger.plant(tree);
+        Logger.tag("T\u00e5g").d("Hello, %s!", "world");
+        Logger.e("Failed");
+        Logger.tag("T").v("Again");
+        tree.dump();
+
+        List<String> lines = Files.readAllLines(file.toPath(), UTF_8);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).matches(
+                "\\d{4}-\\d\\d-\\d\\d \\d\\d:\\d\\d:\\d\\d\\.\\d{3} \\[DEBUG\\|T\u00e5g\\] Hello, world!");
+        assertThat(lines.get(1)).endsWith(" [VERBOSE|T] Again");
+    }
+
+    private static final class RecordingTree extends Logger.Tree {
+        final List<String> logs = new ArrayList<>();
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            logs.add(Logger.Priority.name(priority) + " " + tag + " " + message);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonTreeTest {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+        LogContext.current().clear();
+    }
+
+    @Test public void writesOneObjectPerLine() {
+        Logger.plant(new JsonTree(out));
+        Logger.i("Hello, %s!", "world");
+        Logger.tag("Custom").w("Second");
+
+        assertThat(output()).isEqualTo(""
+                + "{\"timestamp\":0,\"priority\":\"INFO\",\"tag\":\"JsonTreeTest\","
+                + "\"thread\":\"main\",\"message\":\"Hello, world!\"}\n"
+                + "{\"timestamp\":0,\"priority\":\"WARN\",\"tag\":\"Custom\","
+                + "\"thread\":\"main\",\"message\":\"Second\"}\n");
+    }
+
+    @Test public void escapesStrings() {
+        Logger.plant(new JsonTree(out));
+        Logger.tag("a\"b").i("quote \" backslash \\ newline \n tab \t bell \u0007 "
+                + "caf\u00e9 snowman \u2603 emoji \uD83D\uDE00 lone \uD83D end");
+
+        assertThat(output()).isEqualTo("{\"timestamp\":0,\"priority\":\"INFO\",\"tag\":\"a\\\"b\","
+                + "\"thread\":\"main\",\"message\":\"quote \\\" backslash \\\\ newline \\n "
+                + "tab \\t bell \\u0007 caf\u00e9 snowman \u2603 emoji \uD83D\uDE00 lone ? end\"}\n");
+    }
+
+    @Test public void writesContextAndFields() {
+        Logger.plant(new JsonTree(out));
+        LogContext.current().put("request", "42");
+        Logger.atInfo().with("count", 3).with("big", Long.MIN_VALUE).with("ratio", 0.1f)
+                .with("nan", Double.NaN).with("ok", false).with("who", "al\"ice")
+                .with("none", null).log("done");
+
+        assertThat(output()).isEqualTo("{\"timestamp\":0,\"priority\":\"INFO\","
+                + "\"tag\":\"JsonTreeTest\",\"thread\":\"main\",\"message\":\"done\","
+                + "\"context\":{\"request\":\"42\"},"
+                + "\"fields\":{\"count\":3,\"big\":-9223372036854775808,\"ratio\":0.1,"
+                + "\"nan\":\"NaN\",\"ok\":false,\"who\":\"al\\\"ice\",\"none\":null}}\n");
+    }
+
+    @Test public void streamsThrowableFrames() {
+        Logger.plant(new JsonTree(out));
+        IllegalStateException cause = new IllegalStateException("Cause");
+        cause.setStackTrace(new StackTraceElement[] {
+                new StackTraceElement("com.example.Foo", "bar", "Foo.java", 12),
+                new StackTraceElement("com.example.Foo", "run", null, -2),
+        });
+        RuntimeException e = new RuntimeException("Top", cause);
+        e.setStackTrace(new StackTraceElement[0]);
+        e.addSuppressed(cause);
+        Logger.e(e, "Failed %d times", 3);
+        Logger.e(cause);
+
+        assertThat(output()).isEqualTo("{\"timestamp\":0,\"priority\":\"ERROR\","
+                + "\"tag\":\"JsonTreeTest\",\"thread\":\"main\",\"message\":\"Failed 3 times\","
+                + "\"throwable\":{\"class\":\"java.lang.RuntimeException\",\"message\":\"Top\","
+                + "\"frames\":[],\"suppressed\":[{\"class\":\"java.lang.IllegalStateException\","
+                + "\"message\":\"Cause\",\"frames\":["
+                + "{\"class\":\"com.example.Foo\",\"method\":\"bar\",\"file\":\"Foo.java\",\"line\":12},"
+                + "{\"class\":\"com.example.Foo\",\"method\":\"run\",\"file\":null,\"line\":-2}]}],"
+                + "\"cause\":{\"class\":\"java.lang.IllegalStateException\",\"circular\":true}}}\n"
+                + "{\"timestamp\":0,\"priority\":\"ERROR\","
+                + "\"tag\":\"JsonTreeTest\",\"thread\":\"main\",\"message\":null,"
+                + "\"throwable\":{\"class\":\"java.lang.IllegalStateException\","
+                + "\"message\":\"Cause\",\"frames\":["
+                + "{\"class\":\"com.example.Foo\",\"method\":\"bar\",\"file\":\"Foo.java\",\"line\":12},"
+                + "{\"class\":\"com.example.Foo\",\"method\":\"run\",\"file\":null,\"line\":-2}]}}\n");
+    }
+
+    @Test public void growsBufferForLongMessages() {
+        Logger.plant(new JsonTree(out));
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            message.append((char) ('a' + i % 26));
+        }
+        Logger.i(message.toString());
+        Logger.i("Short");
+
+        String[] lines = output().split("\n");
+        assertThat(lines[0]).contains(message);
+        assertThat(lines[1]).endsWith("\"message\":\"Short\"}");
+    }
+
+    @Test public void ignoresEmptyMessages() {
+        Logger.plant(new JsonTree(out));
+        Logger.i("");
+        Logger.i(null);
+
+        assertThat(out.size()).isZero();
+    }
+
+    private String output() {
+        String output = new String(out.toByteArray(), Charset.forName("UTF-8"));
+        return output.replaceAll("\"timestamp\":\\d+", "\"timestamp\":0")
+                .replace("\"thread\":\"" + Thread.currentThread().getName() + "\"",
+                        "\"thread\":\"main\"");
+    }
+}
@@ -0,0 +1,184 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class LogBuilderTest {
+    private final List<String> logs = new ArrayList<>();
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void plainTreesReceiveFieldsAsText() {
+        Logger.plant(new RecordingTree());
+        Logger.atInfo().with("userId", 42).with("latencyMs", 17L).with("ratio", 0.5f)
+                .with("score", 1.25).with("cached", true).with("path", "/users").with("none", null)
+                .log("request done");
+
+        assertThat(logs).containsExactly(
+                "INFO null request done userId=42 latencyMs=17 ratio=0.5 score=1.25 cached=true "
+                        + "path=/users none=null");
+    }
+
+    @Test public void formatsMessageArgs() {
+        Logger.plant(new RecordingTree());
+        Logger.atWarn().with("attempt", 3).log("Failed %s after %d ms", "fetch", 250);
+        Logger.atDebug().log("No fields");
+
+        assertThat(logs).containsExactly(
+                "WARN null Failed fetch after 250 ms attempt=3",
+                "DEBUG null No fields");
+    }
+
+    @Test public void fieldsPrecedeStackTrace() {
+        Logger.plant(new RecordingTree());
+        Logger.atError().withCause(new RuntimeException("Boom")).with("id", 1).log("Failed");
+        Logger.atError().withCause(new RuntimeException("Bare")).log(null);
+
+        assertThat(logs.get(0)).startsWith("ERROR null Failed id=1\njava.lang.RuntimeException: Boom");
+        assertThat(logs.get(1)).startsWith("ERROR null java.lang.RuntimeException: Bare");
+    }
+
+    @Test public void structuredTreesReceiveRawFields() {
+        final List<Object> received = new ArrayList<>();
+        Logger.plant(new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                throw new AssertionError();
+            }
+
+            @Override protected void log(int priority, String tag, String message, Throwable t,
+                    LogFields fields) {
+                received.add(message);
+                received.add(t);
+                for (int i = 0; i < fields.size(); i++) {
+                    received.add(fields.keyAt(i));
+                    received.add(fields.typeAt(i));
+                    received.add(fields.valueAt(i));
+                }
+                assertThat(fields.longAt(0)).isEqualTo(42);
+                assertThat(fields.doubleAt(1)).isEqualTo(1.5);
+                assertThat(fields.booleanAt(2)).isTrue();
+                try {
+                    fields.longAt(1);
+                    fail();
+                } catch (IllegalStateException expected) {
+                }
+            }
+        });
+        Exception e = new RuntimeException();
+        Logger.atInfo().withCause(e).with("id", 42).with("ms", 1.5).with("ok", true)
+                .with("who", "alice").log("done");
+
+        assertThat(received).containsExactly("done", e,
+                "id", LogFields.INT, 42,
+                "ms", LogFields.DOUBLE, 1.5,
+                "ok", LogFields.BOOLEAN, true,
+                "who", LogFields.OBJECT, "alice");
+    }
+
+    @Test public void debugTreeInfersTag() {
+        Logger.plant(new Logger.DebugTree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                logs.add(tag + " " + message);
+            }
+        });
+        Logger.atInfo().with("a", 1).log("Hello");
+        Logger.atInfo().log("Hello %s", "world");
+        Logger.atInfo().tag("Custom").log("Tagged");
+        Logger.tag("OneShot");
+        Logger.atInfo().log("Tagged");
+
+        assertThat(logs).containsExactly(
+                "LogBuilderTest Hello a=1",
+                "LogBuilderTest Hello world",
+                "Custom Tagged",
+                "OneShot Tagged");
+    }
+
+    @Test public void respectsIsLoggable() {
+        Logger.plant(new RecordingTree() {
+            @Override protected boolean isLoggable(String tag, int priority) {
+                return priority >= Logger.Priority.WARN;
+            }
+        });
+        Logger.atInfo().with("a", 1).log("Dropped");
+        Logger.atWtf().with("a", 1).log("Kept");
+
+        assertThat(logs).containsExactly("ASSERT null Kept a=1");
+    }
+
+    @Test public void noOpBuilderWithoutTrees() {
+        LogBuilder builder = Logger.atInfo();
+        assertThat(builder).isSameAs(Logger.atError());
+        builder.with("a", 1).with("b", "c").log("Ignored");
+
+        Logger.tag("Unused");
+        Logger.atInfo().log("Ignored");
+        Logger.plant(new RecordingTree());
+        Logger.i("Next");
+        assertThat(logs).containsExactly("INFO null Next");
+    }
+
+    @Test public void builderIsReusedAndReset() {
+        Logger.plant(new RecordingTree());
+        LogBuilder builder = Logger.atInfo();
+        builder.with("a", 1).withCause(new RuntimeException()).log("First");
+        LogBuilder second = Logger.atVerbose();
+        assertThat(second).isSameAs(builder);
+        second.with("b", 2).log("Second");
+
+        assertThat(logs.get(1)).isEqualTo("VERBOSE null Second b=2");
+    }
+
+    @Test public void treesMayLogWithBuildersWhileLogging() {
+        Logger.plant(new RecordingTree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                super.log(priority, tag, message, t);
+                if (priority == Logger.Priority.INFO) {
+                    Logger.atDebug().with("nested", true).log("Inner");
+                }
+            }
+        });
+        Logger.atInfo().with("outer", 1).with("second", 2).log("Outer");
+
+        assertThat(logs).containsExactly(
+                "INFO null Outer outer=1 second=2",
+                "DEBUG null Inner nested=true");
+    }
+
+    @Test public void fieldsMayLogWhileBuilding() {
+        Logger.plant(new RecordingTree());
+        Logger.atError().with("a", 1).with("b", compute()).log("x");
+
+        assertThat(logs).containsExactly("INFO null Computing", "ERROR null x a=1 b=2");
+    }
+
+    private static int compute() {
+        Logger.atInfo().log("Computing");
+        return 2;
+    }
+
+    @Test public void rejectsNullKey() {
+        Logger.plant(new RecordingTree());
+        try {
+            Logger.atInfo().with(null, 1);
+            fail();
+        } catch (NullPointerException e) {
+            assertThat(e).hasMessage("key == null");
+        }
+    }
+
+    private class RecordingTree extends Logger.Tree {
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            logs.add(Logger.Priority.name(priority) + " " + tag + " " + message);
+        }
+    }
+}
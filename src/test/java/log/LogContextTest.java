@@ -0,0 +1,133 @@
+package log;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class LogContextTest {
+    private final LogContext context = LogContext.current();
+
+    @After public void tearDown() {
+        context.clear();
+        Logger.uprootAll();
+    }
+
+    @Test public void putGetAndRemove() {
+        context.put("user", "alice");
+        context.put("request", "42");
+        context.put("user", "bob");
+
+        assertThat(context.size()).isEqualTo(2);
+        assertThat(context.get("user")).isEqualTo("bob");
+        assertThat(context.keyAt(1)).isEqualTo("request");
+        assertThat(context.valueAt(1)).isEqualTo("42");
+
+        context.remove("user");
+        assertThat(context.size()).isEqualTo(1);
+        assertThat(context.get("user")).isNull();
+        assertThat(context.keyAt(0)).isEqualTo("request");
+    }
+
+    @Test public void growsPastInitialCapacity() {
+        for (int i = 0; i < 20; i++) {
+            context.put("key" + i, "value" + i);
+        }
+        assertThat(context.size()).isEqualTo(20);
+        assertThat(context.get("key19")).isEqualTo("value19");
+    }
+
+    @Test public void rejectsNulls() {
+        try {
+            context.put(null, "value");
+            fail();
+        } catch (NullPointerException e) {
+            assertThat(e).hasMessage("key == null");
+        }
+        try {
+            context.put("key", null);
+            fail();
+        } catch (NullPointerException e) {
+            assertThat(e).hasMessage("value == null");
+        }
+    }
+
+    @Test public void snapshotIsReusedUntilModified() {
+        assertThat(context.snapshot()).isSameAs(LogContext.Snapshot.EMPTY);
+
+        context.put("user", "alice");
+        LogContext.Snapshot first = context.snapshot();
+        assertThat(context.snapshot()).isSameAs(first);
+
+        context.put("user", "bob");
+        LogContext.Snapshot second = context.snapshot();
+        assertThat(second).isNotSameAs(first);
+        assertThat(first.get("user")).isEqualTo("alice");
+        assertThat(second.get("user")).isEqualTo("bob");
+    }
+
+    @Test public void restoreOnAnotherThread() throws InterruptedException {
+        context.put("user", "alice");
+        final LogContext.Snapshot snapshot = context.snapshot();
+        final List<String> seen = new ArrayList<>();
+        Thread thread = new Thread() {
+            @Override public void run() {
+                LogContext other = LogContext.current();
+                seen.add(other.get("user"));
+                other.restore(snapshot);
+                seen.add(other.get("user"));
+                seen.add(other.snapshot() == snapshot ? "same" : "copied");
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertThat(seen).containsExactly(null, "alice", "same");
+    }
+
+    @Test public void treesReadContextInPlace() {
+        final List<String> logs = new ArrayList<>();
+        Logger.plant(new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                LogContext context = LogContext.current();
+                StringBuilder sb = new StringBuilder(message);
+                for (int i = 0; i < context.size(); i++) {
+                    sb.append(' ').append(context.keyAt(i)).append('=').append(context.valueAt(i));
+                }
+                logs.add(sb.toString());
+            }
+        });
+
+        context.put("user", "alice");
+        context.put("request", "42");
+        Logger.i("Done");
+
+        assertThat(logs).containsExactly("Done user=alice request=42");
+    }
+
+    @Test public void forgetsSharedStateAfterCall() throws InterruptedException {
+        Logger.plant(new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+            }
+        });
+        Object arg = new Object();
+        Throwable t = new RuntimeException();
+        WeakReference<Object> argRef = new WeakReference<>(arg);
+        WeakReference<Throwable> tRef = new WeakReference<>(t);
+        Logger.e(t, "Failed with %s", arg);
+        arg = null;
+        t = null;
+
+        for (int i = 0; i < 10 && (argRef.get() != null || tRef.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(argRef.get()).isNull();
+        assertThat(tRef.get()).isNull();
+    }
+}
@@ -0,0 +1,199 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogEventTest {
+    private final List<LogEvent> events = new ArrayList<>();
+    private final List<String> logs = new ArrayList<>();
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void receivesTemplateAndArguments() {
+        final List<String> seen = new ArrayList<>();
+        Logger.plant(new Logger.Tree() {
+            @Override protected void log(LogEvent event) {
+                seen.add(event.priority() + " " + event.tag() + " " + event.template() + " "
+                        + event.args().length + " " + (event.timestamp() > 0));
+            }
+
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                throw new AssertionError();
+            }
+        });
+        Logger.tag("T").w("Hello %s %d", "world", 42);
+
+        assertThat(seen).containsExactly("5 T Hello %s %d 2 true");
+    }
+
+    @Test public void formatsOnlyWhenAsked() {
+        final AtomicInteger formatted = new AtomicInteger();
+        Object arg = new Object() {
+            @Override public String toString() {
+                formatted.incrementAndGet();
+                return "arg";
+            }
+        };
+        final List<String> messages = new ArrayList<>();
+        Logger.plant(new EventTree() {
+            @Override protected void log(LogEvent event) {
+                if (event.priority() >= Logger.Priority.WARN) {
+                    messages.add(event.message());
+                    messages.add(event.message());
+                }
+            }
+        });
+        Logger.d("Skipped %s", arg);
+        assertThat(formatted.get()).isZero();
+
+        Logger.w("Kept %s", arg);
+        assertThat(formatted.get()).isEqualTo(1);
+        assertThat(messages).containsExactly("Kept arg", "Kept arg");
+    }
+
+    @Test public void formatsWithTreeFormatMessage() {
+        final List<String> messages = new ArrayList<>();
+        Logger.plant(new EventTree() {
+            @Override protected String formatMessage(String message, Object[] args) {
+                return "custom " + message;
+            }
+
+            @Override protected void log(LogEvent event) {
+                messages.add(event.message());
+            }
+        });
+        Logger.i("Hello %s", "world");
+
+        assertThat(messages).containsExactly("custom Hello %s");
+    }
+
+    @Test public void eventsAreReused() {
+        Logger.plant(new EventTree() {
+            @Override protected void log(LogEvent event) {
+                events.add(event);
+            }
+        });
+        Logger.i("One");
+        Logger.i("Two");
+
+        assertThat(events.get(1)).isSameAs(events.get(0));
+        assertThat(events.get(1).template()).isNull(); // Recycled.
+    }
+
+    @Test public void retainedEventsStayValid() {
+        Logger.plant(new EventTree() {
+            @Override protected void log(LogEvent event) {
+                events.add(event.retain());
+            }
+        });
+        Logger.i("One %d", 1);
+        Logger.i("Two %d", 2);
+
+        assertThat(events.get(1)).isNotSameAs(events.get(0));
+        assertThat(events.get(0).message()).isEqualTo("One 1");
+        assertThat(events.get(1).message()).isEqualTo("Two 2");
+        events.get(0).recycle();
+        events.get(1).recycle();
+    }
+
+    @Test public void eventRecycledOnAnotherThreadIsNotReleasedTwice() throws Exception {
+        final CountDownLatch reused = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final Thread[] other = new Thread[1];
+        final List<String> seen = Collections.synchronizedList(new ArrayList<String>());
+        Logger.plant(new EventTree() {
+            @Override protected void log(LogEvent event) {
+                if (event.template().equals("Handed off")) {
+                    final LogEvent retained = event.retain();
+                    other[0] = new Thread(new Runnable() {
+                        @Override public void run() {
+                            retained.recycle();
+                            Logger.i("Reused"); // Obtains the same event from this thread.
+                        }
+                    });
+                    other[0].start();
+                    await(reused);
+                } else {
+                    reused.countDown();
+                    await(released); // The first call releases its reference meanwhile.
+                    seen.add(event.template());
+                }
+            }
+        });
+        Logger.i("Handed off");
+        released.countDown();
+        other[0].join();
+
+        assertThat(seen).containsExactly("Reused");
+    }
+
+    @Test public void recyclingTwiceDoesNotShareEvent() {
+        LogEvent event = obtain("One");
+        event.recycle();
+        event.recycle();
+
+        LogEvent first = obtain("Two");
+        LogEvent second = obtain("Three");
+        assertThat(second).isNotSameAs(first);
+        first.recycle();
+        second.recycle();
+    }
+
+    @Test public void defaultAppendsStackTrace() {
+        Logger.plant(new Logger.Tree() {
+            @Override protected void log(LogEvent event) {
+                assertThat(event.message()).isEqualTo("Failed 1");
+                super.log(event);
+            }
+
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                logs.add(message);
+            }
+        });
+        Logger.e(new IOException("Boom"), "Failed %d", 1);
+
+        assertThat(logs).hasSize(1);
+        assertThat(logs.get(0)).startsWith("Failed 1\njava.io.IOException: Boom");
+    }
+
+    @Test public void emptyMessageWithoutThrowableIsSwallowed() {
+        Logger.plant(new EventTree() {
+            @Override protected void log(LogEvent event) {
+                events.add(event);
+            }
+        });
+        Logger.i("");
+
+        assertThat(events).isEmpty();
+    }
+
+    private abstract static class EventTree extends Logger.Tree {
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            throw new AssertionError();
+        }
+    }
+
+    private static LogEvent obtain(String message) {
+        return LogEvent.obtain(null, Logger.Priority.INFO, "T", null, message, new Object[0]);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
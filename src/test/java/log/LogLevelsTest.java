@@ -0,0 +1,135 @@
+package log;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class LogLevelsTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @After public void tearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void logsEverythingWithoutRules() {
+        LogLevels levels = new LogLevels();
+
+        assertThat(levels.level("Foo")).isEqualTo(Logger.Priority.VERBOSE);
+        assertThat(levels.level(null)).isEqualTo(Logger.Priority.VERBOSE);
+        assertThat(levels.isLoggable("Foo", Logger.Priority.VERBOSE)).isTrue();
+    }
+
+    @Test public void dottedRulesApplyToDescendants() {
+        LogLevels levels = new LogLevels()
+                .setLevel("com.example", Logger.Priority.WARN)
+                .setLevel("com.example.Noisy", Logger.Priority.ERROR);
+
+        assertThat(levels.level("com.example")).isEqualTo(Logger.Priority.WARN);
+        assertThat(levels.level("com.example.Foo")).isEqualTo(Logger.Priority.WARN);
+        assertThat(levels.level("com.example.Noisy")).isEqualTo(Logger.Priority.ERROR);
+        assertThat(levels.level("com.example.Noisy.Inner")).isEqualTo(Logger.Priority.ERROR);
+        assertThat(levels.level("com.examples")).isEqualTo(Logger.Priority.VERBOSE);
+        assertThat(levels.level("com")).isEqualTo(Logger.Priority.VERBOSE);
+    }
+
+    @Test public void prefixRules() {
+        LogLevels levels = new LogLevels()
+                .setLevel("*", Logger.Priority.INFO)
+                .setLevel("Net*", Logger.Priority.WARN)
+                .setLevel("NetClient", LogLevels.OFF);
+
+        assertThat(levels.level(null)).isEqualTo(Logger.Priority.INFO);
+        assertThat(levels.level("Foo")).isEqualTo(Logger.Priority.INFO);
+        assertThat(levels.level("Network")).isEqualTo(Logger.Priority.WARN);
+        assertThat(levels.level("NetClient")).isEqualTo(LogLevels.OFF);
+        assertThat(levels.isLoggable("NetClient", Logger.Priority.ASSERT)).isFalse();
+    }
+
+    @Test public void changesApplyToResolvedTags() {
+        LogLevels levels = new LogLevels();
+        assertThat(levels.level("Foo")).isEqualTo(Logger.Priority.VERBOSE);
+
+        levels.setLevel("Foo", Logger.Priority.ERROR);
+        assertThat(levels.level("Foo")).isEqualTo(Logger.Priority.ERROR);
+
+        levels.clearLevel("Foo");
+        assertThat(levels.level("Foo")).isEqualTo(Logger.Priority.VERBOSE);
+    }
+
+    @Test public void loadReplacesRules() {
+        LogLevels levels = new LogLevels().setLevel("Old", Logger.Priority.ERROR);
+        Properties properties = new Properties();
+        properties.setProperty("*", "warn");
+        properties.setProperty("Chatty", "OFF");
+        levels.load(properties);
+
+        assertThat(levels.level("Old")).isEqualTo(Logger.Priority.WARN);
+        assertThat(levels.level("Chatty")).isEqualTo(LogLevels.OFF);
+    }
+
+    @Test public void rejectsUnknownPriority() {
+        Properties properties = new Properties();
+        properties.setProperty("Foo", "LOUD");
+        try {
+            new LogLevels().load(properties);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e).hasMessage("Unknown priority: LOUD");
+        }
+    }
+
+    @Test public void treeFiltersByLevels() {
+        final List<String> logs = new ArrayList<>();
+        Logger.Tree tree = new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                logs.add(tag + " " + message);
+            }
+        };
+        tree.setLevels(new LogLevels().setLevel("Quiet", Logger.Priority.ERROR));
+        Logger.plant(tree);
+        Logger.tag("Quiet").w("Dropped");
+        Logger.tag("Quiet").e("Kept");
+        Logger.tag("Loud").d("Also kept");
+
+        assertThat(logs).containsExactly("Quiet Kept", "Loud Also kept");
+    }
+
+    @Test public void watchReloadsFile() throws IOException, InterruptedException {
+        File file = temporaryFolder.newFile("levels.properties");
+        write(file, "Foo=INFO\n");
+        LogLevels levels = new LogLevels();
+        Closeable watch = levels.watch(file);
+        try {
+            assertThat(levels.level("Foo")).isEqualTo(Logger.Priority.INFO);
+
+            write(file, "Foo=ERROR\n");
+            for (int i = 0; i < 500 && levels.level("Foo") != Logger.Priority.ERROR; i++) {
+                Thread.sleep(20);
+            }
+            assertThat(levels.level("Foo")).isEqualTo(Logger.Priority.ERROR);
+        } finally {
+            watch.close();
+        }
+    }
+
+    private static void write(File file, String text) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
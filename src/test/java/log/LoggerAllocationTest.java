@@ -0,0 +1,80 @@
+package log;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoggerAllocationTest {
+    private static final int CALLS = 10000;
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void disabledCallsWithoutTreesDoNotAllocate() {
+        assertThat(bytesPerCall(new DisabledCalls())).isZero();
+    }
+
+    @Test public void disabledCallsFilteredByIsLoggableDoNotAllocate() {
+        Logger.plant(new Logger.Tree() {
+            @Override protected boolean isLoggable(String tag, int priority) {
+                return priority >= Logger.Priority.ERROR;
+            }
+
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                throw new AssertionError("Logged " + message);
+            }
+        });
+
+        assertThat(bytesPerCall(new DisabledCalls())).isZero();
+    }
+
+    /** Allocated bytes per call of {@code calls}, less the cost of measuring. */
+    private static long bytesPerCall(Runnable calls) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+
+        calls.run(); // Warm up lazily initialized state such as thread locals.
+        long start = threads.getThreadAllocatedBytes(id);
+        long overhead = threads.getThreadAllocatedBytes(id) - start;
+        start = threads.getThreadAllocatedBytes(id);
+        calls.run();
+        long allocated = threads.getThreadAllocatedBytes(id) - start - overhead;
+        return allocated / CALLS;
+    }
+
+    private static final class DisabledCalls implements Runnable {
+        private final Object object = new Object();
+
+        @Override public void run() {
+            for (int i = 0; i < CALLS; i++) {
+                int value = 100000 + i;
+                Logger.v("%d", value);
+                Logger.d("%d", (long) value);
+                Logger.i("%s", (float) value);
+                Logger.w("%s", (double) value);
+                Logger.v("%s", value % 2 == 0);
+                Logger.d("%s", (char) value);
+                Logger.i("%x", (byte) value);
+                Logger.w("%x", (short) value);
+                Logger.i("%s", object);
+                Logger.w("%s %s", object, object);
+                Logger.v("%s %s %s", object, object, object);
+                Logger.d("%s %s %s %s", object, object, object, object);
+                Logger.log(Logger.Priority.DEBUG, "%d", value);
+                Logger.atDebug().with("value", value).with("long", (long) value)
+                        .with("double", (double) value).with("object", object).log("message");
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoggerMetricsTest {
+    private final Logger.Tree quiet = new Logger.Tree() {
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+        }
+
+        @Override public String toString() {
+            return "quiet";
+        }
+    };
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+        Logger.disableMetrics();
+    }
+
+    @Test public void countsByPriorityTagAndTree() {
+        LoggerMetrics metrics = Logger.enableMetrics();
+        Logger.plant(quiet);
+        Logger.tag("A").i("One");
+        Logger.tag("A").w("Two");
+        Logger.tag("B").w("Three");
+        Logger.log(42, "Unknown");
+
+        assertThat(metrics.getCountsByPriority())
+                .containsEntry("INFO", 1L)
+                .containsEntry("WARN", 2L)
+                .containsEntry("OTHER", 1L)
+                .hasSize(3);
+        assertThat(metrics.getCountsByTag())
+                .containsEntry("A", 2L)
+                .containsEntry("B", 1L)
+                .containsEntry("(none)", 1L);
+        assertThat(metrics.getEventsByTree()).containsEntry("quiet", 4L);
+        long[] histogram = metrics.getLatencyHistogramsByTree().get("quiet");
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        assertThat(total).isEqualTo(4);
+        assertThat(metrics.getLatency99thPercentileNanosByTree().get("quiet")).isPositive();
+    }
+
+    @Test public void countsEachMessageOnceAcrossTrees() {
+        LoggerMetrics metrics = Logger.enableMetrics();
+        Logger.Tree other = new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+            }
+
+            @Override public String toString() {
+                return "other";
+            }
+        };
+        Logger.plant(quiet, other);
+        Object logsWhenFormatted = new Object() {
+            @Override public String toString() {
+                Logger.tag("Nested").d("Formatting");
+                return "value";
+            }
+        };
+        Logger.tag("A").i("One");
+        Logger.tag("A").w("Two %s", logsWhenFormatted);
+
+        assertThat(metrics.getCountsByPriority())
+                .containsEntry("INFO", 1L)
+                .containsEntry("WARN", 1L)
+                .containsEntry("DEBUG", 1L)
+                .hasSize(3);
+        assertThat(metrics.getCountsByTag())
+                .containsEntry("A", 2L)
+                .containsEntry("Nested", 1L)
+                .hasSize(2);
+        assertThat(metrics.getEventsByTree())
+                .containsEntry("quiet", 3L)
+                .containsEntry("other", 3L);
+    }
+
+    @Test public void countsOnlyWhileEnabled() {
+        Logger.plant(quiet);
+        Logger.i("Before");
+        LoggerMetrics metrics = Logger.enableMetrics();
+        assertThat(Logger.enableMetrics()).isSameAs(metrics);
+        Logger.i("During");
+        Logger.disableMetrics();
+        Logger.i("After");
+
+        assertThat(metrics.getEventsByTree()).containsEntry("quiet", 1L);
+    }
+
+    @Test public void countsBytesAndSuppressed() {
+        LoggerMetrics metrics = Logger.enableMetrics();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonTree json = new JsonTree(out);
+        RateLimitedTree limited = new RateLimitedTree(quiet, RateLimitedTree.Key.TAG, 0)
+                .limit(Logger.Priority.INFO, 0.001, 1);
+        Logger.plant(json, limited);
+        Logger.i("One");
+        Logger.i("Two");
+
+        assertThat(metrics.getBytesWrittenByTree()).containsEntry(json.toString(),
+                (long) out.size());
+        assertThat(metrics.getSuppressedByTree()).containsEntry(limited.toString(), 1L);
+        assertThat(metrics.getEventsByTree())
+                .containsEntry(json.toString(), 2L)
+                .containsEntry(limited.toString(), 2L);
+    }
+
+    @Test public void resetClearsCounts() {
+        LoggerMetrics metrics = Logger.enableMetrics();
+        Logger.plant(quiet);
+        Logger.i("One");
+        metrics.reset();
+
+        assertThat(metrics.getCountsByPriority()).isEmpty();
+        assertThat(metrics.getEventsByTree()).isEmpty();
+
+        Logger.i("Two");
+        assertThat(metrics.getEventsByTree()).containsEntry("quiet", 1L);
+    }
+
+    @Test public void doesNotKeepUprootedTreesAlive() throws InterruptedException {
+        LoggerMetrics metrics = Logger.enableMetrics();
+        Logger.Tree tree = new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+            }
+        };
+        WeakReference<Logger.Tree> treeRef = new WeakReference<>(tree);
+        Logger.plant(tree);
+        Logger.i("One");
+        assertThat(metrics.getEventsByTree()).containsEntry(tree.toString(), 1L);
+        Logger.uproot(tree);
+        tree = null;
+
+        for (int i = 0; i < 10 && treeRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(treeRef.get()).isNull();
+        assertThat(metrics.getEventsByTree()).isEmpty();
+    }
+
+    @Test public void registersMBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("log:type=Logger");
+        Logger.enableMetrics();
+        Logger.plant(quiet);
+        Logger.tag("A").e("One");
+
+        assertThat(server.isRegistered(name)).isTrue();
+        TabularData counts = (TabularData) server.getAttribute(name, "CountsByPriority");
+        assertThat(counts.get(new Object[] { "ERROR" }).get("value")).isEqualTo(1L);
+
+        Logger.disableMetrics();
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+}
@@ -0,0 +1,108 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class LoggerScopeTest {
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void logsOnlyToOwnTrees() {
+        LoggerScope scope = new LoggerScope();
+        RecordingTree scoped = new RecordingTree();
+        RecordingTree global = new RecordingTree();
+        scope.plant(scoped);
+        Logger.plant(global);
+
+        scope.tag("Scoped").d("Hello, %s!", "scope");
+        Logger.tag("Global").i("Hello, world!");
+
+        assertThat(scoped.logs).containsExactly("DEBUG Scoped Hello, scope!");
+        assertThat(global.logs).containsExactly("INFO Global Hello, world!");
+        assertThat(scope.forest()).containsExactly(scoped);
+        assertThat(Logger.forest()).containsExactly(global);
+    }
+
+    @Test public void inheritsDefaultTrees() {
+        LoggerScope scope = new LoggerScope(true);
+        RecordingTree scoped = new RecordingTree();
+        RecordingTree global = new RecordingTree();
+        scope.plant(scoped);
+        Logger.plant(global);
+
+        scope.tag("T").w("First");
+        Logger.uproot(global);
+        scope.tag("T").w("Second");
+
+        assertThat(scoped.logs).containsExactly("WARN T First", "WARN T Second");
+        assertThat(global.logs).containsExactly("WARN T First");
+        assertThat(scope.treeCount()).isEqualTo(1);
+    }
+
+    @Test public void filtersByPriority() {
+        LoggerScope scope = new LoggerScope();
+        assertThat(scope.isLoggable(Logger.Priority.ERROR)).isFalse();
+        assertThat(scope.atError()).isSameAs(LogBuilder.NOOP);
+
+        RecordingTree tree = new RecordingTree() {
+            @Override protected int minPriority() {
+                return Logger.Priority.WARN;
+            }
+        };
+        scope.plant(tree);
+        assertThat(scope.isLoggable(Logger.Priority.INFO)).isFalse();
+        assertThat(scope.isLoggable(Logger.Priority.ERROR)).isTrue();
+        assertThat(Logger.isLoggable(Logger.Priority.ERROR)).isFalse();
+
+        scope.atInfo().tag("T").log("Dropped");
+        scope.atError().tag("T").with("id", 7).log("Kept");
+        assertThat(tree.logs).containsExactly("ERROR T Kept id=7");
+    }
+
+    @Test public void infersTagFromCaller() {
+        LoggerScope scope = new LoggerScope();
+        final List<String> tags = new ArrayList<>();
+        scope.plant(new Logger.DebugTree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                tags.add(tag);
+            }
+        });
+
+        scope.d("Hello");
+        scope.atInfo().log("Hello");
+
+        assertThat(tags).containsExactly("LoggerScopeTest", "LoggerScopeTest");
+    }
+
+    @Test public void cannotPlantScopes() {
+        LoggerScope scope = new LoggerScope();
+        try {
+            scope.plant(scope.asTree());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e).hasMessage("Cannot plant Logger into itself.");
+        }
+        try {
+            Logger.plant(scope.asTree());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e).hasMessage("Cannot plant one Logger scope into another.");
+        }
+    }
+
+    private static class RecordingTree extends Logger.Tree {
+        final List<String> logs = new ArrayList<>();
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            logs.add(Logger.Priority.name(priority) + " " + tag + " " + message);
+        }
+    }
+}
@@ -309,6 +309,55 @@ public class LoggerTest {
                 .hasNoMoreMessages();
     }
 
+    @Test public void chunkAtConfiguredMaxLength() {
+        TestTree tree = new TestTree();
+        tree.setMaxLogLength(10);
+        Logger.plant(tree);
+        Logger.d(repeat('a', 25) + '\n' + repeat('b', 4));
+
+        assertLog()
+                .hasDebugMessage("LoggerTest", repeat('a', 10))
+                .hasDebugMessage("LoggerTest", repeat('a', 10))
+                .hasDebugMessage("LoggerTest", repeat('a', 5))
+                .hasDebugMessage("LoggerTest", repeat('b', 4))
+                .hasNoMoreMessages();
+    }
+
+    @Test public void chunksAreRangesOfMessage() {
+        final List<String> ranges = new ArrayList<>();
+        final String message = repeat('a', 5000) + '\n' + repeat('b', 3000);
+        Logger.plant(new Logger.DebugTree() {
+            @Override protected void print(int priority, String tag, CharSequence chunk,
+                    int start, int end, Throwable throwable) {
+                assertThat(chunk).isSameAs(message);
+                ranges.add(start + ".." + end);
+            }
+        });
+        Logger.d(message);
+
+        assertThat(ranges).containsExactly("0..4000", "4000..5000", "5001..8001");
+    }
+
+    @Test public void streamsLongChunksToConsole() throws Exception {
+        Logger.DebugTree tree = new Logger.DebugTree();
+        tree.setMaxLogLength(Integer.MAX_VALUE);
+        Logger.plant(tree);
+        // Fully qualified: debugTreeCanAlterCreatedTag depends on this file's line numbers.
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        java.io.PrintStream out = System.out;
+        System.setOut(new java.io.PrintStream(bytes, true, "UTF-8"));
+        try {
+            Logger.tag("T").d(repeat('a', 20000));
+            Logger.tag("T").i("Short");
+        } finally {
+            System.setOut(out);
+        }
+
+        String separator = System.getProperty("line.separator");
+        assertThat(bytes.toString("UTF-8")).isEqualTo("[DEBUG|T] " + repeat('a', 20000)
+                + separator + "[INFO|T] Short" + separator);
+    }
+
     @Test public void nullMessageWithoutThrowable() {
         Logger.plant(new TestTree());
         Logger.d(null);
@@ -428,6 +477,111 @@ public class LoggerTest {
                 .hasNoMoreMessages();
     }
 
+    @Test public void minPriorityControlsDispatch() {
+        final List<Integer> checked = new ArrayList<>();
+        Logger.plant(new TestTree() {
+            @Override protected int minPriority() {
+                return Logger.Priority.WARN;
+            }
+
+            @Override protected boolean isLoggable(String tag, int priority) {
+                checked.add(priority);
+                return true;
+            }
+        });
+        Logger.v("Hello, World!");
+        Logger.tag("Dropped").d("Hello, World!");
+        Logger.i("Hello, World!");
+        Logger.w("Hello, World!");
+        Logger.log(Logger.Priority.ERROR, "Hello, World!");
+
+        assertThat(checked).containsExactly(Logger.Priority.WARN, Logger.Priority.ERROR);
+        assertLog()
+                .hasWarnMessage("LoggerTest", "Hello, World!")
+                .hasErrorMessage("LoggerTest", "Hello, World!")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void isLoggableReflectsPlantedTrees() {
+        assertThat(Logger.isLoggable(Logger.Priority.ASSERT)).isFalse();
+
+        Logger.Tree tree = new TestTree() {
+            @Override protected int minPriority() {
+                return Logger.Priority.INFO;
+            }
+        };
+        Logger.plant(tree);
+        assertThat(Logger.isLoggable(Logger.Priority.DEBUG)).isFalse();
+        assertThat(Logger.isLoggable(Logger.Priority.INFO)).isTrue();
+        assertThat(Logger.atDebug()).isSameAs(LogBuilder.NOOP);
+        assertThat(Logger.atInfo()).isNotSameAs(LogBuilder.NOOP);
+
+        Logger.uproot(tree);
+        assertThat(Logger.isLoggable(Logger.Priority.INFO)).isFalse();
+    }
+
+    @Test public void formatsOnceForAllTrees() {
+        final int[] formatted = new int[1];
+        Object arg = new Object() {
+            @Override public String toString() {
+                formatted[0]++;
+                return "arg";
+            }
+        };
+        final List<String> custom = new ArrayList<>();
+        Logger.plant(new TestTree(), new TestTree(), new TestTree() {
+            @Override protected String formatMessage(String message, Object[] args) {
+                custom.add(message);
+                return super.formatMessage(message, args);
+            }
+        });
+        Logger.i("Hello %s", arg);
+
+        assertThat(formatted[0]).isEqualTo(2); // Once shared, once for the overriding tree.
+        assertThat(custom).containsExactly("Hello %s");
+        assertLog()
+                .hasInfoMessage("LoggerTest", "Hello arg")
+                .hasInfoMessage("LoggerTest", "Hello arg")
+                .hasInfoMessage("LoggerTest", "Hello arg")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void sharedFormattingLastsOneCall() {
+        Logger.plant(new TestTree(), new TestTree());
+        StringBuilder arg = new StringBuilder("one");
+        Logger.i("Value %s", arg);
+        arg.setLength(0);
+        arg.append("two");
+        Logger.i("Value %s", arg);
+
+        assertLog()
+                .hasInfoMessage("LoggerTest", "Value one")
+                .hasInfoMessage("LoggerTest", "Value one")
+                .hasInfoMessage("LoggerTest", "Value two")
+                .hasInfoMessage("LoggerTest", "Value two")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void rendersStackTraceOnceForAllTrees() {
+        final int[] described = new int[1];
+        Exception t = new RuntimeException() {
+            @Override public String toString() {
+                described[0]++;
+                return "Failure";
+            }
+        };
+        Logger.plant(new TestTree());
+        Logger.e(t, "Oops");
+        int single = described[0];
+
+        described[0] = 0;
+        Logger.uprootAll();
+        Logger.plant(new TestTree(), new TestTree(), new TestTree());
+        Logger.e(t, "Oops");
+
+        assertThat(described[0]).isLessThanOrEqualTo(single);
+    }
+
     @Test public void logsUnknownHostExceptions() {
         Logger.plant(new TestTree());
         Logger.e(new UnknownHostException(), null);
@@ -463,6 +617,110 @@ public class LoggerTest {
                 .hasDebugMessage("LoggerTest", "Test formatting: Test message logged. 100");
     }
 
+    @Test public void fixedArityArgs() {
+        Logger.plant(new TestTree());
+        Logger.d("%s", "one");
+        Logger.d("%s %s", "one", "two");
+        Logger.d("%s %s %s", "one", "two", "three");
+        Logger.d("%s %s %s %s", "one", "two", "three", "four");
+        Logger.tag("Custom").i("%s %s", "one", "two");
+        Logger.log(Logger.Priority.WARN, "%s %s %s", "one", "two", "three");
+
+        assertLog()
+                .hasDebugMessage("LoggerTest", "one")
+                .hasDebugMessage("LoggerTest", "one two")
+                .hasDebugMessage("LoggerTest", "one two three")
+                .hasDebugMessage("LoggerTest", "one two three four")
+                .hasInfoMessage("Custom", "one two")
+                .hasWarnMessage("LoggerTest", "one two three")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void primitiveArgs() {
+        Logger.plant(new TestTree());
+        Logger.v("%d", 1000);
+        Logger.d("%d", 1000L);
+        Logger.i("%s", 1.1f);
+        Logger.w("%.2f", 1.005);
+        Logger.e("%s", true);
+        Logger.wtf("%s", 'c');
+        Logger.log(Logger.Priority.INFO, "%x", 255);
+        Logger.d("%x", (byte) -1);
+        Logger.i("%x", (short) -1);
+
+        assertLog()
+                .hasVerboseMessage("LoggerTest", "1000")
+                .hasDebugMessage("LoggerTest", "1000")
+                .hasInfoMessage("LoggerTest", "1.1")
+                .hasWarnMessage("LoggerTest", "1.01")
+                .hasErrorMessage("LoggerTest", "true")
+                .hasAssertMessage("LoggerTest", "c")
+                .hasInfoMessage("LoggerTest", "ff")
+                .hasDebugMessage("LoggerTest", "ff")
+                .hasInfoMessage("LoggerTest", "ffff")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void fixedArityArgsWithException() {
+        Logger.plant(new TestTree());
+        Logger.e(new NullPointerException(), "Failed %s %d", "twice", 2);
+
+        assertExceptionLogged(Logger.Priority.ERROR, "Failed twice 2", "java.lang.NullPointerException");
+    }
+
+    @Test public void fixedArityArgsNotFormattedWhenNotLoggable() {
+        Logger.plant(new TestTree() {
+            @Override protected boolean isLoggable(String tag, int priority) {
+                return priority >= Logger.Priority.WARN;
+            }
+
+            @Override protected String formatMessage(String message, Object[] args) {
+                throw new AssertionError("Formatted " + message);
+            }
+        });
+        Logger.tag("NotLogged").d("%s", "one");
+        Logger.i("%d", 1);
+        Logger.w("Logged");
+
+        assertLog()
+                .hasWarnMessage("LoggerTest", "Logged")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void tagIsSharedByAllTrees() {
+        Logger.plant(new TestTree(), new TestTree());
+        Logger.tag("Custom").d("Hello, world!");
+        Logger.d("Hello, world!");
+
+        assertLog()
+                .hasDebugMessage("Custom", "Hello, world!")
+                .hasDebugMessage("Custom", "Hello, world!")
+                .hasDebugMessage("LoggerTest", "Hello, world!")
+                .hasDebugMessage("LoggerTest", "Hello, world!")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void tagIsClearedWithoutTrees() {
+        Logger.tag("Dropped").d("Not logged");
+        Logger.plant(new TestTree());
+        Logger.d("Hello, world!");
+
+        assertLog()
+                .hasDebugMessage("LoggerTest", "Hello, world!")
+                .hasNoMoreMessages();
+    }
+
+    @Test public void treeCalledDirectlyInfersTag() {
+        Logger.Tree tree = new TestTree();
+        tree.d("Hello, world!");
+        tree.i("Hello, %s!", "world");
+
+        assertLog()
+                .hasDebugMessage("LoggerTest", "Hello, world!")
+                .hasInfoMessage("LoggerTest", "Hello, world!")
+                .hasNoMoreMessages();
+    }
+
     private static String repeat(char c, int number) {
         char[] data = new char[number];
         Arrays.fill(data, c);
@@ -0,0 +1,212 @@
+package log;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedFileTreeTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @After public void tearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void recordsRoundTrip() throws IOException {
+        MappedFileTree tree = new MappedFileTree(folder.getRoot(), "app", 4096);
+        Logger.plant(tree);
+        Logger.tag("Tag").i("Hello, %s!", "world");
+        Logger.w("Caf\u00e9");
+        tree.close();
+
+        List<MappedFileTree.Record> records = readAll("app");
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).committed).isTrue();
+        assertThat(records.get(0).priority).isEqualTo(Logger.Priority.INFO);
+        assertThat(records.get(0).tag).isEqualTo("Tag");
+        assertThat(records.get(0).message).isEqualTo("Hello, world!");
+        assertThat(records.get(0).timestamp).isPositive();
+        assertThat(records.get(1).tag).isNull();
+        assertThat(records.get(1).message).isEqualTo("Caf\u00e9");
+    }
+
+    @Test public void rollsToNewSegmentWhenFull() throws IOException {
+        MappedFileTree tree = new MappedFileTree(folder.getRoot(), "app", 1024);
+        for (int i = 0; i < 100; i++) {
+            tree.i("Message number %d", i);
+        }
+        tree.close();
+
+        assertThat(MappedFileTree.segments(folder.getRoot(), "app").size()).isGreaterThan(1);
+        List<MappedFileTree.Record> records = readAll("app");
+        assertThat(records).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(records.get(i).message).isEqualTo("Message number " + i);
+        }
+    }
+
+    @Test public void resumesLatestSegment() throws IOException {
+        MappedFileTree first = new MappedFileTree(folder.getRoot(), "app", 1024);
+        for (int i = 0; i < 50; i++) {
+            first.i("First %d", i);
+        }
+        first.close();
+        int segments = MappedFileTree.segments(folder.getRoot(), "app").size();
+
+        MappedFileTree second = new MappedFileTree(folder.getRoot(), "app", 1024);
+        second.i("Second");
+        second.close();
+
+        assertThat(MappedFileTree.segments(folder.getRoot(), "app")).hasSize(segments);
+        List<MappedFileTree.Record> records = readAll("app");
+        assertThat(records).hasSize(51);
+        assertThat(records.get(50).message).isEqualTo("Second");
+    }
+
+    @Test public void concurrentThreadsNeverOverlap() throws Exception {
+        final MappedFileTree tree = new MappedFileTree(folder.getRoot(), "app", 64 * 1024);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread() {
+                @Override public void run() {
+                    for (int j = 0; j < 2000; j++) {
+                        tree.i("%d-%d", thread, j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        tree.close();
+
+        assertAllCommitted(readAll("app"), threads.length, 2000);
+    }
+
+    @Test public void concurrentProcessesShareSegments() throws Exception {
+        File directory = folder.getRoot();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            processes.add(new ProcessBuilder(javaExecutable(), "-cp", classPath(),
+                    Writer.class.getName(), directory.getPath(), String.valueOf(i), "2000")
+                    .inheritIO()
+                    .start());
+        }
+        Writer.main(new String[] { directory.getPath(), "2", "2000" });
+        for (Process process : processes) {
+            assertThat(process.waitFor()).isZero();
+        }
+
+        assertAllCommitted(readAll("app"), 3, 2000);
+    }
+
+    @Test public void detectsTornRecords() throws IOException {
+        MappedFileTree tree = new MappedFileTree(folder.getRoot(), "app", 4096);
+        tree.i("Before");
+        tree.close();
+        File segment = MappedFileTree.segments(folder.getRoot(), "app").get(0);
+        // Simulate writers that died after reserving a slot: one sized it, one did not.
+        long offset = readWriteOffset(segment);
+        writeInt(segment, offset, 24);
+        writeWriteOffset(segment, offset + 80);
+
+        MappedFileTree resumed = new MappedFileTree(folder.getRoot(), "app", 4096);
+        resumed.i("After");
+        resumed.close();
+
+        List<MappedFileTree.Record> records = MappedFileTree.read(segment);
+        assertThat(records).hasSize(4);
+        assertThat(records.get(0).message).isEqualTo("Before");
+        assertThat(records.get(1).committed).isFalse();
+        assertThat(records.get(1).offset).isEqualTo(offset);
+        assertThat(records.get(2).committed).isFalse();
+        assertThat(records.get(2).offset).isEqualTo(offset + 32);
+        assertThat(records.get(3).committed).isTrue();
+        assertThat(records.get(3).message).isEqualTo("After");
+    }
+
+    private static void assertAllCommitted(List<MappedFileTree.Record> records, int writers, int each) {
+        Set<String> messages = new HashSet<>();
+        for (MappedFileTree.Record record : records) {
+            assertThat(record.committed).isTrue();
+            messages.add(record.message);
+        }
+        assertThat(records).hasSize(writers * each);
+        assertThat(messages).hasSize(writers * each);
+    }
+
+    private List<MappedFileTree.Record> readAll(String name) throws IOException {
+        List<MappedFileTree.Record> records = new ArrayList<>();
+        for (File segment : MappedFileTree.segments(folder.getRoot(), name)) {
+            records.addAll(MappedFileTree.read(segment));
+        }
+        return records;
+    }
+
+    private static long readWriteOffset(File segment) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segment, "r");
+        try {
+            file.seek(MappedFileTree.WRITE_OFFSET);
+            long value = file.readLong();
+            return ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void writeWriteOffset(File segment, long value) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.seek(MappedFileTree.WRITE_OFFSET);
+            file.writeLong(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value));
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void writeInt(File segment, long offset, int value) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.seek(offset);
+            file.writeInt(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value));
+        } finally {
+            file.close();
+        }
+    }
+
+    private static String javaExecutable() {
+        return new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+    }
+
+    private static String classPath() {
+        return location(Logger.class) + File.pathSeparator + location(Writer.class);
+    }
+
+    private static String location(Class<?> type) {
+        return type.getProtectionDomain().getCodeSource().getLocation().getPath();
+    }
+
+    /** Appends numbered records to the "app" segments in a directory. */
+    public static final class Writer {
+        public static void main(String[] args) throws IOException {
+            MappedFileTree tree = new MappedFileTree(new File(args[0]), "app", 16 * 1024);
+            for (int i = 0, count = Integer.parseInt(args[2]); i < count; i++) {
+                tree.i("%s-%d", args[1], i);
+            }
+            tree.close();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package log;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MessageFormatterTest {
+    private final Locale defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+
+    @After public void tearDown() {
+        Locale.setDefault(Locale.Category.FORMAT, defaultLocale);
+    }
+
+    @Test public void matchesStringFormatForCompiledSubset() {
+        assertSameAsStringFormat("Hello, %s!", "World");
+        assertSameAsStringFormat("%s %s %s", "a", null, 3);
+        assertSameAsStringFormat("[%10s] [%-10s] [%.2s] [%6.3s]", "abc", "abc", "abc", "abcdef");
+        assertSameAsStringFormat("%d %d %d %d", 42, -42L, (short) 7, (byte) -1);
+        assertSameAsStringFormat("[%5d] [%-5d] [%05d] [%05d]", 42, 42, 42, -42);
+        assertSameAsStringFormat("%x %x %8x %-8x| %08x", 255, -1, 255, 255L, -1L);
+        assertSameAsStringFormat("%f %f %.2f %.0f", 1.5, -0.0, 3.14159, 2.5);
+        assertSameAsStringFormat("[%10.3f] [%-10.3f] [%010.3f] [%010.3f]", 1.5, 1.5, 1.5, -1.5);
+        assertSameAsStringFormat("%.1f %.3f %f", 1.1f, 1e-10, 1e20);
+        assertSameAsStringFormat("100%% done%n", new Object[0]);
+        assertSameAsStringFormat("%s extra arguments are ignored", "one", "two");
+    }
+
+    @Test public void matchesStringFormatForRandomDoubles() {
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (i % 2 == 0) {
+                value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 8);
+            }
+            assertSameAsStringFormat("%." + random.nextInt(10) + "f", value);
+        }
+    }
+
+    @Test public void fallsBackForUnsupportedSpecifiers() {
+        assertSameAsStringFormat("%S %X %b %c", "abc", 255, true, 'c');
+        assertSameAsStringFormat("%2$s %1$s %<s", "a", "b");
+        assertSameAsStringFormat("%+d %,d %(d % d %#x", 1, 1000, -1, 1, 255);
+        assertSameAsStringFormat("%e %g %tY", 1.5, 1.5, new Date(0));
+    }
+
+    @Test public void fallsBackForUnsupportedArguments() {
+        assertSameAsStringFormat("%d %x", BigInteger.TEN, (short) -1);
+        assertSameAsStringFormat("%f %f %f", BigDecimal.ONE, Double.NaN, Double.NEGATIVE_INFINITY);
+        assertSameAsStringFormat("%s", new Formattable() {
+            @Override public void formatTo(Formatter formatter, int flags, int width, int precision) {
+                formatter.format("formattable");
+            }
+        });
+    }
+
+    @Test public void fallsBackForLocalizedDigits() {
+        Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+        assertSameAsStringFormat("%.2f %d %s", 1.5, 1000, "x");
+
+        Locale.setDefault(Locale.Category.FORMAT, new Locale("ar", "SA"));
+        assertSameAsStringFormat("%d", 1234);
+    }
+
+    @Test public void throwsLikeStringFormat() {
+        assertThrowsLikeStringFormat("%d", "not a number");
+        assertThrowsLikeStringFormat("%s %s", "missing");
+        assertThrowsLikeStringFormat("%-s", "a");
+        assertThrowsLikeStringFormat("%05s", "a");
+        assertThrowsLikeStringFormat("%00d", 1);
+        assertThrowsLikeStringFormat("%.2d", 1);
+        assertThrowsLikeStringFormat("trailing %", 1);
+    }
+
+    @Test public void reentrantArgumentsFormatIndependently() {
+        Object nested = new Object() {
+            @Override public String toString() {
+                return MessageFormatter.format("<%s>", new Object[] { "inner" });
+            }
+        };
+        assertSameAsStringFormat("outer %s %s", nested, "end");
+    }
+
+    @Test public void collidingTemplatesAreRecompiled() {
+        for (int i = 0; i < 2000; i++) {
+            String template = "Message " + i + " %s";
+            assertSameAsStringFormat(template, "arg");
+            assertSameAsStringFormat(template, "again");
+        }
+    }
+
+    private static void assertSameAsStringFormat(String template, Object... args) {
+        assertThat(MessageFormatter.format(template, args)).isEqualTo(String.format(template, args));
+    }
+
+    private static void assertThrowsLikeStringFormat(String template, Object... args) {
+        try {
+            String.format(template, args);
+            fail("String.format accepted " + template);
+        } catch (IllegalFormatException expected) {
+            try {
+                MessageFormatter.format(template, args);
+                fail("MessageFormatter accepted " + template);
+            } catch (IllegalFormatException e) {
+                assertThat(e.getClass()).isEqualTo(expected.getClass());
+            }
+        }
+    }
+}
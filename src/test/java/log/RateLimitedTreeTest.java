@@ -0,0 +1,207 @@
+package log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitedTreeTest {
+    private final List<String> logs = Collections.synchronizedList(new ArrayList<String>());
+    private final Logger.Tree recording = new Logger.Tree() {
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            logs.add(Logger.Priority.name(priority) + " " + tag + " " + message);
+        }
+    };
+
+    @Before @After public void setUpAndTearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void limitsBurstPerCallSite() {
+        RateLimitedTree tree = new RateLimitedTree(recording, RateLimitedTree.Key.CALL_SITE, 0)
+                .limit(Logger.Priority.WARN, 0.001, 3);
+        Logger.plant(tree);
+        for (int i = 0; i < 10; i++) {
+            Logger.w("First %d", i);
+            Logger.w("Second %d", i);
+            Logger.i("Unlimited %d", i);
+        }
+
+        assertThat(count("WARN null First")).isEqualTo(3);
+        assertThat(count("WARN null Second")).isEqualTo(3);
+        assertThat(count("INFO null Unlimited")).isEqualTo(10);
+        assertThat(tree.suppressedCount()).isEqualTo(14);
+    }
+
+    @Test public void limitsBurstPerTag() {
+        Logger.plant(new RateLimitedTree(recording, RateLimitedTree.Key.TAG, 0)
+                .limit(Logger.Priority.ERROR, 0.001, 2));
+        for (int i = 0; i < 5; i++) {
+            Logger.tag("A").e("One");
+            Logger.tag("A").e("Two");
+            Logger.tag("B").e("Three");
+        }
+
+        assertThat(logs).containsExactly("ERROR A One", "ERROR A Two", "ERROR B Three",
+                "ERROR B Three");
+    }
+
+    @Test public void collidingTagsHaveTheirOwnBudgets() {
+        // "Aa" and "BB" have the same hash code, so they hash into the same stripe.
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        RateLimitedTree tree = new RateLimitedTree(recording, RateLimitedTree.Key.TAG, 0)
+                .limit(Logger.Priority.ERROR, 0.001, 2)
+                .sample(Logger.Priority.ERROR, 2);
+        Logger.plant(tree);
+        for (int i = 0; i < 10; i++) {
+            Logger.tag("Aa").e("One %d", i);
+            Logger.tag("BB").e("Two %d", i);
+        }
+
+        assertThat(logs).containsExactly("ERROR Aa One 0", "ERROR BB Two 0", "ERROR Aa One 2",
+                "ERROR BB Two 2");
+        assertThat(tree.suppressedCount()).isEqualTo(16);
+    }
+
+    @Test public void refillsOverTime() throws InterruptedException {
+        Logger.plant(new RateLimitedTree(recording, RateLimitedTree.Key.CALL_SITE, 0)
+                .limit(Logger.Priority.WARN, 100, 1));
+        Logger.w("Message");
+        Logger.w("Message");
+        assertThat(logs).hasSize(1);
+
+        Thread.sleep(50);
+        Logger.w("Message");
+        assertThat(logs).hasSize(2);
+    }
+
+    @Test public void samplesOneInN() {
+        RateLimitedTree tree = new RateLimitedTree(recording, RateLimitedTree.Key.CALL_SITE, 0)
+                .sample(Logger.Priority.DEBUG, 10);
+        Logger.plant(tree);
+        for (int i = 0; i < 100; i++) {
+            Logger.d("Message %d", i);
+        }
+
+        assertThat(logs).hasSize(10);
+        assertThat(logs.get(1)).isEqualTo("DEBUG null Message 10");
+        assertThat(tree.suppressedCount()).isEqualTo(90);
+    }
+
+    @Test public void suppressedMessagesAreNotFormatted() {
+        final AtomicInteger formatted = new AtomicInteger();
+        Object arg = new Object() {
+            @Override public String toString() {
+                formatted.incrementAndGet();
+                return "arg";
+            }
+        };
+        Logger.plant(new RateLimitedTree(recording, RateLimitedTree.Key.CALL_SITE, 0)
+                .limit(Logger.Priority.WARN, 0.001, 1));
+        for (int i = 0; i < 10; i++) {
+            Logger.w("Message %s", arg);
+            Logger.atWarn().with("arg", arg).log("Fields");
+        }
+
+        assertThat(logs).containsExactly("WARN null Message arg", "WARN null Fields arg=arg");
+        assertThat(formatted.get()).isEqualTo(2);
+    }
+
+    @Test public void flushSummaryReportsSuppressedCounts() {
+        RateLimitedTree tree = new RateLimitedTree(recording, RateLimitedTree.Key.CALL_SITE, 0)
+                .limit(Logger.Priority.WARN, 0.001, 1)
+                .limit(Logger.Priority.ERROR, 0.001, 1);
+        Logger.plant(tree);
+        tree.flushSummary();
+        for (int i = 0; i < 5; i++) {
+            Logger.w("Warning");
+            Logger.e("Error");
+        }
+        tree.flushSummary();
+        tree.flushSummary();
+        Logger.w("Warning");
+        tree.flushSummary();
+
+        assertThat(logs).containsExactly("WARN null Warning", "ERROR null Error",
+                "WARN RateLimitedTree Suppressed 8 messages: 4 WARN, 4 ERROR",
+                "WARN RateLimitedTree Suppressed 1 message: 1 WARN");
+    }
+
+    @Test public void emitsSummaryPeriodically() throws InterruptedException {
+        Logger.plant(new RateLimitedTree(recording, RateLimitedTree.Key.CALL_SITE, 10)
+                .limit(Logger.Priority.WARN, 0.001, 1));
+        for (int i = 0; i < 5; i++) {
+            Logger.w("Warning");
+        }
+        Thread.sleep(20);
+        Logger.i("Next");
+
+        assertThat(logs).containsExactly("WARN null Warning",
+                "WARN RateLimitedTree Suppressed 4 messages: 4 WARN", "INFO null Next");
+    }
+
+    @Test public void delegatesTagsAndFiltering() {
+        final List<String> tags = new ArrayList<>();
+        Logger.plant(new RateLimitedTree(new Logger.DebugTree() {
+            @Override protected boolean isLoggable(String tag, int priority) {
+                return priority >= Logger.Priority.INFO;
+            }
+
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                tags.add(tag + " " + message);
+            }
+        }));
+        Logger.d("Filtered");
+        Logger.i("Inferred");
+        Logger.tag("Explicit").w("Tagged");
+        Logger.atInfo().log("Builder");
+
+        assertThat(tags).containsExactly("RateLimitedTreeTest Inferred", "Explicit Tagged",
+                "RateLimitedTreeTest Builder");
+    }
+
+    @Test public void concurrentCallersShareBudget() throws InterruptedException {
+        Logger.plant(new RateLimitedTree(recording, RateLimitedTree.Key.CALL_SITE, 0)
+                .limit(Logger.Priority.WARN, 0.001, 100));
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    for (int j = 0; j < 1000; j++) {
+                        Logger.w("Message");
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(logs).hasSize(100);
+    }
+
+    private int count(String prefix) {
+        int count = 0;
+        for (String log : logs) {
+            if (log.startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
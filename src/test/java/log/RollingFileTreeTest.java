@@ -0,0 +1,195 @@
+package log;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RollingFileTreeTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @After public void tearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void writesLines() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree tree = new RollingFileTree(file, 0, 0);
+        Logger.plant(tree);
+        Logger.tag("Tag").i("Hello, %s!", "world");
+        Logger.e("Broken");
+        tree.close();
+
+        List<String> lines = lines(read(file));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0))
+                .matches("\\d{4}-\\d\\d-\\d\\d \\d\\d:\\d\\d:\\d\\d\\.\\d{3} \\[INFO\\|Tag\\] Hello, world!");
+        assertThat(lines.get(1)).endsWith(" [ERROR|null] Broken");
+    }
+
+    @Test public void encodesUtf8() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree tree = new RollingFileTree(file, 0, 0);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("Caf\u00e9 \u2603 \uD83D\uDE00 ");
+        }
+        String message = builder.toString();
+        Logger.plant(tree);
+        Logger.tag("T\u00e5g").w(message);
+        tree.close();
+
+        List<String> lines = lines(read(file));
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0)).endsWith(" [WARN|T\u00e5g] " + message);
+    }
+
+    @Test public void appendsToExistingFile() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree first = new RollingFileTree(file, 0, 0);
+        first.i("First");
+        first.close();
+        RollingFileTree second = new RollingFileTree(file, 0, 0);
+        second.i("Second");
+        second.close();
+
+        List<String> lines = lines(read(file));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).endsWith("First");
+        assertThat(lines.get(1)).endsWith("Second");
+    }
+
+    @Test public void rotatesBySizeAndKeepsCompressedArchives() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree tree = new RollingFileTree(file, 1024, 3);
+        for (int i = 0; i < 200; i++) {
+            tree.i("Message number %d", i);
+        }
+        tree.close();
+
+        List<File> archives = tree.archiveFiles();
+        assertThat(archives).hasSize(3);
+        assertThat(file.length()).isLessThan(1024);
+        List<String> lines = new ArrayList<>();
+        for (File archive : archives) {
+            assertThat(archive.getName()).endsWith(".gz");
+            assertThat(archive.length()).isLessThan(1024);
+            lines.addAll(lines(gunzip(archive)));
+        }
+        lines.addAll(lines(read(file)));
+        // The kept files hold the newest messages, without gaps.
+        for (int i = 0, first = 200 - lines.size(); i < lines.size(); i++) {
+            assertThat(lines.get(i)).endsWith("Message number " + (first + i));
+        }
+    }
+
+    @Test public void continuesArchiveNumbering() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree first = new RollingFileTree(file, 100, 10);
+        first.i("A message longer than one hundred bytes, which fills the file and rotates it right away.");
+        first.close();
+        RollingFileTree second = new RollingFileTree(file, 100, 10);
+        second.i("A message longer than one hundred bytes, which fills the file and rotates it right away.");
+        second.close();
+
+        assertThat(second.archiveFiles()).extracting("name")
+                .containsExactly("app.log.0.gz", "app.log.1.gz");
+    }
+
+    @Test public void keepsLoggingWhenRenameFails() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree tree = new RollingFileTree(file, 100, 10);
+        // A file cannot be renamed over a non-empty directory.
+        File blocker = new File(folder.getRoot(), "app.log.0");
+        File blockerChild = new File(blocker, "child");
+        assertThat(blocker.mkdir()).isTrue();
+        assertThat(blockerChild.createNewFile()).isTrue();
+        tree.i("A message longer than one hundred bytes, which fills the file and rotates it right away.");
+        tree.i("A message longer than one hundred bytes, which fills the file and rotates it right away.");
+        assertThat(lines(read(file))).hasSize(2);
+
+        assertThat(blockerChild.delete()).isTrue();
+        assertThat(blocker.delete()).isTrue();
+        tree.i("A message longer than one hundred bytes, which fills the file and rotates it right away.");
+        tree.close();
+
+        assertThat(tree.archiveFiles()).extracting("name").containsExactly("app.log.0.gz");
+        assertThat(lines(gunzip(tree.archiveFiles().get(0)))).hasSize(3);
+        assertThat(file.length()).isZero();
+    }
+
+    @Test public void compressesArchivesLeftByPreviousRun() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        File archive = new File(folder.getRoot(), "app.log.4");
+        assertThat(archive.createNewFile()).isTrue();
+        RollingFileTree tree = new RollingFileTree(file, 0, 5);
+        tree.close();
+
+        assertThat(tree.archiveFiles()).extracting("name").containsExactly("app.log.4.gz");
+    }
+
+    @Test public void rotatesByTime() throws Exception {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree tree = new RollingFileTree(file, 0, 50, 5);
+        tree.i("Before");
+        Thread.sleep(100);
+        tree.i("After");
+        tree.close();
+
+        List<File> archives = tree.archiveFiles();
+        assertThat(archives).hasSize(1);
+        assertThat(lines(gunzip(archives.get(0)))).hasSize(1);
+        assertThat(lines(read(file))).hasSize(1);
+    }
+
+    @Test public void dropsAfterClose() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        RollingFileTree tree = new RollingFileTree(file, 0, 0);
+        tree.close();
+        tree.i("Dropped");
+
+        assertThat(file.length()).isZero();
+    }
+
+    private static List<String> lines(byte[] bytes) {
+        String text = new String(bytes, UTF_8);
+        assertThat(text).endsWith("\n");
+        return Arrays.asList(text.substring(0, text.length() - 1).split("\n"));
+    }
+
+    private static byte[] read(File file) throws IOException {
+        return readFully(new FileInputStream(file));
+    }
+
+    private static byte[] gunzip(File file) throws IOException {
+        return readFully(new GZIPInputStream(new FileInputStream(file)));
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int count; (count = in.read(buffer)) != -1; ) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
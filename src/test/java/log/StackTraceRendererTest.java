@@ -0,0 +1,115 @@
+package log;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StackTraceRendererTest {
+    private static final String NL = System.getProperty("line.separator");
+
+    @After public void tearDown() {
+        Logger.uprootAll();
+    }
+
+    @Test public void matchesPrintStackTrace() {
+        Exception cause = new IOException("Connection reset");
+        Exception t = new IllegalStateException("Request failed", cause);
+        t.addSuppressed(new IllegalArgumentException("Close failed"));
+
+        assertThat(render(StackTraceRenderer.UNLIMITED, t)).isEqualTo(printStackTrace(t));
+    }
+
+    @Test public void exceptionsThatPrintThemselvesAreHonored() {
+        Exception t = new IOException("Failed") {
+            @Override public void printStackTrace(PrintWriter s) {
+                s.println("Custom trace");
+            }
+        };
+
+        assertThat(render(StackTraceRenderer.UNLIMITED, t)).isEqualTo("Custom trace" + NL);
+        assertThat(render(new StackTraceRenderer(0, 0), t)).startsWith("log.StackTraceRendererTest");
+    }
+
+    @Test public void appendsToBuffer() {
+        StringBuilder out = new StringBuilder("Message\n");
+        Exception t = new IOException("Failed");
+        StackTraceRenderer.UNLIMITED.render(t, out);
+
+        assertThat(out.toString()).isEqualTo("Message\n" + printStackTrace(t));
+    }
+
+    @Test public void limitsFrames() {
+        Exception t = new IOException("Failed");
+        t.setStackTrace(new StackTraceElement[] {
+                new StackTraceElement("Foo", "a", "Foo.java", 1),
+                new StackTraceElement("Foo", "b", "Foo.java", 2),
+                new StackTraceElement("Foo", "c", "Foo.java", 3),
+        });
+
+        assertThat(render(new StackTraceRenderer(2, 0), t)).isEqualTo(""
+                + "java.io.IOException: Failed" + NL
+                + "\tat Foo.a(Foo.java:1)" + NL
+                + "\tat Foo.b(Foo.java:2)" + NL
+                + "\t... 1 more" + NL);
+    }
+
+    @Test public void limitsCauses() {
+        Exception t = new RuntimeException("1", new RuntimeException("2",
+                new RuntimeException("3", new RuntimeException("4"))));
+
+        String trace = render(new StackTraceRenderer(0, 1), t);
+
+        assertThat(trace).contains("Caused by: java.lang.RuntimeException: 2");
+        assertThat(trace).doesNotContain(": 3");
+        assertThat(trace).endsWith("... 2 more causes" + NL);
+    }
+
+    @Test public void circularCause() {
+        Exception first = new RuntimeException("first");
+        Exception second = new RuntimeException("second", first);
+        first.initCause(second);
+
+        String trace = render(StackTraceRenderer.UNLIMITED, first);
+
+        assertThat(trace).endsWith(
+                "[CIRCULAR REFERENCE: java.lang.RuntimeException: first]" + NL);
+    }
+
+    @Test public void treeAppliesLimits() {
+        final List<String> logs = new ArrayList<>();
+        Logger.Tree tree = new Logger.Tree() {
+            @Override protected void log(int priority, String tag, String message, Throwable t) {
+                logs.add(message);
+            }
+        };
+        tree.setStackTraceLimits(0, 0);
+        Logger.plant(tree);
+        Logger.e(new IOException("Failed", new IOException("Cause")), "Oops %d", 1);
+
+        String frames = new IOException().getStackTrace().length + " more";
+        assertThat(logs).containsExactly("Oops 1\njava.io.IOException: Failed" + NL
+                + "\t... " + frames + NL
+                + "... 1 more cause" + NL);
+    }
+
+    private static String render(StackTraceRenderer renderer, Throwable t) {
+        StringBuilder out = new StringBuilder();
+        renderer.render(t, out);
+        return out.toString();
+    }
+
+    private static String printStackTrace(Throwable t) {
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw, false);
+        t.printStackTrace(pw);
+        pw.flush();
+        return sw.toString();
+    }
+}